@@ -0,0 +1,398 @@
+package de.hbt.propertyname.agent;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.nio.charset.StandardCharsets;
+import java.security.ProtectionDomain;
+import java.util.*;
+import java.util.function.Consumer;
+
+import org.objectweb.asm.*;
+
+/**
+ * Rewrites the call sites of <code>nameOf()</code> and <code>pathOf()</code> with a non-capturing lambda or method
+ * reference, such as <code>nameOf(Contract::getCustomer)</code>, and of <code>name()</code> and <code>path()</code> of
+ * a chain of getter calls on the result of <code>of()</code>, such as
+ * <code>name(any(of(Contract::getPositions)).getQuantity())</code>, to a single <code>invokedynamic</code> instruction
+ * linked by <code>PropertyNameBuilder.RT.constantPath()</code>. Once linked, the call site returns the path as a
+ * constant, without creating a lambda, looking up a cache or recording the path in a thread-local.
+ * <p>
+ * Only the instructions of the call itself are replaced. All other code, including anything in between the calls
+ * which does not belong to the chain, is left as it is.
+ */
+class CallSiteRewriter implements ClassFileTransformer {
+	private static final String BUILDER = "de/hbt/propertyname/PropertyNameBuilder";
+	private static final byte[] BUILDER_BYTES = BUILDER.getBytes(StandardCharsets.UTF_8);
+	private static final String GETTER = "Lde/hbt/propertyname/Getter;";
+	private static final String FUNCTION = "Ljava/util/function/Function;";
+	private static final String STRING = "Ljava/lang/String;";
+	private static final String PATH = "Lde/hbt/propertyname/PropertyPath;";
+	private static final String OBJECT = "Ljava/lang/Object;";
+	private static final Handle BOOTSTRAP = new Handle(H_INVOKESTATIC, BUILDER + "$RT", "constantPath",
+			"(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;"
+					+ "Ljava/lang/invoke/MethodHandle;Ljava/lang/invoke/MethodType;[Ljava/lang/invoke/MethodHandle;)"
+					+ "Ljava/lang/invoke/CallSite;",
+			false);
+	/**
+	 * <code>any()</code> and its variants for maps, optionals and arrays
+	 */
+	private static final List<Handle> ANY = Arrays.asList(
+			new Handle(H_INVOKESTATIC, BUILDER, "any", "(Ljava/util/Collection;)" + OBJECT, false),
+			new Handle(H_INVOKESTATIC, BUILDER, "anyKey", "(Ljava/util/Map;)" + OBJECT, false),
+			new Handle(H_INVOKESTATIC, BUILDER, "anyValue", "(Ljava/util/Map;)" + OBJECT, false),
+			new Handle(H_INVOKESTATIC, BUILDER, "anyElement", "(Ljava/util/Optional;)" + OBJECT, false),
+			new Handle(H_INVOKESTATIC, BUILDER, "anyElement", "([" + OBJECT + ")" + OBJECT, false));
+
+	/**
+	 * The internal names of the packages to rewrite, each ending with a slash, or empty to rewrite all packages
+	 */
+	private final List<String> packages = new ArrayList<>();
+
+	/**
+	 * @param packages the names of the packages to rewrite, or an empty list to rewrite all packages
+	 */
+	CallSiteRewriter(List<String> packages) {
+		for (String p : packages)
+			this.packages.add(p.replace('.', '/') + "/");
+	}
+
+	@Override
+	public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+			ProtectionDomain protectionDomain, byte[] classfileBuffer) {
+		if (loader == null || className == null || !included(className) || !contains(classfileBuffer, BUILDER_BYTES))
+			return null;
+		try {
+			return rewrite(classfileBuffer);
+		} catch (RuntimeException e) {
+			/* Leave the class as it is, the call sites still work without being rewritten */
+			return null;
+		}
+	}
+
+	private boolean included(String className) {
+		if (packages.isEmpty())
+			return true;
+		for (String p : packages) {
+			if (className.startsWith(p))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Whether the class file contains the given bytes, such as the name of a referenced class in its constant pool.
+	 */
+	private static boolean contains(byte[] classfile, byte[] bytes) {
+		outer: for (int i = 0, n = classfile.length - bytes.length; i <= n; i++) {
+			for (int j = 0; j < bytes.length; j++) {
+				if (classfile[i + j] != bytes[j])
+					continue outer;
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param classfile the class to rewrite
+	 * @return the rewritten class, or <code>null</code> if it contains no call site to rewrite
+	 */
+	static byte[] rewrite(byte[] classfile) {
+		ClassReader reader = new ClassReader(classfile);
+		ClassWriter writer = new ClassWriter(reader, 0);
+		boolean[] rewritten = { false };
+		reader.accept(new ClassVisitor(ASM9, writer) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				return new CallSiteVisitor(super.visitMethod(access, name, descriptor, signature, exceptions),
+						rewritten);
+			}
+		}, 0);
+		return rewritten[0] ? writer.toByteArray() : null;
+	}
+
+	/**
+	 * Holds back the instructions following a non-capturing lambda, until they either turn out to be a call site to
+	 * rewrite, or something else, in which case they are passed on unchanged.
+	 */
+	private static final class CallSiteVisitor extends MethodVisitor {
+		private final boolean[] rewritten;
+		/**
+		 * The instructions held back, starting with the lambda
+		 */
+		private final List<Consumer<MethodVisitor>> held = new ArrayList<>();
+		/**
+		 * The labels and line numbers among the held back instructions, which are kept when rewriting
+		 */
+		private final List<Consumer<MethodVisitor>> positions = new ArrayList<>();
+		/**
+		 * The getters called on the result of <code>of()</code>
+		 */
+		private final List<Handle> chain = new ArrayList<>();
+		/**
+		 * The implementation method of the held back lambda, or <code>null</code> when nothing is held back
+		 */
+		private Handle implMethod;
+		private Type instantiatedMethodType;
+		/**
+		 * The descriptor of the functional interface of the lambda
+		 */
+		private String lambdaType;
+		/**
+		 * Whether the lambda was given to <code>of()</code>
+		 */
+		private boolean inChain;
+
+		CallSiteVisitor(MethodVisitor mv, boolean[] rewritten) {
+			super(ASM9, mv);
+			this.rewritten = rewritten;
+		}
+
+		private void reset() {
+			held.clear();
+			positions.clear();
+			chain.clear();
+			implMethod = null;
+			inChain = false;
+		}
+
+		/**
+		 * Pass on the held back instructions unchanged.
+		 */
+		private void release() {
+			if (implMethod == null)
+				return;
+			List<Consumer<MethodVisitor>> instructions = new ArrayList<>(held);
+			reset();
+			for (Consumer<MethodVisitor> instruction : instructions)
+				instruction.accept(mv);
+		}
+
+		private void rewrite(String returnType) {
+			for (Consumer<MethodVisitor> position : positions)
+				position.accept(mv);
+			Object[] arguments = new Object[2 + chain.size()];
+			arguments[0] = implMethod;
+			arguments[1] = instantiatedMethodType;
+			for (int i = 0; i < chain.size(); i++)
+				arguments[2 + i] = chain.get(i);
+			mv.visitInvokeDynamicInsn("constantPath", "()" + returnType, BOOTSTRAP, arguments);
+			reset();
+			rewritten[0] = true;
+		}
+
+		private static Handle lambdaImplementation(String descriptor, Handle bootstrap, Object[] arguments) {
+			if (!bootstrap.getOwner().equals("java/lang/invoke/LambdaMetafactory")
+					|| !bootstrap.getName().equals("metafactory") && !bootstrap.getName().equals("altMetafactory")
+					|| !descriptor.equals("()" + GETTER) && !descriptor.equals("()" + FUNCTION)
+					|| arguments.length < 3 || !(arguments[1] instanceof Handle) || !(arguments[2] instanceof Type))
+				return null;
+			Handle handle = (Handle) arguments[1];
+			int tag = handle.getTag();
+			return tag == H_INVOKEVIRTUAL || tag == H_INVOKEINTERFACE || tag == H_INVOKESTATIC ? handle : null;
+		}
+
+		private static Handle any(String name, String descriptor) {
+			for (Handle any : ANY) {
+				if (any.getName().equals(name) && any.getDesc().equals(descriptor))
+					return any;
+			}
+			return null;
+		}
+
+		private static boolean isBoxing(int opcode, String owner, String name, String descriptor) {
+			if (opcode != INVOKESTATIC || !owner.startsWith("java/lang/") || !name.equals("valueOf"))
+				return false;
+			Type[] argumentTypes = Type.getArgumentTypes(descriptor);
+			return argumentTypes.length == 1 && argumentTypes[0].getSort() < Type.ARRAY;
+		}
+
+		@Override
+		public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+				Object... bootstrapMethodArguments) {
+			release();
+			Handle handle = lambdaImplementation(descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+			if (handle == null) {
+				super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+				return;
+			}
+			implMethod = handle;
+			instantiatedMethodType = (Type) bootstrapMethodArguments[2];
+			lambdaType = descriptor.substring(2);
+			held.add(v -> v.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments));
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+			if (implMethod != null && matches(opcode, owner, name, descriptor, isInterface))
+				return;
+			release();
+			super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+		}
+
+		/**
+		 * @return whether the method call was rewritten or held back as part of the call site
+		 */
+		private boolean matches(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+			boolean builder = opcode == INVOKESTATIC && owner.equals(BUILDER);
+			if (!inChain) {
+				if (builder && name.equals("nameOf") && descriptor.equals("(" + lambdaType + ")" + STRING)) {
+					rewrite(STRING);
+				} else if (builder && name.equals("pathOf") && descriptor.equals("(" + lambdaType + ")" + PATH)) {
+					rewrite(PATH);
+				} else if (builder && name.equals("of") && descriptor.equals("(" + lambdaType + ")" + OBJECT)) {
+					inChain = true;
+				} else {
+					return false;
+				}
+			} else if (builder && name.equals("name") && descriptor.equals("(" + OBJECT + ")" + STRING)) {
+				rewrite(STRING);
+			} else if (builder && name.equals("path") && descriptor.equals("(" + OBJECT + ")" + PATH)) {
+				rewrite(PATH);
+			} else if (builder && any(name, descriptor) != null) {
+				chain.add(any(name, descriptor));
+			} else if ((opcode == INVOKEVIRTUAL || opcode == INVOKEINTERFACE) && !owner.startsWith("[")
+					&& descriptor.startsWith("()") && !descriptor.equals("()V")) {
+				chain.add(new Handle(opcode == INVOKEVIRTUAL ? H_INVOKEVIRTUAL : H_INVOKEINTERFACE, owner, name,
+						descriptor, isInterface));
+			} else if (!isBoxing(opcode, owner, name, descriptor)) {
+				return false;
+			}
+			if (implMethod != null)
+				held.add(v -> v.visitMethodInsn(opcode, owner, name, descriptor, isInterface));
+			return true;
+		}
+
+		@Override
+		public void visitTypeInsn(int opcode, String type) {
+			if (implMethod != null && inChain && opcode == CHECKCAST) {
+				held.add(v -> v.visitTypeInsn(opcode, type));
+				return;
+			}
+			release();
+			super.visitTypeInsn(opcode, type);
+		}
+
+		@Override
+		public void visitLabel(Label label) {
+			if (implMethod != null) {
+				Consumer<MethodVisitor> instruction = v -> v.visitLabel(label);
+				held.add(instruction);
+				positions.add(instruction);
+				return;
+			}
+			super.visitLabel(label);
+		}
+
+		@Override
+		public void visitLineNumber(int line, Label start) {
+			if (implMethod != null) {
+				Consumer<MethodVisitor> instruction = v -> v.visitLineNumber(line, start);
+				held.add(instruction);
+				positions.add(instruction);
+				return;
+			}
+			super.visitLineNumber(line, start);
+		}
+
+		@Override
+		public void visitFrame(int type, int numLocal, Object[] local, int numStack, Object[] stack) {
+			release();
+			super.visitFrame(type, numLocal, local, numStack, stack);
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			release();
+			super.visitInsn(opcode);
+		}
+
+		@Override
+		public void visitIntInsn(int opcode, int operand) {
+			release();
+			super.visitIntInsn(opcode, operand);
+		}
+
+		@Override
+		public void visitVarInsn(int opcode, int var) {
+			release();
+			super.visitVarInsn(opcode, var);
+		}
+
+		@Override
+		public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+			release();
+			super.visitFieldInsn(opcode, owner, name, descriptor);
+		}
+
+		@Override
+		public void visitJumpInsn(int opcode, Label label) {
+			release();
+			super.visitJumpInsn(opcode, label);
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			release();
+			super.visitLdcInsn(value);
+		}
+
+		@Override
+		public void visitIincInsn(int var, int increment) {
+			release();
+			super.visitIincInsn(var, increment);
+		}
+
+		@Override
+		public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+			release();
+			super.visitTableSwitchInsn(min, max, dflt, labels);
+		}
+
+		@Override
+		public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+			release();
+			super.visitLookupSwitchInsn(dflt, keys, labels);
+		}
+
+		@Override
+		public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+			release();
+			super.visitMultiANewArrayInsn(descriptor, numDimensions);
+		}
+
+		@Override
+		public AnnotationVisitor visitInsnAnnotation(int typeRef, TypePath typePath, String descriptor,
+				boolean visible) {
+			release();
+			return super.visitInsnAnnotation(typeRef, typePath, descriptor, visible);
+		}
+
+		@Override
+		public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+			release();
+			super.visitTryCatchBlock(start, end, handler, type);
+		}
+
+		@Override
+		public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end,
+				int index) {
+			release();
+			super.visitLocalVariable(name, descriptor, signature, start, end, index);
+		}
+
+		@Override
+		public void visitMaxs(int maxStack, int maxLocals) {
+			release();
+			super.visitMaxs(maxStack, maxLocals);
+		}
+
+		@Override
+		public void visitEnd() {
+			release();
+			super.visitEnd();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package de.hbt.propertyname.agent;
+
+import java.lang.instrument.Instrumentation;
+import java.util.*;
+
+/**
+ * Java agent which rewrites the call sites of <code>nameOf(Contract::getCustomer)</code> and
+ * <code>name(of(Contract::getCustomer).getName())</code> (as well as <code>pathOf()</code> and <code>path()</code>) to
+ * constants when their classes are loaded, see {@link CallSiteRewriter}.
+ * <p>
+ * The optional agent arguments are a comma-separated list of the packages to rewrite, including their subpackages,
+ * like so: <code>-javaagent:propertyname-agent.jar=com.example.domain,com.example.web</code>. Without arguments, all
+ * classes are rewritten.
+ */
+public class PropertyNameAgent {
+
+	private PropertyNameAgent() {
+	}
+
+	public static void premain(String args, Instrumentation inst) {
+		inst.addTransformer(new CallSiteRewriter(packages(args)));
+	}
+
+	public static void agentmain(String args, Instrumentation inst) {
+		premain(args, inst);
+	}
+
+	static List<String> packages(String args) {
+		List<String> packages = new ArrayList<>();
+		if (args != null) {
+			for (String p : args.split(",")) {
+				if (!p.trim().isEmpty())
+					packages.add(p.trim());
+			}
+		}
+		return packages;
+	}
+}
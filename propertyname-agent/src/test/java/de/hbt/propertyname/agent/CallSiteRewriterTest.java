@@ -0,0 +1,134 @@
+package de.hbt.propertyname.agent;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.*;
+
+import de.hbt.propertyname.PropertyNameException;
+import de.hbt.propertyname.agent.CallSites.Contract;
+
+class CallSiteRewriterTest {
+	private static byte[] classfile;
+	private static byte[] rewritten;
+	private static Class<?> rewrittenClass;
+
+	@BeforeAll
+	static void rewrite() throws IOException {
+		try (InputStream is = CallSites.class.getResourceAsStream("CallSites.class")) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n; (n = is.read(buffer)) > 0;)
+				out.write(buffer, 0, n);
+			classfile = out.toByteArray();
+		}
+		rewritten = CallSiteRewriter.rewrite(classfile);
+		rewrittenClass = new ClassLoader(CallSites.class.getClassLoader()) {
+			Class<?> define() {
+				return defineClass(CallSites.class.getName(), rewritten, 0, rewritten.length);
+			}
+		}.define();
+	}
+
+	private static Object invoke(Class<?> clazz, String method, Object... args) throws Throwable {
+		Class<?>[] types = new Class<?>[args.length];
+		Arrays.fill(types, String.class);
+		try {
+			return clazz.getMethod(method, types).invoke(null, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * @return the names of the methods of PropertyNameBuilder called per method of the class
+	 */
+	private static Map<String, List<String>> builderCalls(byte[] classfile) {
+		Map<String, List<String>> calls = new HashMap<>();
+		new ClassReader(classfile).accept(new ClassVisitor(ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				List<String> methodCalls = calls.computeIfAbsent(name, n -> new ArrayList<>());
+				return new MethodVisitor(ASM9) {
+					@Override
+					public void visitMethodInsn(int opcode, String owner, String n, String d, boolean itf) {
+						if (owner.equals("de/hbt/propertyname/PropertyNameBuilder"))
+							methodCalls.add(n);
+					}
+				};
+			}
+		}, 0);
+		return calls;
+	}
+
+	@Test
+	void rewritesCallSitesOfNonCapturingLambdas() {
+		Map<String, List<String>> calls = builderCalls(rewritten);
+		for (String method : Arrays.asList("methodReference", "function", "lambda", "chain", "multiLineChain", "mapChain",
+				"arrayChain", "chainPath", "finalClass", "objectMethod"))
+			assertThat(calls.get(method)).as(method).isEmpty();
+		assertThat(calls.get("capturing")).containsExactly("nameOf");
+		assertThat(calls.get("notAChain")).containsExactly("of", "name");
+	}
+
+	@Test
+	void rewrittenCallSitesReturnTheOriginalPaths() throws Throwable {
+		for (String method : Arrays.asList("methodReference", "function", "lambda", "chain", "multiLineChain", "mapChain",
+				"arrayChain", "chainPath", "notAChain"))
+			assertThat(invoke(rewrittenClass, method)).as(method).isEqualTo(invoke(CallSites.class, method));
+		assertThat(invoke(rewrittenClass, "chain")).isEqualTo("customer.name");
+		assertThat(invoke(rewrittenClass, "multiLineChain")).isEqualTo("positions.quantity");
+		assertThat(invoke(rewrittenClass, "mapChain")).isEqualTo("customersByRegion.name");
+		assertThat(invoke(rewrittenClass, "arrayChain")).isEqualTo("signatories.name");
+		assertThat(invoke(rewrittenClass, "capturing", "!")).isEqualTo(invoke(CallSites.class, "capturing", "!"));
+	}
+
+	@Test
+	void rewrittenCallSitesReturnConstants() throws Throwable {
+		assertThat(invoke(rewrittenClass, "chainPath")).isSameAs(invoke(rewrittenClass, "chainPath"));
+		assertThat(invoke(rewrittenClass, "chain")).isSameAs(invoke(rewrittenClass, "chain"));
+	}
+
+	@Test
+	void rewrittenCallSitesThrowNewExceptionsOnEachCall() {
+		for (String method : Arrays.asList("finalClass", "objectMethod")) {
+			Throwable original = catchThrowable(() -> invoke(CallSites.class, method));
+			Throwable first = catchThrowable(() -> invoke(rewrittenClass, method));
+			Throwable second = catchThrowable(() -> invoke(rewrittenClass, method));
+			assertThat(original).isInstanceOf(PropertyNameException.class);
+			assertThat(first).isInstanceOf(PropertyNameException.class).hasMessage(original.getMessage())
+					.hasCauseInstanceOf(PropertyNameException.class);
+			assertThat(second).isInstanceOf(PropertyNameException.class).isNotSameAs(first)
+					.hasMessage(original.getMessage());
+		}
+	}
+
+	@Test
+	void linkingDoesNotCaptureUnfinishedExpressions() throws Throwable {
+		of(Contract::getPositions);
+		assertThat(invoke(rewrittenClass, "lambda").toString()).isEqualTo("customer.name");
+		assertThat(name(null)).isEqualTo("positions");
+	}
+
+	@Test
+	void rewritesIncludedPackagesOnly() {
+		ClassLoader cl = CallSites.class.getClassLoader();
+		String className = "de/hbt/propertyname/agent/CallSites";
+		assertThat(new CallSiteRewriter(Collections.emptyList()).transform(cl, className, null, null, classfile))
+				.isNotNull();
+		assertThat(new CallSiteRewriter(PropertyNameAgent.packages("com.example, de.hbt.propertyname")).transform(cl,
+				className, null, null, classfile)).isNotNull();
+		assertThat(new CallSiteRewriter(PropertyNameAgent.packages("com.example")).transform(cl, className, null, null,
+				classfile)).isNull();
+		assertThat(new CallSiteRewriter(Collections.emptyList()).transform(null, className, null, null, classfile))
+				.isNull();
+	}
+}
@@ -0,0 +1,103 @@
+package de.hbt.propertyname.agent;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+import de.hbt.propertyname.PropertyPath;
+
+/**
+ * Call sites of {@link CallSiteRewriterTest}, which are loaded once as they are and once rewritten.
+ */
+public class CallSites {
+	public static class Contract {
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		public List<Position> getPositions() {
+			throw new AssertionError();
+		}
+
+		public long getPrice() {
+			throw new AssertionError();
+		}
+
+		public Map<String, Customer> getCustomersByRegion() {
+			throw new AssertionError();
+		}
+
+		public Customer[] getSignatories() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Customer {
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Position {
+		public int getQuantity() {
+			throw new AssertionError();
+		}
+	}
+
+	public static final class Invoice {
+		public String getNumber() {
+			throw new AssertionError();
+		}
+	}
+
+	public static String methodReference() {
+		return nameOf(Contract::getPrice);
+	}
+
+	public static String function() {
+		return nameOf((Function<Contract, Customer>) Contract::getCustomer);
+	}
+
+	public static PropertyPath lambda() {
+		return pathOf((Contract c) -> c.getCustomer().getName());
+	}
+
+	public static String chain() {
+		return name(of(Contract::getCustomer).getName());
+	}
+
+	public static String multiLineChain() {
+		return name(any(of(Contract::getPositions))
+				.getQuantity());
+	}
+
+	public static String mapChain() {
+		return name(anyValue(of(Contract::getCustomersByRegion)).getName());
+	}
+
+	public static String arrayChain() {
+		return name(anyElement(of(Contract::getSignatories)).getName());
+	}
+
+	public static PropertyPath chainPath() {
+		return path(of(Contract::getCustomer).getName());
+	}
+
+	public static String finalClass() {
+		return nameOf(Invoice::getNumber);
+	}
+
+	public static String objectMethod() {
+		return nameOf(Contract::toString);
+	}
+
+	public static String capturing(String suffix) {
+		return nameOf((Contract c) -> c.getCustomer() + suffix);
+	}
+
+	public static String notAChain() {
+		Customer customer = of(Contract::getCustomer);
+		return name(customer.getName());
+	}
+}
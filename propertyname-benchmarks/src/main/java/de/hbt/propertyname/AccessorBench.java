@@ -0,0 +1,119 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Reading <code>customer.address.city</code> and <code>lines.quantity</code> from real instances via a
+ * {@link PropertyAccessor}, compared to calling the getters by hand and via reflection.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class AccessorBench {
+
+	public static class Order {
+		Customer customer = new Customer();
+		List<Line> lines = new ArrayList<>();
+
+		public Customer getCustomer() {
+			return customer;
+		}
+
+		public List<Line> getLines() {
+			return lines;
+		}
+	}
+
+	public static class Customer {
+		Address address = new Address();
+
+		public Address getAddress() {
+			return address;
+		}
+	}
+
+	public static class Address {
+		public String getCity() {
+			return "Hamburg";
+		}
+	}
+
+	public static class Line {
+		int quantity;
+
+		public int getQuantity() {
+			return quantity;
+		}
+	}
+
+	public Order order = new Order();
+	public PropertyAccessor<Order> city;
+	public PropertyAccessor<Order> quantities;
+	public Method[] cityMethods;
+
+	@Setup
+	public void setup() throws Exception {
+		for (int i = 0; i < 10; i++)
+			order.lines.add(new Line());
+		city = accessor(Order.class, path(of(Order::getCustomer).getAddress().getCity()));
+		quantities = accessor(Order.class, path(any(of(Order::getLines)).getQuantity()));
+		cityMethods = new Method[] { Order.class.getMethod("getCustomer"), Customer.class.getMethod("getAddress"),
+				Address.class.getMethod("getCity") };
+	}
+
+	@Benchmark
+	public Object generated() {
+		return city.apply(order);
+	}
+
+	@Benchmark
+	public Object direct() {
+		Customer customer = order.getCustomer();
+		Address address = customer == null ? null : customer.getAddress();
+		return address == null ? null : address.getCity();
+	}
+
+	@Benchmark
+	public Object reflection() throws Exception {
+		Object value = order;
+		for (Method m : cityMethods) {
+			value = m.invoke(value);
+			if (value == null)
+				return null;
+		}
+		return value;
+	}
+
+	@Benchmark
+	public Object generatedFanOut() {
+		return quantities.apply(order);
+	}
+
+	@Benchmark
+	public Object directFanOut() {
+		List<Object> values = new ArrayList<>();
+		for (Line line : order.getLines()) {
+			if (line != null)
+				values.add(line.getQuantity());
+		}
+		return values;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(AccessorBench.class.getSimpleName()).addProfiler(GCProfiler.class)
+				.forks(1).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,97 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Cost of the names of 20 getters of the same class via one {@link PropertyNameBuilder#names(Getter...) names()} call
+ * compared to 20 {@link PropertyNameBuilder#nameOf(Getter) nameOf()} calls, once cached and on first use (after
+ * {@link PropertyNameBuilder#clear()}, with the proxy generated again before the measurement).
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchBench {
+
+	public static class Contract {
+		// @formatter:off
+		public String getP0() { throw new AssertionError(); }
+		public String getP1() { throw new AssertionError(); }
+		public String getP2() { throw new AssertionError(); }
+		public String getP3() { throw new AssertionError(); }
+		public String getP4() { throw new AssertionError(); }
+		public String getP5() { throw new AssertionError(); }
+		public String getP6() { throw new AssertionError(); }
+		public String getP7() { throw new AssertionError(); }
+		public String getP8() { throw new AssertionError(); }
+		public String getP9() { throw new AssertionError(); }
+		public String getP10() { throw new AssertionError(); }
+		public String getP11() { throw new AssertionError(); }
+		public String getP12() { throw new AssertionError(); }
+		public String getP13() { throw new AssertionError(); }
+		public String getP14() { throw new AssertionError(); }
+		public String getP15() { throw new AssertionError(); }
+		public String getP16() { throw new AssertionError(); }
+		public String getP17() { throw new AssertionError(); }
+		public String getP18() { throw new AssertionError(); }
+		public String getP19() { throw new AssertionError(); }
+		// @formatter:on
+	}
+
+	@State(Scope.Thread)
+	public static class Cleared {
+		@Setup(Level.Invocation)
+		public void clear() {
+			PropertyNameBuilder.clear();
+			PropertyNameBuilder.of(Contract.class);
+		}
+	}
+
+	@Benchmark
+	public String[] batch() {
+		return names(Contract::getP0, Contract::getP1, Contract::getP2, Contract::getP3, Contract::getP4,
+				Contract::getP5, Contract::getP6, Contract::getP7, Contract::getP8, Contract::getP9, Contract::getP10,
+				Contract::getP11, Contract::getP12, Contract::getP13, Contract::getP14, Contract::getP15,
+				Contract::getP16, Contract::getP17, Contract::getP18, Contract::getP19);
+	}
+
+	@Benchmark
+	public String[] loop() {
+		return new String[] { nameOf(Contract::getP0), nameOf(Contract::getP1), nameOf(Contract::getP2),
+				nameOf(Contract::getP3), nameOf(Contract::getP4), nameOf(Contract::getP5), nameOf(Contract::getP6),
+				nameOf(Contract::getP7), nameOf(Contract::getP8), nameOf(Contract::getP9), nameOf(Contract::getP10),
+				nameOf(Contract::getP11), nameOf(Contract::getP12), nameOf(Contract::getP13),
+				nameOf(Contract::getP14), nameOf(Contract::getP15), nameOf(Contract::getP16),
+				nameOf(Contract::getP17), nameOf(Contract::getP18), nameOf(Contract::getP19) };
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 200)
+	@Measurement(iterations = 500)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String[] firstBatch(Cleared cleared) {
+		return batch();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 200)
+	@Measurement(iterations = 500)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String[] firstLoop(Cleared cleared) {
+		return loop();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(BatchBench.class.getSimpleName()).forks(1).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,50 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Cost of <code>name(of(...))</code> of property paths with 1 to 10 segments.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChainDepthBench {
+
+	public static class Node {
+		public Node getNext() {
+			throw new AssertionError();
+		}
+
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	@Param({ "1", "2", "3", "5", "10" })
+	public int depth;
+
+	@Benchmark
+	public String chain() {
+		if (depth == 1)
+			return name(of(Node::getName));
+		Node node = of(Node::getNext);
+		for (int i = 2; i < depth; i++)
+			node = node.getNext();
+		return name(node.getName());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(ChainDepthBench.class.getSimpleName()).addProfiler(GCProfiler.class)
+				.forks(1).build();
+		new Runner(opt).run();
+	}
+}
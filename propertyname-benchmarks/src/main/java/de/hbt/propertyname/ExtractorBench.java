@@ -0,0 +1,106 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Exporting four paths sharing the prefix <code>customer.address</code> from 10,000 contracts with a
+ * {@link PropertyExtractor} into a reused row and into columns, compared to one {@link PropertyAccessor} per path.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class ExtractorBench {
+
+	public static class Contract {
+		Customer customer = new Customer();
+
+		public Customer getCustomer() {
+			return customer;
+		}
+	}
+
+	public static class Customer {
+		Address address = new Address();
+
+		public Address getAddress() {
+			return address;
+		}
+	}
+
+	public static class Address {
+		public String getCity() {
+			return "Hamburg";
+		}
+
+		public String getStreet() {
+			return "Hauptstraße";
+		}
+
+		public int getZip() {
+			return 20095;
+		}
+
+		public long getNumber() {
+			return 1;
+		}
+	}
+
+	public List<Contract> contracts = new ArrayList<>();
+	public PropertyExtractor<Contract> extractor;
+	public List<PropertyAccessor<Contract>> accessors = new ArrayList<>();
+
+	@Setup
+	public void setup() {
+		for (int i = 0; i < 10_000; i++)
+			contracts.add(new Contract());
+		PropertyPath address = path(of(Contract::getCustomer).getAddress());
+		PropertyPath[] paths = { address.child("city"), address.child("street"), address.child("zip"),
+				address.child("number") };
+		extractor = extractor(Contract.class, paths);
+		for (PropertyPath path : paths)
+			accessors.add(accessor(Contract.class, path));
+	}
+
+	@Benchmark
+	public int rows() {
+		Object[] row = new Object[4];
+		int hash = 0;
+		for (Contract contract : contracts)
+			hash += extractor.extract(contract, row)[0].hashCode();
+		return hash;
+	}
+
+	@Benchmark
+	public Object[] columns() {
+		return extractor.extractColumns(contracts);
+	}
+
+	@Benchmark
+	public int accessors() {
+		Object[] row = new Object[4];
+		int hash = 0;
+		for (Contract contract : contracts) {
+			for (int i = 0; i < row.length; i++)
+				row[i] = accessors.get(i).apply(contract);
+			hash += row[0].hashCode();
+		}
+		return hash;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(ExtractorBench.class.getSimpleName()).addProfiler(GCProfiler.class)
+				.forks(1).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,152 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Cost of the typical calls once all proxies exist:
+ * <ul>
+ * <li>{@link PropertyNameBuilder#nameOf(Getter) nameOf()} of non-capturing lambdas, whose names are cached, and of
+ * capturing lambdas, which miss the cache and call the proxy every time
+ * <li>{@link PropertyNameBuilder#nameOf(Function) nameOf()} of a plain {@link Function}
+ * <li><code>name(of(...))</code> starting from a class, an interface, and a subclass inheriting the getter
+ * <li>{@link PropertyNameBuilder#nameOf(Class, Getter) nameOf()} of a path expression
+ * <li><code>any()</code>, <code>anyValue()</code> and <code>anyElement()</code> navigating into a set, a map and an
+ * optional
+ * <li>the same calls via a {@link PropertyNaming} with snake case JSON Pointers
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/jdk.internal.reflect=ALL-UNNAMED" })
+public class HotPathBench {
+
+	public static class Contract {
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		public List<Customer> getCustomers() {
+			throw new AssertionError();
+		}
+
+		public Set<Customer> getCustomerSet() {
+			throw new AssertionError();
+		}
+
+		public Map<String, Customer> getCustomersByRegion() {
+			throw new AssertionError();
+		}
+
+		public Optional<Customer> getGuarantor() {
+			throw new AssertionError();
+		}
+
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class SalesContract extends Contract {
+	}
+
+	public interface Customer {
+		Contract getContract();
+
+		String getName();
+	}
+
+	private static final PropertyNaming JSON = PropertyNaming.with(NamingStrategy.SNAKE_CASE, PathStyle.JSON_POINTER);
+
+	public int index;
+	public Function<Contract, String> function = Contract::getName;
+
+	@Benchmark
+	public String nameOfCacheHit() {
+		return nameOf(Contract::getName);
+	}
+
+	@Benchmark
+	public String nameOfCacheMiss() {
+		int index = this.index;
+		return nameOf((Contract c) -> c.getCustomers().get(index));
+	}
+
+	@Benchmark
+	public String nameOfFunction() {
+		return nameOf(function);
+	}
+
+	@Benchmark
+	public String classRoot() {
+		return name(of(Contract::getCustomer).getName());
+	}
+
+	@Benchmark
+	public String pathExpression() {
+		return nameOf(Contract.class, c -> c.getCustomer().getName());
+	}
+
+	@Benchmark
+	public String interfaceRoot() {
+		return name(of(Customer::getContract).getName());
+	}
+
+	@Benchmark
+	public String subclassRoot() {
+		return name(of(SalesContract::getCustomer).getName());
+	}
+
+	@Benchmark
+	public String subclassNameOf() {
+		return nameOf(SalesContract::getName);
+	}
+
+	@Benchmark
+	public String setElement() {
+		return name(any(of(Contract::getCustomerSet)).getName());
+	}
+
+	@Benchmark
+	public String mapValue() {
+		return name(anyValue(of(Contract::getCustomersByRegion)).getName());
+	}
+
+	@Benchmark
+	public String optionalElement() {
+		return name(anyElement(of(Contract::getGuarantor)).getName());
+	}
+
+	@Benchmark
+	public String namingNameOf() {
+		return JSON.nameOf(Contract::getName);
+	}
+
+	@Benchmark
+	public String namingClassRoot() {
+		return JSON.name(JSON.of(Contract::getCustomer).getName());
+	}
+
+	@Benchmark
+	public String namingMapValue() {
+		return JSON.name(anyValue(JSON.of(Contract::getCustomersByRegion)).getName());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(HotPathBench.class.getSimpleName()).addProfiler(GCProfiler.class)
+				.forks(1).build();
+		new Runner(opt).run();
+	}
+}
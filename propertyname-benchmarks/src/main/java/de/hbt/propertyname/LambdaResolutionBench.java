@@ -0,0 +1,104 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Latency of the first {@link PropertyNameBuilder#nameOf(Getter) nameOf()} call of a method reference, resolved via
+ * its {@link java.lang.invoke.SerializedLambda} or via the constant pool of a plain {@link Function} lambda class.
+ * Every invocation uses a lambda class of a freshly loaded {@link Lambdas} class, while the proxy of {@link Entity}
+ * is shared.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED",
+		"--add-opens=java.base/jdk.internal.reflect=ALL-UNNAMED" })
+public class LambdaResolutionBench {
+
+	public static class Entity {
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Lambdas {
+		public static Getter<Entity, String> getter() {
+			return Entity::getName;
+		}
+
+		public static Function<Entity, String> function() {
+			return Entity::getName;
+		}
+	}
+
+	private static final byte[] lambdasClass = readClass(Lambdas.class);
+
+	private Getter<Entity, String> getter;
+	private Function<Entity, String> function;
+
+	static class LambdasClassLoader extends ClassLoader {
+		LambdasClassLoader() {
+			super(LambdaResolutionBench.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(Lambdas.class.getName()))
+				return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				return c != null ? c : defineClass(name, lambdasClass, 0, lambdasClass.length);
+			}
+		}
+	}
+
+	private static byte[] readClass(Class<?> clazz) {
+		try (InputStream is = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n; (n = is.read(buffer)) > 0;)
+				bytes.write(buffer, 0, n);
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void proxyEntity() {
+		nameOf(Entity::getName);
+	}
+
+	@Setup(Level.Invocation)
+	@SuppressWarnings("unchecked")
+	public void loadLambdas() throws ReflectiveOperationException {
+		Class<?> lambdas = new LambdasClassLoader().loadClass(Lambdas.class.getName());
+		getter = (Getter<Entity, String>) lambdas.getMethod("getter").invoke(null);
+		function = (Function<Entity, String>) lambdas.getMethod("function").invoke(null);
+	}
+
+	@Benchmark
+	public String serializedLambda() {
+		return nameOf(getter);
+	}
+
+	@Benchmark
+	public String constantPool() {
+		return nameOf(function);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(LambdaResolutionBench.class.getSimpleName()).forks(1).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,103 @@
+package de.hbt.propertyname;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Cost of validating a dotted path via a {@link PropertyPathIndex}, compared to reading the getters along the path via
+ * reflection, and of building the index of a model with cyclic references.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PathIndexBench {
+
+	public static class Contract {
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		public List<Position> getPositions() {
+			throw new AssertionError();
+		}
+
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Customer {
+		public Set<Address> getAddresses() {
+			throw new AssertionError();
+		}
+
+		public List<Contract> getContracts() {
+			throw new AssertionError();
+		}
+
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Address {
+		public String getCity() {
+			throw new AssertionError();
+		}
+
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Position {
+		public Contract getContract() {
+			throw new AssertionError();
+		}
+
+		public int getQuantity() {
+			throw new AssertionError();
+		}
+	}
+
+	private final PropertyPathIndex index = PropertyPathIndex.of(Contract.class, 6);
+	/**
+	 * Not a constant, so that its hash code is not cached
+	 */
+	private final char[] name = "customer.addresses.city".toCharArray();
+
+	@Benchmark
+	public boolean index() {
+		return index.contains(new String(name));
+	}
+
+	@Benchmark
+	public boolean reflection() throws ReflectiveOperationException {
+		Class<?> type = Contract.class;
+		for (String segment : new String(name).split("\\.")) {
+			String getter = "get" + Character.toUpperCase(segment.charAt(0)) + segment.substring(1);
+			java.lang.reflect.Method m = type.getMethod(getter);
+			type = Collection.class.isAssignableFrom(m.getReturnType())
+					? PropertyNameBuilder.collectionElementType(m.getGenericReturnType())
+					: m.getReturnType();
+		}
+		return true;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public PropertyPathIndex build() {
+		return PropertyPathIndex.of(Contract.class, 6);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(PathIndexBench.class.getSimpleName()).forks(1).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,164 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.objectweb.asm.Opcodes.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Throughput of concurrent callers:
+ * <ul>
+ * <li>cache hits of {@link PropertyNameBuilder#nameOf(Getter) nameOf()} and <code>name(of(...))</code>, which
+ * records the path in a thread-local
+ * <li>the first proxy of a new class requested by all threads at once, which is generated by one of them while the
+ * others wait for it
+ * <li>cache hits while another thread of the same group keeps generating proxies of new classes
+ * </ul>
+ * Cache hits read the per-class {@link ClassValue} caches of the lambda names and proxies, which take no lock. Only a
+ * miss registers the class for eviction in {@link Caches}, under the lock of its per-class-loader map.
+ * <p>
+ * {@link #main(String[])} runs the benchmarks of cache hits with 1, 2, 4, ... threads up to the number of processors
+ * (or the number given as argument) and reports the throughput per thread and the scaling efficiency, which is the
+ * throughput relative to the one of a single thread times the number of threads.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScalingBench {
+
+	public static class Contract {
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Customer {
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	private static final String ENTITY = "de/hbt/propertyname/bench/ScalingEntity";
+	private static final byte[] entityClass = generateEntity(20);
+
+	/**
+	 * Loads a new copy of the generated entity class, as if it was used for the first time.
+	 */
+	static class EntityClassLoader extends ClassLoader {
+		EntityClassLoader() {
+			super(ScalingBench.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			if (name.equals(ENTITY.replace('/', '.')))
+				return defineClass(name, entityClass, 0, entityClass.length);
+			throw new ClassNotFoundException(name);
+		}
+
+		static Class<?> newEntity() {
+			try {
+				return Class.forName(ENTITY.replace('/', '.'), false, new EntityClassLoader());
+			} catch (ClassNotFoundException e) {
+				throw new AssertionError(e);
+			}
+		}
+	}
+
+	private static byte[] generateEntity(int getters) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, ENTITY, null, "java/lang/Object", null);
+		for (int i = 0; i < getters; i++) {
+			String desc = i % 2 == 0 ? "()Ljava/lang/String;" : "()L" + ENTITY + ";";
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "getProperty" + i, desc, null, null);
+			mv.visitTypeInsn(NEW, "java/lang/AssertionError");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/AssertionError", "<init>", "()V", false);
+			mv.visitInsn(ATHROW);
+			mv.visitMaxs(-1, -1);
+			mv.visitEnd();
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * A new class for each iteration, whose proxy all threads request at once.
+	 */
+	private Class<?> entity;
+
+	@Setup(Level.Iteration)
+	public void newEntity() {
+		entity = EntityClassLoader.newEntity();
+	}
+
+	@Benchmark
+	public String nameOfHit() {
+		return nameOf(Contract::getName);
+	}
+
+	@Benchmark
+	public String chainHit() {
+		return name(of(Contract::getCustomer).getName());
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 20)
+	@Measurement(iterations = 100)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Threads(Threads.MAX)
+	public Object firstProxyContended() {
+		return of(entity);
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(3)
+	public String mixedHits() {
+		return name(of(Contract::getCustomer).getName());
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(1)
+	public Object mixedGeneration() {
+		return of(EntityClassLoader.newEntity());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		List<Integer> threadCounts = new ArrayList<>();
+		for (int threads = 1; threads < maxThreads; threads *= 2)
+			threadCounts.add(threads);
+		threadCounts.add(maxThreads);
+		Map<String, Double> singleThreaded = new HashMap<>();
+		System.out.printf("%-10s %8s %14s %16s %11s%n", "Benchmark", "Threads", "ops/us", "ops/us/thread",
+				"Efficiency");
+		for (int threads : threadCounts) {
+			Options opt = new OptionsBuilder().include(ScalingBench.class.getName() + ".(nameOfHit|chainHit)$")
+					.threads(threads).forks(1).verbosity(VerboseMode.SILENT).build();
+			for (RunResult result : new Runner(opt).run()) {
+				String benchmark = result.getParams().getBenchmark();
+				benchmark = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+				double score = result.getPrimaryResult().getScore();
+				singleThreaded.putIfAbsent(benchmark, score);
+				System.out.printf("%-10s %8d %14.1f %16.1f %10.0f%%%n", benchmark, threads, score, score / threads,
+						100 * score / (threads * singleThreaded.get(benchmark)));
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package de.hbt.propertyname;
+
+import java.net.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.ClassloaderProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Cold start in a fresh JVM: the initialization of {@link PropertyNameBuilder}, and the first path expression and
+ * first <code>name(of(...))</code> right after it, each loaded in a new class loader. Run with the class loader
+ * profiler (<code>-prof cl</code>, as in {@link #main(String[])}) to see the number of loaded classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(20)
+public class StartupBench {
+
+	/**
+	 * Loads the classes of this library (and of {@link StartupNames}) itself, so that they are initialized anew.
+	 */
+	private static final class IsolatingClassLoader extends URLClassLoader {
+		IsolatingClassLoader() {
+			super(new URL[] { PropertyNameBuilder.class.getProtectionDomain().getCodeSource().getLocation() },
+					StartupBench.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith("de.hbt.propertyname.") || name.startsWith(StartupBench.class.getName())
+					|| name.contains("jmh_generated"))
+				return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c == null)
+					c = findClass(name);
+				if (resolve)
+					resolveClass(c);
+				return c;
+			}
+		}
+	}
+
+	public ClassLoader loader;
+
+	@Setup
+	public void setup() {
+		loader = new IsolatingClassLoader();
+	}
+
+	@SuppressWarnings("unchecked")
+	private String firstName(String supplier) throws Exception {
+		return ((Supplier<String>) loader.loadClass(StartupNames.class.getName() + "$" + supplier).getConstructor()
+				.newInstance()).get();
+	}
+
+	@Benchmark
+	public Class<?> initialize() throws Exception {
+		return Class.forName(PropertyNameBuilder.class.getName(), true, loader);
+	}
+
+	@Benchmark
+	public String firstPathExpression() throws Exception {
+		return firstName("PathExpression");
+	}
+
+	@Benchmark
+	public String firstProxyName() throws Exception {
+		return firstName("ProxyName");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(StartupBench.class.getSimpleName())
+				.addProfiler(ClassloaderProfiler.class).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,37 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.function.Supplier;
+
+/**
+ * The first names determined by an application, loaded by {@link StartupBench} in a new class loader.
+ */
+public class StartupNames {
+
+	public static class Contract {
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Customer {
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class PathExpression implements Supplier<String> {
+		@Override
+		public String get() {
+			return nameOf(Contract.class, c -> c.getCustomer().getName());
+		}
+	}
+
+	public static class ProxyName implements Supplier<String> {
+		@Override
+		public String get() {
+			return name(of(Contract::getCustomer).getName());
+		}
+	}
+}
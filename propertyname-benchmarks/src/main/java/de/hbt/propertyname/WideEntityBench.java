@@ -0,0 +1,88 @@
+package de.hbt.propertyname;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.objectweb.asm.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Cost of the first proxy of a generated entity class with 500 methods (half of them getters) and of a subclass of it.
+ * Every invocation uses classes freshly loaded into their own class loader.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WideEntityBench {
+
+	private static final int METHODS = 500;
+	private static final String PARENT = "de/hbt/propertyname/bench/WideEntity";
+	private static final String CHILD = "de/hbt/propertyname/bench/WideSubEntity";
+
+	private static final byte[] parentClass = generateEntity(PARENT, "java/lang/Object", METHODS);
+	private static final byte[] childClass = generateEntity(CHILD, PARENT, 10);
+
+	private Class<?> parent;
+	private Class<?> child;
+
+	static class EntityClassLoader extends ClassLoader {
+		EntityClassLoader() {
+			super(WideEntityBench.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			if (name.equals(PARENT.replace('/', '.')))
+				return defineClass(name, parentClass, 0, parentClass.length);
+			if (name.equals(CHILD.replace('/', '.')))
+				return defineClass(name, childClass, 0, childClass.length);
+			throw new ClassNotFoundException(name);
+		}
+	}
+
+	private static byte[] generateEntity(String name, String superName, int methods) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, superName, null);
+		for (int i = 0; i < methods; i++) {
+			String methodName = (i % 2 == 0 ? "getProperty" : "compute") + i;
+			String desc = i % 4 == 0 ? "()Ljava/lang/String;" : i % 4 == 1 ? "(I)I" : i % 4 == 2 ? "()L" + name + ";" : "()J";
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, methodName, desc, null, null);
+			mv.visitTypeInsn(NEW, "java/lang/AssertionError");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/AssertionError", "<init>", "()V", false);
+			mv.visitInsn(ATHROW);
+			mv.visitMaxs(-1, -1);
+			mv.visitEnd();
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	@Setup(Level.Invocation)
+	public void loadClasses() throws ClassNotFoundException {
+		ClassLoader cl = new EntityClassLoader();
+		parent = Class.forName(PARENT.replace('/', '.'), false, cl);
+		child = Class.forName(CHILD.replace('/', '.'), false, cl);
+	}
+
+	@Benchmark
+	public Object wideEntity() {
+		return PropertyNameBuilder.of(parent);
+	}
+
+	@Benchmark
+	public Object subclassAfterParent() {
+		PropertyNameBuilder.of(parent);
+		return PropertyNameBuilder.of(child);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(WideEntityBench.class.getSimpleName()).forks(1).build();
+		new Runner(opt).run();
+	}
+}
@@ -0,0 +1,112 @@
+package de.hbt.propertyname.agent;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Call sites rewritten by the agent compared to the original call sites and to a string literal. The rewritten
+ * {@link Sites} are loaded in a class loader of their own, as the agent would load them.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 4, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class AgentBench {
+
+	public static class Contract {
+		public Customer getCustomer() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Customer {
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public interface Names {
+		String nameOfSite();
+
+		String chainSite();
+
+		String literalSite();
+	}
+
+	public static class Sites implements Names {
+		@Override
+		public String nameOfSite() {
+			return nameOf(Contract::getCustomer);
+		}
+
+		@Override
+		public String chainSite() {
+			return name(of(Contract::getCustomer).getName());
+		}
+
+		@Override
+		public String literalSite() {
+			return "customer.name";
+		}
+	}
+
+	public Names original = new Sites();
+	public Names rewritten;
+
+	@Setup
+	public void setup() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (InputStream is = Sites.class.getResourceAsStream("AgentBench$Sites.class")) {
+			byte[] buffer = new byte[4096];
+			for (int n; (n = is.read(buffer)) > 0;)
+				out.write(buffer, 0, n);
+		}
+		byte[] classfile = CallSiteRewriter.rewrite(out.toByteArray());
+		Class<?> rewrittenClass = new ClassLoader(Sites.class.getClassLoader()) {
+			Class<?> define() {
+				return defineClass(Sites.class.getName(), classfile, 0, classfile.length);
+			}
+		}.define();
+		rewritten = (Names) rewrittenClass.getConstructor().newInstance();
+	}
+
+	@Benchmark
+	public String methodReference() {
+		return original.nameOfSite();
+	}
+
+	@Benchmark
+	public String methodReferenceRewritten() {
+		return rewritten.nameOfSite();
+	}
+
+	@Benchmark
+	public String chain() {
+		return original.chainSite();
+	}
+
+	@Benchmark
+	public String chainRewritten() {
+		return rewritten.chainSite();
+	}
+
+	@Benchmark
+	public String literal() {
+		return original.literalSite();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder().include(AgentBench.class.getSimpleName()).addProfiler(GCProfiler.class)
+				.forks(1).build();
+		new Runner(opt).run();
+	}
+}
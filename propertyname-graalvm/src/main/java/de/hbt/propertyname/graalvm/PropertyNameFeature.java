@@ -0,0 +1,66 @@
+package de.hbt.propertyname.graalvm;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.graalvm.nativeimage.hosted.*;
+
+import de.hbt.propertyname.*;
+
+/**
+ * GraalVM native-image feature which, at image build time, defines the proxy classes of all classes reachable from
+ * the {@link Getter} lambdas and method references found by the analysis, and registers them and everything
+ * {@link PropertyNameBuilder} reflects on for runtime reflection, see {@link NativeImageSupport}.
+ * <p>
+ * The feature is enabled by adding this artifact to the classpath of <code>native-image</code>, via the
+ * <code>native-image.properties</code> it contains. The proxies are registered for reflective instantiation via their
+ * constructor without parameters, so the proxies of classes without a non-private one cannot be used in the image.
+ */
+public class PropertyNameFeature implements Feature {
+
+	private final Set<Class<?>> proxied = ConcurrentHashMap.newKeySet();
+
+	@Override
+	public String getDescription() {
+		return "Defines the proxies of Refactoring-safe POJO Property Names at image build time";
+	}
+
+	@Override
+	public void beforeAnalysis(BeforeAnalysisAccess access) {
+		access.registerSubtypeReachabilityHandler(this::getterReachable, Getter.class);
+	}
+
+	private void getterReachable(DuringAnalysisAccess access, Class<?> getterClass) {
+		if (getterClass.isInterface() || Modifier.isAbstract(getterClass.getModifiers()))
+			return;
+		Class<?> receiver;
+		try {
+			register(NativeImageSupport.reflectedMembers(getterClass));
+			receiver = NativeImageSupport.receiverOf(getterClass);
+		} catch (PropertyNameException e) {
+			/* Not a lambda or a getter that cannot be proxied, which fails the same way at runtime */
+			return;
+		}
+		RuntimeReflection.register(receiver);
+		for (Class<?> clazz : NativeImageSupport.reachableClasses(receiver)) {
+			if (!PregeneratedProxies.canPregenerate(clazz) || !proxied.add(clazz))
+				continue;
+			Class<?> proxyClass = NativeImageSupport.defineProxyClass(clazz);
+			RuntimeReflection.register(proxyClass);
+			if (PregeneratedProxies.hasNullaryConstructor(clazz))
+				RuntimeReflection.registerForReflectiveInstantiation(proxyClass);
+			access.requireAnalysisIteration();
+		}
+	}
+
+	private static void register(List<Member> members) {
+		for (Member m : members) {
+			RuntimeReflection.register(m.getDeclaringClass());
+			if (m instanceof Field)
+				RuntimeReflection.register((Field) m);
+			else
+				RuntimeReflection.register((Executable) m);
+		}
+	}
+}
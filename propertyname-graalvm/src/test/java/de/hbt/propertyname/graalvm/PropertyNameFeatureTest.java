@@ -0,0 +1,153 @@
+package de.hbt.propertyname.graalvm;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import org.graalvm.nativeimage.hosted.Feature.*;
+import org.graalvm.nativeimage.impl.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.hbt.propertyname.*;
+
+class PropertyNameFeatureTest {
+
+	public static class Shipment {
+		public Address getDestination() {
+			throw new AssertionError();
+		}
+
+		public Parcel getParcel() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Parcel {
+		public Parcel(int weight) {
+		}
+
+		public int getWeight() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Address {
+		public String getCity() {
+			throw new AssertionError();
+		}
+	}
+
+	static class NotALambda implements Getter<Shipment, Address> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Address apply(Shipment t) {
+			return t.getDestination();
+		}
+	}
+
+	/**
+	 * Records the registrations of {@link org.graalvm.nativeimage.hosted.RuntimeReflection}, which are otherwise only
+	 * possible in the image builder.
+	 */
+	static class StubImageSingletons extends ImageSingletonsSupport {
+		final Set<Object> registered = new HashSet<>();
+
+		static StubImageSingletons install() {
+			StubImageSingletons support = new StubImageSingletons();
+			installSupport(support);
+			return support;
+		}
+
+		@Override
+		public <T> void add(Class<T> key, T value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public <T> T lookup(Class<T> key) {
+			assertThat(key).isEqualTo(RuntimeReflectionSupport.class);
+			return key.cast(Proxy.newProxyInstance(key.getClassLoader(), new Class<?>[] { key }, (p, m, args) -> {
+				assertThat(m.getName()).isEqualTo("register");
+				if (args[1] instanceof Class<?>[]) {
+					registered.addAll(Arrays.asList((Class<?>[]) args[1]));
+				} else {
+					registered.addAll(Arrays.asList((Object[]) args[2]));
+				}
+				return null;
+			}));
+		}
+
+		@Override
+		public boolean contains(Class<?> key) {
+			return key == RuntimeReflectionSupport.class;
+		}
+	}
+
+	/**
+	 * The analysis, which calls back the reachability handler registered for {@link Getter}.
+	 */
+	static class StubAnalysis implements InvocationHandler {
+		BiConsumer<DuringAnalysisAccess, Class<?>> getterReachable;
+		int iterations;
+
+		final DuringAnalysisAccess access = (DuringAnalysisAccess) Proxy.newProxyInstance(
+				DuringAnalysisAccess.class.getClassLoader(), new Class<?>[] { DuringAnalysisAccess.class }, this);
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+			case "registerSubtypeReachabilityHandler":
+				assertThat(args[1]).isEqualTo(Getter.class);
+				getterReachable = (BiConsumer<DuringAnalysisAccess, Class<?>>) args[0];
+				return null;
+			case "requireAnalysisIteration":
+				iterations++;
+				return null;
+			default:
+				throw new UnsupportedOperationException(method.getName());
+			}
+		}
+	}
+
+	private static StubImageSingletons support;
+
+	@BeforeAll
+	static void installSupport() {
+		support = StubImageSingletons.install();
+	}
+
+	@Test
+	void definesAndRegistersTheProxiesReachableFromGetters() throws Exception {
+		StubAnalysis analysis = new StubAnalysis();
+		new PropertyNameFeature().beforeAnalysis(analysis.access);
+		assertThat(analysis.getterReachable).isNotNull();
+
+		Getter<Shipment, Address> getter = Shipment::getDestination;
+		analysis.getterReachable.accept(analysis.access, getter.getClass());
+		Class<?> shipmentProxy = Class.forName(PregeneratedProxies.proxyClassName(Shipment.class));
+		Class<?> addressProxy = Class.forName(PregeneratedProxies.proxyClassName(Address.class));
+		Class<?> parcelProxy = Class.forName(PregeneratedProxies.proxyClassName(Parcel.class));
+		assertThat(support.registered).contains(Shipment.class, shipmentProxy, addressProxy, parcelProxy)
+				.contains(shipmentProxy.getDeclaredConstructor(), addressProxy.getDeclaredConstructor())
+				.containsAll(NativeImageSupport.reflectedMembers(getter.getClass()));
+		assertThat(parcelProxy.getDeclaredConstructors()).isEmpty();
+		assertThat(analysis.iterations).isEqualTo(3);
+
+		analysis.getterReachable.accept(analysis.access, getter.getClass());
+		assertThat(analysis.iterations).isEqualTo(3);
+	}
+
+	@Test
+	void ignoresGettersWhichAreNoLambdas() {
+		StubAnalysis analysis = new StubAnalysis();
+		new PropertyNameFeature().beforeAnalysis(analysis.access);
+		analysis.getterReachable.accept(analysis.access, NotALambda.class);
+		analysis.getterReachable.accept(analysis.access, Getter.class);
+		assertThat(analysis.iterations).isZero();
+	}
+}
@@ -0,0 +1,87 @@
+package de.hbt.propertyname.maven;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.*;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Generates the proxy classes of all classes in the configured packages and writes them to the class output directory,
+ * so that they are packaged with the project and loaded instead of being generated at runtime.
+ * <p>
+ * Example:
+ *
+ * <pre>
+ * &lt;plugin&gt;
+ *   &lt;groupId&gt;de.hbt.propertyname&lt;/groupId&gt;
+ *   &lt;artifactId&gt;propertyname-maven-plugin&lt;/artifactId&gt;
+ *   &lt;executions&gt;
+ *     &lt;execution&gt;
+ *       &lt;goals&gt;&lt;goal&gt;pregenerate&lt;/goal&gt;&lt;/goals&gt;
+ *       &lt;configuration&gt;
+ *         &lt;packages&gt;&lt;package&gt;com.example.domain&lt;/package&gt;&lt;/packages&gt;
+ *       &lt;/configuration&gt;
+ *     &lt;/execution&gt;
+ *   &lt;/executions&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ */
+@Mojo(name = "pregenerate", defaultPhase = LifecyclePhase.PROCESS_CLASSES, threadSafe = true,
+		requiresDependencyResolution = ResolutionScope.COMPILE)
+public class PregenerateMojo extends AbstractMojo {
+
+	@Parameter(defaultValue = "${project}", readonly = true, required = true)
+	private MavenProject project;
+
+	/**
+	 * The packages (including their subpackages) whose classes to generate proxy classes for.
+	 */
+	@Parameter(required = true)
+	private List<String> packages;
+
+	/**
+	 * The directory containing the compiled classes. The proxy classes are written to it as well.
+	 */
+	@Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+	private File classesDirectory;
+
+	/**
+	 * Whether to skip generating the proxy classes.
+	 */
+	@Parameter(property = "propertyname.pregenerate.skip", defaultValue = "false")
+	private boolean skip;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		if (skip || !classesDirectory.isDirectory())
+			return;
+		try (URLClassLoader classLoader = new URLClassLoader(classpath(), ClassLoader.getSystemClassLoader().getParent())) {
+			List<String> written = new ProxyPregenerator(classesDirectory.toPath(), classLoader).pregenerate(packages);
+			getLog().info("Generated " + written.size() + " proxy classes");
+			if (getLog().isDebugEnabled()) {
+				for (String className : written)
+					getLog().debug("Generated " + className);
+			}
+		} catch (IOException | RuntimeException e) {
+			throw new MojoExecutionException("Could not generate proxy classes", e);
+		}
+	}
+
+	private URL[] classpath() throws MojoExecutionException {
+		try {
+			List<URL> urls = new ArrayList<>();
+			urls.add(classesDirectory.toURI().toURL());
+			for (String element : project.getCompileClasspathElements())
+				urls.add(Paths.get(element).toUri().toURL());
+			return urls.toArray(new URL[0]);
+		} catch (DependencyResolutionRequiredException | MalformedURLException e) {
+			throw new MojoExecutionException("Could not determine the compile classpath", e);
+		}
+	}
+}
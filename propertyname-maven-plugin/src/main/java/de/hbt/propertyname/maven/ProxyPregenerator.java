@@ -0,0 +1,82 @@
+package de.hbt.propertyname.maven;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import de.hbt.propertyname.PregeneratedProxies;
+
+/**
+ * Writes the pregenerated proxy classes of all supported classes in the given packages (including subpackages) of a
+ * class output directory, and lists them in its {@link PregeneratedProxies#INDEX index}. Proxy classes already listed
+ * there, such as by another execution for other packages, stay listed.
+ */
+class ProxyPregenerator {
+
+	private final Path classesDirectory;
+	private final ClassLoader classLoader;
+
+	ProxyPregenerator(Path classesDirectory, ClassLoader classLoader) {
+		this.classesDirectory = classesDirectory;
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * @param packages the names of the packages to scan
+	 * @return the binary names of the written proxy classes
+	 * @throws IOException if scanning the classes or writing a proxy class failed
+	 */
+	List<String> pregenerate(Collection<String> packages) throws IOException {
+		List<String> written = new ArrayList<>();
+		for (String className : findClasses(packages)) {
+			Class<?> clazz;
+			try {
+				clazz = Class.forName(className, false, classLoader);
+			} catch (ClassNotFoundException | LinkageError e) {
+				continue;
+			}
+			if (!PregeneratedProxies.canPregenerate(clazz))
+				continue;
+			String proxyClassName = PregeneratedProxies.proxyClassName(clazz);
+			Path file = classesDirectory.resolve(proxyClassName.replace('.', '/') + ".class");
+			Files.write(file, PregeneratedProxies.generate(clazz));
+			written.add(proxyClassName);
+		}
+		writeIndex(written);
+		return written;
+	}
+
+	private void writeIndex(List<String> written) throws IOException {
+		Path index = classesDirectory.resolve(PregeneratedProxies.INDEX);
+		SortedSet<String> listed = new TreeSet<>(written);
+		if (Files.exists(index)) {
+			for (String line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+				if (!line.trim().isEmpty())
+					listed.add(line.trim());
+			}
+		} else if (written.isEmpty()) {
+			return;
+		}
+		Files.createDirectories(index.getParent());
+		Files.write(index, listed, StandardCharsets.UTF_8);
+	}
+
+	private SortedSet<String> findClasses(Collection<String> packages) throws IOException {
+		SortedSet<String> classNames = new TreeSet<>();
+		for (String packageName : packages) {
+			Path packageDirectory = classesDirectory.resolve(packageName.replace('.', '/'));
+			if (!Files.isDirectory(packageDirectory))
+				continue;
+			try (Stream<Path> files = Files.walk(packageDirectory)) {
+				files.map(f -> classesDirectory.relativize(f).toString().replace(File.separatorChar, '/'))
+						.filter(f -> f.endsWith(".class") && !f.contains("_$$_") && !f.endsWith("package-info.class")
+								&& !f.endsWith("module-info.class"))
+						.map(f -> f.substring(0, f.length() - ".class".length()).replace('/', '.'))
+						.forEach(classNames::add);
+			}
+		}
+		return classNames;
+	}
+}
@@ -0,0 +1,67 @@
+package de.hbt.propertyname.maven;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import de.hbt.propertyname.PregeneratedProxies;
+import de.hbt.propertyname.maven.model.*;
+
+class ProxyPregeneratorTest {
+	class Unscanned {
+		Customer getCustomer() {
+			throw new AssertionError();
+		}
+	}
+
+	static Path testClasses;
+
+	static List<String> written;
+
+	@BeforeAll
+	static void pregenerate() throws Exception {
+		testClasses = Paths.get(Order.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		Files.deleteIfExists(testClasses.resolve(PregeneratedProxies.INDEX));
+		written = new ProxyPregenerator(testClasses, ProxyPregeneratorTest.class.getClassLoader())
+				.pregenerate(Collections.singletonList("de.hbt.propertyname.maven.model"));
+	}
+
+	@Test
+	void writesProxyClassesOfSupportedClasses() {
+		assertThat(written).containsExactly(
+				"de.hbt.propertyname.maven.model.Customer_$$_FieldNameClass",
+				"de.hbt.propertyname.maven.model.Order_$$_FieldNameClass",
+				"de.hbt.propertyname.maven.model.OrderLine_$$_FieldNameClass");
+	}
+
+	@Test
+	void listsProxyClassesInTheIndex() throws Exception {
+		ProxyPregenerator pregenerator = new ProxyPregenerator(testClasses,
+				ProxyPregeneratorTest.class.getClassLoader());
+		assertThat(pregenerator.pregenerate(Collections.singletonList("de.hbt.propertyname.maven.unknown"))).isEmpty();
+		assertThat(Files.readAllLines(testClasses.resolve(PregeneratedProxies.INDEX)))
+				.containsExactlyInAnyOrderElementsOf(written);
+	}
+
+	@Test
+	void pregeneratedProxyClassesAreUsed() throws Exception {
+		Object customer = of(Order::getCustomer);
+		assertThat(name(customer)).isEqualTo("customer");
+		assertThat(customer.getClass())
+				.isSameAs(Class.forName("de.hbt.propertyname.maven.model.Customer_$$_FieldNameClass"));
+		assertThat(name(of(Order::getCustomer).getName())).isEqualTo("customer.name");
+		assertThat(name(any(of(Order::getLines)).getQuantity())).isEqualTo("lines.quantity");
+	}
+
+	@Test
+	void proxiesOfClassesWithoutPregeneratedClassAreGeneratedAtRuntime() {
+		assertThat(nameOf(Unscanned::getCustomer)).isEqualTo("customer");
+		assertThat(name(of(Unscanned::getCustomer).getName())).isEqualTo("customer.name");
+	}
+
+}
@@ -0,0 +1,7 @@
+package de.hbt.propertyname.maven.model;
+
+public class Customer {
+	public String getName() {
+		throw new AssertionError();
+	}
+}
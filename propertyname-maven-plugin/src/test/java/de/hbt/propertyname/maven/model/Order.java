@@ -0,0 +1,13 @@
+package de.hbt.propertyname.maven.model;
+
+import java.util.List;
+
+public class Order {
+	public Customer getCustomer() {
+		throw new AssertionError();
+	}
+
+	public List<OrderLine> getLines() {
+		throw new AssertionError();
+	}
+}
@@ -0,0 +1,7 @@
+package de.hbt.propertyname.maven.model;
+
+public class OrderLine {
+	public int getQuantity() {
+		throw new AssertionError();
+	}
+}
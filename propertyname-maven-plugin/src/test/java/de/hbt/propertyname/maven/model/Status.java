@@ -0,0 +1,5 @@
+package de.hbt.propertyname.maven.model;
+
+public enum Status {
+	OPEN, CLOSED
+}
@@ -0,0 +1,275 @@
+package de.hbt.propertyname.processor;
+
+import java.io.*;
+import java.util.*;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.*;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a metamodel class for each class annotated with <code>de.hbt.propertyname.Metamodel</code>.
+ * <p>
+ * The metamodel contains one <code>static final String</code> constant for every property path reachable from the
+ * annotated class, up to the configured maximum depth. The rules for what is a property and which property types can be
+ * navigated are the same as the ones <code>PropertyNameBuilder</code> uses when generating its proxies, so that every
+ * constant equals the name returned by the corresponding <code>name(of(...))</code> call:
+ * <ul>
+ * <li>getters are non-private, non-static and non-final methods without parameters starting with "get" and returning a
+ * value or starting with "is" and returning a <code>boolean</code> or {@link Boolean}, declared by the class or one of
+ * its superclasses
+ * <li>properties of non-final class and interface types are navigated, except for strings, enums, numbers, booleans,
+ * dates, temporals, collections and maps
+ * <li>collection properties navigate to their element type (which is what <code>any()</code> does), array and
+ * {@link Optional} properties to their element type (which is what <code>anyElement()</code> does), and properties
+ * declared as {@link Map} or {@link AbstractMap} to both their key and value types (which is what
+ * <code>anyKey()</code> and <code>anyValue()</code> do), where these types can be navigated themselves
+ * </ul>
+ * Property paths may navigate into the same class more than once, such as <code>parent.parent.name</code>, so the
+ * maximum depth is what bounds them. Property paths mapping to the same constant are reported as an error.
+ */
+@SupportedAnnotationTypes(MetamodelProcessor.METAMODEL)
+public class MetamodelProcessor extends AbstractProcessor {
+
+	static final String METAMODEL = "de.hbt.propertyname.Metamodel";
+
+	private static final int DEFAULT_MAX_DEPTH = 3;
+
+	private static final String[] NON_PROXYABLE_TYPES = { "java.lang.String", "java.lang.Number",
+			"java.lang.Boolean", "java.util.Date", "java.time.temporal.Temporal", "java.util.Collection",
+			"java.util.Map" };
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.INTERFACE) {
+					error(element, "@Metamodel can only be used on classes and interfaces");
+					continue;
+				}
+				generateMetamodel((TypeElement) element, maxDepth(element));
+			}
+		}
+		return true;
+	}
+
+	private int maxDepth(Element element) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			if (!((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(METAMODEL))
+				continue;
+			for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues()
+					.entrySet()) {
+				if (e.getKey().getSimpleName().contentEquals("maxDepth"))
+					return (Integer) e.getValue().getValue();
+			}
+		}
+		return DEFAULT_MAX_DEPTH;
+	}
+
+	private void generateMetamodel(TypeElement type, int maxDepth) {
+		Map<String, String> constants = new LinkedHashMap<>();
+		collectPaths(type, type, new ArrayDeque<>(), maxDepth, constants);
+		String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		String className = metamodelClassName(type);
+		String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+		try {
+			JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+			try (PrintWriter pw = new PrintWriter(file.openWriter())) {
+				if (!packageName.isEmpty()) {
+					pw.println("package " + packageName + ";");
+					pw.println();
+				}
+				pw.println("/**");
+				pw.println(" * Property names of {@link " + type.getQualifiedName() + "}.");
+				pw.println(" * <p>");
+				pw.println(" * Generated by {@link " + MetamodelProcessor.class.getName() + "}. Do not edit.");
+				pw.println(" */");
+				pw.println("public final class " + className + " {");
+				for (Map.Entry<String, String> e : constants.entrySet()) {
+					pw.println("\tpublic static final String " + e.getKey() + " = \"" + e.getValue() + "\";");
+				}
+				pw.println();
+				pw.println("\tprivate " + className + "() {");
+				pw.println("\t}");
+				pw.println("}");
+			}
+		} catch (IOException e) {
+			error(type, "Could not write metamodel class " + qualifiedName + ": " + e.getMessage());
+		}
+	}
+
+	private static String metamodelClassName(TypeElement type) {
+		String name = type.getSimpleName().toString();
+		Element enclosing = type.getEnclosingElement();
+		while (enclosing instanceof TypeElement) {
+			name = enclosing.getSimpleName() + "_" + name;
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name + "_";
+	}
+
+	private void collectPaths(TypeElement root, TypeElement type, Deque<String> path, int maxDepth,
+			Map<String, String> constants) {
+		if (path.size() == maxDepth)
+			return;
+		Set<String> properties = new HashSet<>();
+		TypeElement cl = type;
+		while (cl != null && !cl.getQualifiedName().contentEquals("java.lang.Object")) {
+			for (ExecutableElement m : ElementFilter.methodsIn(cl.getEnclosedElements())) {
+				if (!isGetter(m))
+					continue;
+				String property = propertyName(m);
+				if (!properties.add(property))
+					continue;
+				path.addLast(property);
+				addConstant(root, path, constants);
+				for (TypeElement next : navigableTypes(m.getReturnType()))
+					collectPaths(root, next, path, maxDepth, constants);
+				path.removeLast();
+			}
+			cl = superclass(cl);
+		}
+	}
+
+	private void addConstant(TypeElement root, Deque<String> path, Map<String, String> constants) {
+		StringBuilder constant = new StringBuilder();
+		StringBuilder name = new StringBuilder();
+		for (String segment : path) {
+			if (name.length() > 0) {
+				constant.append('_');
+				name.append('.');
+			}
+			constant.append(constantName(segment));
+			name.append(segment);
+		}
+		String existing = constants.putIfAbsent(constant.toString(), name.toString());
+		if (existing != null && !existing.equals(name.toString())) {
+			error(root, "Property paths '" + existing + "' and '" + name + "' map to the same constant " + constant
+					+ ". Rename one of the properties or lower maxDepth.");
+		}
+	}
+
+	private static String constantName(String property) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < property.length(); i++) {
+			char c = property.charAt(i);
+			if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(property.charAt(i - 1)))
+				sb.append('_');
+			sb.append(Character.toUpperCase(c));
+		}
+		return sb.toString();
+	}
+
+	private static TypeElement superclass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED)
+			return null;
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+
+	/**
+	 * Same as <code>PropertyNameBuilder.isGetter()</code> restricted to the methods the generated proxies override.
+	 */
+	private static boolean isGetter(ExecutableElement m) {
+		Set<Modifier> modifiers = m.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)
+				|| modifiers.contains(Modifier.FINAL) || !m.getParameters().isEmpty())
+			return false;
+		String name = m.getSimpleName().toString();
+		TypeMirror ret = m.getReturnType();
+		if (name.startsWith("get") && name.length() > 3)
+			return ret.getKind() != TypeKind.VOID && !isType(ret, "java.lang.Void");
+		if (name.startsWith("is") && name.length() > 2)
+			return ret.getKind() == TypeKind.BOOLEAN || isType(ret, "java.lang.Boolean");
+		return false;
+	}
+
+	/**
+	 * Same as <code>PropertyNameBuilder.propertyName()</code>.
+	 */
+	private static String propertyName(ExecutableElement m) {
+		String name = m.getSimpleName().toString();
+		if (name.startsWith("get"))
+			return name.substring(3, 4).toLowerCase() + name.substring(4);
+		return name.substring(2, 3).toLowerCase() + name.substring(3);
+	}
+
+	/**
+	 * Returns the types a generated proxy would navigate to when calling a getter with the given return type, which are
+	 * empty if the property is a leaf. Same as <code>ProxyModel.proxyMethod()</code>.
+	 */
+	private List<TypeElement> navigableTypes(TypeMirror returnType) {
+		Types types = processingEnv.getTypeUtils();
+		TypeMirror erased = types.erasure(returnType);
+		if (erased.getKind() == TypeKind.ARRAY)
+			return proxyable(((ArrayType) erased).getComponentType());
+		if (erased.getKind() != TypeKind.DECLARED)
+			return Collections.emptyList();
+		TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+		if (canProxy(element))
+			return Collections.singletonList(element);
+		if (isSubtype(erased, "java.util.Collection") || isType(erased, "java.util.Optional"))
+			return proxyable(typeArgument(returnType, 0));
+		if (isType(erased, "java.util.Map") || isType(erased, "java.util.AbstractMap")) {
+			Set<TypeElement> keyAndValue = new LinkedHashSet<>(proxyable(typeArgument(returnType, 0)));
+			keyAndValue.addAll(proxyable(typeArgument(returnType, 1)));
+			return new ArrayList<>(keyAndValue);
+		}
+		return Collections.emptyList();
+	}
+
+	private static TypeMirror typeArgument(TypeMirror type, int index) {
+		if (type.getKind() != TypeKind.DECLARED)
+			return null;
+		List<? extends TypeMirror> args = ((DeclaredType) type).getTypeArguments();
+		return args.size() > index ? args.get(index) : null;
+	}
+
+	private List<TypeElement> proxyable(TypeMirror type) {
+		if (type == null || type.getKind() != TypeKind.DECLARED)
+			return Collections.emptyList();
+		TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+		return canProxy(element) ? Collections.singletonList(element) : Collections.<TypeElement>emptyList();
+	}
+
+	/**
+	 * Same as <code>PropertyNameBuilder.canProxy()</code>.
+	 */
+	private boolean canProxy(TypeElement type) {
+		if (type.getKind() == ElementKind.ENUM || type.getKind() == ElementKind.ANNOTATION_TYPE
+				|| type.getModifiers().contains(Modifier.FINAL))
+			return false;
+		TypeMirror erased = processingEnv.getTypeUtils().erasure(type.asType());
+		for (String nonProxyable : NON_PROXYABLE_TYPES) {
+			if (isSubtype(erased, nonProxyable))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean isSubtype(TypeMirror type, String className) {
+		TypeElement other = processingEnv.getElementUtils().getTypeElement(className);
+		if (other == null)
+			return false;
+		Types types = processingEnv.getTypeUtils();
+		return types.isSubtype(type, types.erasure(other.asType()));
+	}
+
+	private static boolean isType(TypeMirror type, String className) {
+		return type.getKind() == TypeKind.DECLARED
+				&& ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(className);
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+}
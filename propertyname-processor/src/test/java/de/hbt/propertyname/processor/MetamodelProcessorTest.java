@@ -0,0 +1,256 @@
+package de.hbt.propertyname.processor;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+
+import javax.tools.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+
+import de.hbt.propertyname.Metamodel;
+
+/**
+ * Checks that the generated metamodel constants of the domain model of <code>PropertyNameBuilderTest</code> are
+ * identical to the names generated at runtime by <code>PropertyNameBuilder</code>.
+ */
+class MetamodelProcessorTest {
+	abstract class AbstractEntity<T extends Number> {
+		AbstractEntity() {
+			throw new AssertionError();
+		}
+
+		T getVersion() {
+			throw new AssertionError();
+		}
+
+		boolean isArchived() {
+			throw new AssertionError();
+		}
+
+		@Override
+		public String toString() {
+			throw new AssertionError();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			throw new AssertionError();
+		}
+
+		@Override
+		public int hashCode() {
+			throw new AssertionError();
+		}
+	}
+
+	class Address extends AbstractEntity<Byte> {
+		Address() {
+			throw new AssertionError();
+		}
+
+		boolean isArchived() {
+			throw new AssertionError();
+		}
+
+		String getCity() {
+			throw new AssertionError();
+		}
+
+		List<Integer> getNumbers() {
+			throw new AssertionError();
+		}
+	}
+
+	@Metamodel
+	class BusinessPartner extends AbstractEntity<Short> {
+		BusinessPartner() {
+			throw new AssertionError();
+		}
+
+		String getLegalName() {
+			throw new AssertionError();
+		}
+
+		Set<Address> getAddresses() {
+			throw new AssertionError();
+		}
+
+		String getAcronym() {
+			throw new AssertionError();
+		}
+	}
+
+	class ContractPosition extends AbstractEntity<Integer> {
+		ContractPosition() {
+			throw new AssertionError();
+		}
+
+		BigDecimal getPrice() {
+			throw new AssertionError();
+		}
+	}
+
+	interface Shipment {
+		Address getDestination();
+	}
+
+	@Metamodel
+	class Contract extends AbstractEntity<Long> {
+		Contract() {
+			throw new AssertionError();
+		}
+
+		Long getVersion() {
+			throw new AssertionError();
+		}
+
+		Shipment getShipment() {
+			throw new AssertionError();
+		}
+
+		BusinessPartner getCustomer() {
+			throw new AssertionError();
+		}
+
+		List<ContractPosition> getPositions() {
+			throw new AssertionError();
+		}
+
+		Date getCreationDay() {
+			throw new AssertionError();
+		}
+
+		Contract getParent() {
+			throw new AssertionError();
+		}
+
+		Map<ContractPosition, BusinessPartner> getPartnersByPosition() {
+			throw new AssertionError();
+		}
+
+		Optional<BusinessPartner> getGuarantor() {
+			throw new AssertionError();
+		}
+
+		BusinessPartner[] getSignatories() {
+			throw new AssertionError();
+		}
+	}
+
+	@Metamodel(maxDepth = 2)
+	class SalesContract extends Contract {
+		SalesContract() {
+			throw new AssertionError();
+		}
+
+		String nonGetterMethod() {
+			throw new AssertionError();
+		}
+
+		private String getPrivateMember() {
+			throw new AssertionError("Private methods not supported");
+		}
+
+		final int getFinalA() {
+			throw new AssertionError();
+		}
+	}
+
+	static Object[][] testSource() {
+		return new Object[][] {
+			{MetamodelProcessorTest_Contract_.CUSTOMER_LEGAL_NAME, name(of(Contract::getCustomer).getLegalName())},
+			{MetamodelProcessorTest_Contract_.CUSTOMER_ADDRESSES, name(of(Contract::getCustomer).getAddresses())},
+			{MetamodelProcessorTest_Contract_.CUSTOMER_VERSION, name(of(Contract::getCustomer).getVersion())},
+			{MetamodelProcessorTest_Contract_.SHIPMENT_DESTINATION, name(of(Contract::getShipment).getDestination())},
+			{MetamodelProcessorTest_Contract_.SHIPMENT_DESTINATION_CITY, name(of(Contract::getShipment).getDestination().getCity())},
+			{MetamodelProcessorTest_Contract_.VERSION, nameOf(Contract::getVersion)},
+			{MetamodelProcessorTest_Contract_.CUSTOMER, nameOf(Contract::getCustomer)},
+			{MetamodelProcessorTest_Contract_.SHIPMENT, nameOf(Contract::getShipment)},
+			{MetamodelProcessorTest_Contract_.POSITIONS, nameOf(Contract::getPositions)},
+			{MetamodelProcessorTest_Contract_.CREATION_DAY, nameOf(Contract::getCreationDay)},
+			{MetamodelProcessorTest_Contract_.ARCHIVED, nameOf(Contract::isArchived)},
+			{MetamodelProcessorTest_Contract_.CUSTOMER_ADDRESSES_CITY, name(any(of(Contract::getCustomer).getAddresses()).getCity())},
+			{MetamodelProcessorTest_Contract_.CUSTOMER_ADDRESSES_NUMBERS, name(any(of(Contract::getCustomer).getAddresses()).getNumbers())},
+			{MetamodelProcessorTest_Contract_.POSITIONS_PRICE, name(any(of(Contract::getPositions)).getPrice())},
+			{MetamodelProcessorTest_Contract_.PARENT_PARENT_VERSION, name(of(Contract::getParent).getParent().getVersion())},
+			{MetamodelProcessorTest_Contract_.PARTNERS_BY_POSITION_PRICE, name(anyKey(of(Contract::getPartnersByPosition)).getPrice())},
+			{MetamodelProcessorTest_Contract_.PARTNERS_BY_POSITION_LEGAL_NAME, name(anyValue(of(Contract::getPartnersByPosition)).getLegalName())},
+			{MetamodelProcessorTest_Contract_.GUARANTOR_ACRONYM, name(anyElement(of(Contract::getGuarantor)).getAcronym())},
+			{MetamodelProcessorTest_Contract_.SIGNATORIES_ADDRESSES_CITY, name(any(anyElement(of(Contract::getSignatories)).getAddresses()).getCity())},
+			{MetamodelProcessorTest_BusinessPartner_.ADDRESSES_ARCHIVED, name(any(of(BusinessPartner::getAddresses)).isArchived())},
+			{MetamodelProcessorTest_SalesContract_.CUSTOMER_ACRONYM, name(of(SalesContract::getCustomer).getAcronym())},
+			{MetamodelProcessorTest_SalesContract_.POSITIONS_PRICE, name(any(of(SalesContract::getPositions)).getPrice())}
+		};
+	}
+
+	@ParameterizedTest
+	@MethodSource("testSource")
+	void testConstantEqualsRuntimeName(String constant, String runtimeName) {
+		assertThat(constant).isEqualTo(runtimeName);
+	}
+
+	@Test
+	void constantsStopAtMaxDepth() {
+		assertThat(constantNames(MetamodelProcessorTest_SalesContract_.class))
+				.contains("CUSTOMER_ADDRESSES", "SHIPMENT_DESTINATION")
+				.doesNotContain("CUSTOMER_ADDRESSES_CITY", "SHIPMENT_DESTINATION_CITY");
+	}
+
+	@Test
+	void nonGettersAndNonOverridableMethodsAreSkipped() {
+		assertThat(constantNames(MetamodelProcessorTest_SalesContract_.class))
+				.doesNotContain("NON_GETTER_METHOD", "PRIVATE_MEMBER", "FINAL_A");
+	}
+
+	@Test
+	void nonProxyableTypesAreNotNavigated() {
+		assertThat(constantNames(MetamodelProcessorTest_Contract_.class))
+				.noneMatch(n -> n.startsWith("CREATION_DAY_") || n.startsWith("VERSION_")
+						|| n.startsWith("CUSTOMER_ADDRESSES_NUMBERS_"));
+	}
+
+	@Test
+	void collidingConstantsAreErrors(@TempDir Path directory) throws IOException {
+		JavaFileObject source = new SimpleJavaFileObject(directory.resolve("Order.java").toUri(),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return "@de.hbt.propertyname.Metamodel public class Order {\n"
+						+ "  public String getCustomerName() { return null; }\n"
+						+ "  public Customer getCustomer() { return null; }\n"
+						+ "  public static class Customer { public String getName() { return null; } }\n" + "}\n";
+			}
+		};
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+				Arrays.asList("-proc:only", "-s", directory.toString(), "-classpath",
+						System.getProperty("java.class.path")),
+				null, Collections.singletonList(source));
+		task.setProcessors(Collections.singletonList(new MetamodelProcessor()));
+		assertThat(task.call()).isFalse();
+		assertThat(diagnostics.getDiagnostics()).anySatisfy(d -> {
+			assertThat(d.getKind()).isEqualTo(Diagnostic.Kind.ERROR);
+			assertThat(d.getMessage(Locale.ROOT)).contains("'customerName'", "'customer.name'", "CUSTOMER_NAME");
+		});
+	}
+
+	private static List<String> constantNames(Class<?> metamodel) {
+		List<String> names = new ArrayList<>();
+		for (Field f : metamodel.getDeclaredFields()) {
+			if (Modifier.isStatic(f.getModifiers()))
+				names.add(f.getName());
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,468 @@
+package de.hbt.propertyname;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.Type;
+
+import de.hbt.propertyname.ProxyModel.Kind;
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * Generates the classes behind {@link PropertyAccessor}s.
+ * <p>
+ * The getters of a path are looked up by their property names in the {@link ProxyModel}s of the classes along the
+ * path, which are the same getters the proxies recorded the path from. The generated class is defined in the package of
+ * the class the path starts at and calls the getters via <code>invokevirtual</code> and <code>invokeinterface</code>,
+ * so all of them must be accessible from that package.
+ * <p>
+ * A path is split into stretches at the containers it navigates through, which are collections, maps, {@link Optional}s
+ * and arrays. Each stretch becomes a static method, which navigates its getters and calls the method of the next
+ * stretch for each element of the container, or adds the value of the last getter to the result list. A map is
+ * navigated through its values, or through its keys if only the key type has the next property of the path, like
+ * <code>anyValue()</code> and <code>anyKey()</code> record it.
+ */
+final class AccessorGenerator {
+	private static final String FUNCTION_NAME = Type.getInternalName(Function.class);
+	private static final String LIST_NAME = Type.getInternalName(List.class);
+	private static final String ITERATOR_NAME = Type.getInternalName(Iterator.class);
+	private static final String OPTIONAL_NAME = Type.getInternalName(Optional.class);
+
+	static final AtomicLong counter = new AtomicLong();
+
+	/**
+	 * Accessors per class the path starts at and path.
+	 */
+	private static final ClassValue<Map<PropertyPath, PropertyAccessor<?>>> accessors = new Caches.Cache<Map<PropertyPath, PropertyAccessor<?>>>() {
+		protected Map<PropertyPath, PropertyAccessor<?>> compute(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private AccessorGenerator() {
+	}
+
+	/**
+	 * @param type the class the path starts at
+	 * @param path the path to read
+	 * @return the (cached) accessor
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> PropertyAccessor<T> accessor(Class<T> type, PropertyPath path) {
+		return (PropertyAccessor<T>) accessors.get(type).computeIfAbsent(path, p -> create(type, p));
+	}
+
+	private static <T> PropertyAccessor<T> create(Class<T> type, PropertyPath path) {
+		ProxyMethod[] steps = steps(type, path);
+		boolean multiValued = isMultiValued(steps);
+		String internalName = type.getName().replace('.', '/') + "_$$_PropertyAccessor" + counter.incrementAndGet();
+		byte[] definition = generate(internalName, type, steps, multiValued);
+		@SuppressWarnings("unchecked")
+		Function<T, Object> function = (Function<T, Object>) PropertyNameBuilder.instantiate(
+				PropertyNameBuilder.defineClass(type.getClassLoader(), type, internalName, definition));
+		return new Accessor<>(path, multiValued, function);
+	}
+
+	/**
+	 * @param type the class the path starts at
+	 * @param path the path
+	 * @return the getters along the path, all of which are accessible from the package of the given class
+	 */
+	static ProxyMethod[] steps(Class<?> type, PropertyPath path) {
+		if (path.isEmpty())
+			throw new PropertyNameException("Cannot access the empty path of " + type.getName(), null);
+		ProxyMethod[] steps = new ProxyMethod[path.size()];
+		Class<?> current = type;
+		for (int i = 0; i < steps.length; i++) {
+			if (current == null)
+				throw new PropertyNameException("Cannot navigate into " + path.segment(i - 1) + " of " + path, null);
+			checkAccessible(type, current, path);
+			steps[i] = getter(current, path.segment(i), path);
+			checkAccessible(type, steps[i].method, path);
+			current = i < steps.length - 1 ? navigatedType(steps[i], path.segment(i + 1)) : null;
+		}
+		return steps;
+	}
+
+	/**
+	 * @return whether the given getters navigate through a container
+	 */
+	static boolean isMultiValued(ProxyMethod[] steps) {
+		for (int i = 0; i < steps.length - 1; i++) {
+			if (isContainer(steps[i]))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the class the getter at the given index navigates to, which must be followed by another getter
+	 */
+	static Class<?> navigatedType(ProxyMethod[] steps, int i) {
+		return navigatedType(steps[i], steps[i + 1].propertyName);
+	}
+
+	/**
+	 * @param next the property read next
+	 * @return the class the given getter navigates to, or <code>null</code> if it returns a leaf
+	 */
+	private static Class<?> navigatedType(ProxyMethod m, String next) {
+		switch (m.kind) {
+		case PROXY:
+		case LIST:
+		case SET:
+		case OPTIONAL:
+		case ARRAY:
+			return m.proxiedType;
+		case MAP:
+			return m.proxiedType != null && findGetter(m.proxiedType, next) != null ? m.proxiedType : m.keyType;
+		default:
+			return null;
+		}
+	}
+
+	private static ProxyMethod getter(Class<?> type, String segment, PropertyPath path) {
+		ProxyMethod m = findGetter(type, segment);
+		if (m == null)
+			throw new PropertyNameException("No property " + segment + " in " + type.getName() + " of " + path, null);
+		return m;
+	}
+
+	private static ProxyMethod findGetter(Class<?> type, String segment) {
+		for (ProxyMethod m : ProxyModel.of(type).methods) {
+			if (m.isGetter() && segment.equals(m.propertyName) && !m.method.isBridge())
+				return m;
+		}
+		return null;
+	}
+
+	private static void checkAccessible(Class<?> from, Class<?> clazz, PropertyPath path) {
+		if (!Modifier.isPublic(clazz.getModifiers()) && !isSamePackage(from, clazz))
+			throw new PropertyNameException(clazz + " of " + path + " is not accessible from " + from, null);
+	}
+
+	private static void checkAccessible(Class<?> from, Method method, PropertyPath path) {
+		int modifiers = method.getModifiers();
+		if (!Modifier.isPublic(modifiers) && !isSamePackage(from, method.getDeclaringClass()))
+			throw new PropertyNameException(method + " of " + path + " is not accessible from " + from, null);
+	}
+
+	private static boolean isSamePackage(Class<?> a, Class<?> b) {
+		return a.getClassLoader() == b.getClassLoader() && packageName(a).equals(packageName(b));
+	}
+
+	private static String packageName(Class<?> clazz) {
+		String name = clazz.getName();
+		int lastDot = name.lastIndexOf('.');
+		return lastDot < 0 ? "" : name.substring(0, lastDot);
+	}
+
+	/**
+	 * @return whether the given getter returns a container, which paths navigate through to its elements
+	 */
+	static boolean isContainer(ProxyMethod m) {
+		return m.kind == Kind.LIST || m.kind == Kind.SET || m.kind == Kind.MAP || m.kind == Kind.OPTIONAL
+				|| m.kind == Kind.ARRAY;
+	}
+
+	static byte[] generate(String internalName, Class<?> type, ProxyMethod[] steps, boolean multiValued) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null, "java/lang/Object",
+				new String[] { FUNCTION_NAME });
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "apply", "(Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+		if (multiValued)
+			generateCollectingApply(mv, internalName, type);
+		else
+			generateApply(mv, internalName, type, steps);
+		mv.visitMaxs(-1, -1);
+		mv.visitEnd();
+		if (multiValued)
+			generateStretches(cw, internalName, "", type, steps, 0);
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * Generate the methods of the stretches of the given getters starting at the given one, named after the given
+	 * prefix followed by <code>collect</code> and the number of the stretch.
+	 */
+	static void generateStretches(ClassWriter cw, String internalName, String prefix, Class<?> type,
+			ProxyMethod[] steps, int start) {
+		Class<?> current = type;
+		for (int stretch = 0; start < steps.length; stretch++) {
+			int end = start;
+			while (end < steps.length - 1 && !isContainer(steps[end]))
+				end++;
+			generateStretch(cw, internalName, prefix, stretch, current, steps, start, end);
+			current = end < steps.length - 1 ? navigatedType(steps, end) : null;
+			start = end + 1;
+		}
+	}
+
+	/**
+	 * Generate <code>apply()</code> of a single-valued path, which returns the value of the last getter or
+	 * <code>null</code> as soon as a getter returns <code>null</code>.
+	 */
+	private static void generateApply(MethodVisitor mv, String internalName, Class<?> type, ProxyMethod[] steps) {
+		Label isNull = new Label();
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		Class<?> current = type;
+		for (int i = 0; i < steps.length; i++) {
+			generateGetterCall(mv, current, steps[i]);
+			if (i < steps.length - 1) {
+				mv.visitInsn(DUP);
+				mv.visitJumpInsn(IFNULL, isNull);
+			}
+			current = steps[i].proxiedType;
+		}
+		generateBoxing(mv, Type.getReturnType(steps[steps.length - 1].descriptor));
+		mv.visitInsn(ARETURN);
+		if (steps.length > 1) {
+			mv.visitLabel(isNull);
+			mv.visitFrame(F_FULL, 2, new Object[] { internalName, "java/lang/Object" }, 1,
+					new Object[] { "java/lang/Object" });
+			mv.visitInsn(ARETURN);
+		}
+	}
+
+	/**
+	 * Generate <code>apply()</code> of a multi-valued path, which collects the values of all stretches into a list.
+	 */
+	private static void generateCollectingApply(MethodVisitor mv, String internalName, Class<?> type) {
+		mv.visitTypeInsn(NEW, "java/util/ArrayList");
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+		mv.visitVarInsn(ASTORE, 2);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKESTATIC, internalName, "collect0", stretchDescriptor(type), false);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitInsn(ARETURN);
+	}
+
+	/**
+	 * Generate the method of the stretch of the given steps, taking a non-null instance of the type the stretch starts
+	 * at and the list to add the values to.
+	 */
+	private static void generateStretch(ClassWriter cw, String internalName, String prefix, int stretch,
+			Class<?> type, ProxyMethod[] steps, int start, int end) {
+		MethodVisitor mv = cw.visitMethod(ACC_PRIVATE | ACC_STATIC, prefix + "collect" + stretch,
+				stretchDescriptor(type), null, null);
+		String typeName = Type.getInternalName(type);
+		Label isNull = new Label();
+		mv.visitVarInsn(ALOAD, 0);
+		Class<?> current = type;
+		for (int i = start; i <= end; i++) {
+			generateGetterCall(mv, current, steps[i]);
+			if (i < end || end < steps.length - 1) {
+				mv.visitInsn(DUP);
+				mv.visitJumpInsn(IFNULL, isNull);
+			}
+			current = steps[i].proxiedType;
+		}
+		if (end < steps.length - 1) {
+			String next = prefix + "collect" + (stretch + 1);
+			Class<?> elementType = navigatedType(steps, end);
+			if (steps[end].kind == Kind.OPTIONAL)
+				generateOptionalFanOut(mv, internalName, next, elementType, isNull);
+			else if (steps[end].kind == Kind.ARRAY)
+				generateArrayFanOut(mv, internalName, next, typeName, steps[end], elementType);
+			else
+				generateIteratingFanOut(mv, internalName, next, typeName, steps[end], elementType);
+		} else {
+			generateBoxing(mv, Type.getReturnType(steps[end].descriptor));
+			mv.visitVarInsn(ALOAD, 1);
+			mv.visitInsn(SWAP);
+			mv.visitMethodInsn(INVOKEINTERFACE, LIST_NAME, "add", "(Ljava/lang/Object;)Z", true);
+			mv.visitInsn(POP);
+			mv.visitInsn(RETURN);
+		}
+		if (end > start || end < steps.length - 1) {
+			mv.visitLabel(isNull);
+			mv.visitFrame(F_FULL, 2, new Object[] { typeName, LIST_NAME }, 1, new Object[] { "java/lang/Object" });
+			mv.visitInsn(POP);
+			mv.visitInsn(RETURN);
+		}
+		mv.visitMaxs(-1, -1);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generate the call of the given stretch method for each non-null element of the collection or map on the stack.
+	 */
+	private static void generateIteratingFanOut(MethodVisitor mv, String internalName, String next, String typeName,
+			ProxyMethod m, Class<?> elementType) {
+		Label loop = new Label();
+		Label nullElement = new Label();
+		Label done = new Label();
+		Object[] locals = { typeName, LIST_NAME, ITERATOR_NAME };
+		if (m.kind == Kind.MAP && elementType != m.proxiedType)
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "keySet", "()Ljava/util/Set;", true);
+		else if (m.kind == Kind.MAP)
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Map", "values", "()Ljava/util/Collection;", true);
+		mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Collection", "iterator", "()Ljava/util/Iterator;", true);
+		mv.visitVarInsn(ASTORE, 2);
+		mv.visitLabel(loop);
+		mv.visitFrame(F_FULL, 3, locals, 0, null);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEINTERFACE, ITERATOR_NAME, "hasNext", "()Z", true);
+		mv.visitJumpInsn(IFEQ, done);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitMethodInsn(INVOKEINTERFACE, ITERATOR_NAME, "next", "()Ljava/lang/Object;", true);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(elementType));
+		mv.visitInsn(DUP);
+		mv.visitJumpInsn(IFNULL, nullElement);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESTATIC, internalName, next, stretchDescriptor(elementType), false);
+		mv.visitJumpInsn(GOTO, loop);
+		mv.visitLabel(nullElement);
+		mv.visitFrame(F_FULL, 3, locals, 1, new Object[] { "java/lang/Object" });
+		mv.visitInsn(POP);
+		mv.visitJumpInsn(GOTO, loop);
+		mv.visitLabel(done);
+		mv.visitFrame(F_FULL, 3, locals, 0, null);
+		mv.visitInsn(RETURN);
+	}
+
+	/**
+	 * Generate the call of the given stretch method for each non-null element of the array on the stack.
+	 */
+	private static void generateArrayFanOut(MethodVisitor mv, String internalName, String next, String typeName,
+			ProxyMethod m, Class<?> elementType) {
+		Label loop = new Label();
+		Label increment = new Label();
+		Label nullElement = new Label();
+		Label done = new Label();
+		Object[] locals = { typeName, LIST_NAME, Type.getReturnType(m.descriptor).getInternalName(), INTEGER };
+		mv.visitVarInsn(ASTORE, 2);
+		mv.visitInsn(ICONST_0);
+		mv.visitVarInsn(ISTORE, 3);
+		mv.visitLabel(loop);
+		mv.visitFrame(F_FULL, 4, locals, 0, null);
+		mv.visitVarInsn(ILOAD, 3);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitInsn(ARRAYLENGTH);
+		mv.visitJumpInsn(IF_ICMPGE, done);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitVarInsn(ILOAD, 3);
+		mv.visitInsn(AALOAD);
+		mv.visitInsn(DUP);
+		mv.visitJumpInsn(IFNULL, nullElement);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESTATIC, internalName, next, stretchDescriptor(elementType), false);
+		mv.visitLabel(increment);
+		mv.visitFrame(F_FULL, 4, locals, 0, null);
+		mv.visitIincInsn(3, 1);
+		mv.visitJumpInsn(GOTO, loop);
+		mv.visitLabel(nullElement);
+		mv.visitFrame(F_FULL, 4, locals, 1, new Object[] { "java/lang/Object" });
+		mv.visitInsn(POP);
+		mv.visitJumpInsn(GOTO, increment);
+		mv.visitLabel(done);
+		mv.visitFrame(F_FULL, 4, locals, 0, null);
+		mv.visitInsn(RETURN);
+	}
+
+	/**
+	 * Generate the call of the given stretch method for the element of the optional on the stack, if it is present.
+	 */
+	private static void generateOptionalFanOut(MethodVisitor mv, String internalName, String next,
+			Class<?> elementType, Label isNull) {
+		mv.visitInsn(ACONST_NULL);
+		mv.visitMethodInsn(INVOKEVIRTUAL, OPTIONAL_NAME, "orElse", "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(elementType));
+		mv.visitInsn(DUP);
+		mv.visitJumpInsn(IFNULL, isNull);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESTATIC, internalName, next, stretchDescriptor(elementType), false);
+		mv.visitInsn(RETURN);
+	}
+
+	static String stretchDescriptor(Class<?> type) {
+		return "(" + Type.getDescriptor(type) + "L" + LIST_NAME + ";)V";
+	}
+
+	static void generateGetterCall(MethodVisitor mv, Class<?> owner, ProxyMethod m) {
+		boolean isInterface = owner.isInterface();
+		mv.visitMethodInsn(isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL, Type.getInternalName(owner), m.name,
+				m.descriptor, isInterface);
+	}
+
+	static void generateBoxing(MethodVisitor mv, Type type) {
+		if (type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY)
+			return;
+		Type boxed;
+		switch (type.getSort()) {
+		case Type.BOOLEAN:
+			boxed = Type.getType(Boolean.class);
+			break;
+		case Type.CHAR:
+			boxed = Type.getType(Character.class);
+			break;
+		case Type.BYTE:
+			boxed = Type.getType(Byte.class);
+			break;
+		case Type.SHORT:
+			boxed = Type.getType(Short.class);
+			break;
+		case Type.INT:
+			boxed = Type.getType(Integer.class);
+			break;
+		case Type.LONG:
+			boxed = Type.getType(Long.class);
+			break;
+		case Type.FLOAT:
+			boxed = Type.getType(Float.class);
+			break;
+		default:
+			boxed = Type.getType(Double.class);
+		}
+		mv.visitMethodInsn(INVOKESTATIC, boxed.getInternalName(), "valueOf",
+				Type.getMethodDescriptor(boxed, type), false);
+	}
+
+	/**
+	 * The accessor of a path, delegating to an instance of the generated class.
+	 */
+	private static final class Accessor<T> implements PropertyAccessor<T> {
+		private final PropertyPath path;
+		private final boolean multiValued;
+		private final Function<T, Object> function;
+
+		Accessor(PropertyPath path, boolean multiValued, Function<T, Object> function) {
+			this.path = path;
+			this.multiValued = multiValued;
+			this.function = function;
+		}
+
+		@Override
+		public PropertyPath path() {
+			return path;
+		}
+
+		@Override
+		public boolean isMultiValued() {
+			return multiValued;
+		}
+
+		@Override
+		public Object apply(T t) {
+			if (t == null)
+				return multiValued ? new ArrayList<>() : null;
+			return function.apply(t);
+		}
+
+		@Override
+		public String toString() {
+			return "PropertyAccessor[" + path + "]";
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package de.hbt.propertyname;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of the classes the caches hold values of, per class loader, so that the values of a class loader can be
+ * evicted, and bounds the number of cached names.
+ * <p>
+ * All caches are {@link ClassValue}s, whose values are held by the class they belong to, so they are collected
+ * together with the class loader of that class and never keep it alive. The classes are tracked in weak sets, which
+ * do not keep them alive either.
+ */
+final class Caches {
+
+	/**
+	 * The system property holding the maximum number of lambda classes whose names are cached, which is unbounded by
+	 * default.
+	 */
+	static final String NAME_CACHE_SIZE_PROPERTY = "propertyname.nameCacheSize";
+
+	static final int NAME_CACHE_SIZE = Integer.getInteger(NAME_CACHE_SIZE_PROPERTY, 0);
+
+	private static final List<Cache<?>> caches = new CopyOnWriteArrayList<>();
+	private static final List<Clock> clocks = new CopyOnWriteArrayList<>();
+	/**
+	 * The classes with cached values per class loader, as weak sets. Guarded by itself.
+	 */
+	private static final Map<ClassLoader, Set<Class<?>>> classes = new WeakHashMap<>();
+
+	private Caches() {
+	}
+
+	/**
+	 * A {@link ClassValue} whose values are removed by {@link Caches#evict(ClassLoader)}.
+	 */
+	abstract static class Cache<T> extends ClassValue<T> {
+		Cache() {
+			caches.add(this);
+		}
+
+		@Override
+		protected final T computeValue(Class<?> type) {
+			track(type);
+			return compute(type);
+		}
+
+		protected abstract T compute(Class<?> type);
+	}
+
+	/**
+	 * An entry of a {@link Clock}, which is marked on each use.
+	 */
+	abstract static class Entry {
+		final Reference<Class<?>> type;
+		volatile boolean used;
+
+		Entry(Class<?> type) {
+			this.type = new WeakReference<>(type);
+		}
+
+		/**
+		 * Remove this entry from its cache.
+		 */
+		abstract void evict();
+	}
+
+	/**
+	 * Bounds the number of entries of a cache, approximating least-recently-used eviction via the CLOCK algorithm:
+	 * entries are evicted in the order they were admitted, except for entries used since they were last looked at, which
+	 * get a second chance instead. This keeps cache hits free of locks.
+	 */
+	static final class Clock {
+		private final int capacity;
+		private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+		Clock(int capacity) {
+			this.capacity = capacity;
+			clocks.add(this);
+		}
+
+		synchronized void admit(Entry entry) {
+			entries.addLast(entry);
+			while (entries.size() > capacity) {
+				Entry oldest = entries.pollFirst();
+				if (oldest.used) {
+					oldest.used = false;
+					entries.addLast(oldest);
+				} else {
+					oldest.evict();
+				}
+			}
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
+
+		synchronized void remove(ClassLoader cl, boolean all) {
+			entries.removeIf(e -> {
+				Class<?> type = e.type.get();
+				return all || type == null || type.getClassLoader() == cl;
+			});
+		}
+	}
+
+	private static void track(Class<?> type) {
+		synchronized (classes) {
+			classes.computeIfAbsent(type.getClassLoader(), cl -> Collections.newSetFromMap(new WeakHashMap<>()))
+					.add(type);
+		}
+	}
+
+	/**
+	 * @return the classes of the given class loader with cached values
+	 */
+	static Set<Class<?>> tracked(ClassLoader cl) {
+		synchronized (classes) {
+			Set<Class<?>> t = classes.get(cl);
+			return t == null ? Collections.emptySet() : new HashSet<>(t);
+		}
+	}
+
+	/**
+	 * Remove all cached values of classes loaded by the given class loader.
+	 */
+	static void evict(ClassLoader cl) {
+		PropertyNaming.evict(cl);
+		List<Class<?>> types = new ArrayList<>();
+		synchronized (classes) {
+			Set<Class<?>> t = classes.remove(cl);
+			if (t != null)
+				types.addAll(t);
+		}
+		for (Clock clock : clocks)
+			clock.remove(cl, false);
+		remove(types);
+	}
+
+	/**
+	 * Remove all cached values.
+	 */
+	static void clear() {
+		PropertyNaming.clear();
+		List<Class<?>> types = new ArrayList<>();
+		synchronized (classes) {
+			for (Set<Class<?>> t : classes.values())
+				types.addAll(t);
+			classes.clear();
+		}
+		for (Clock clock : clocks)
+			clock.remove(null, true);
+		remove(types);
+	}
+
+	/**
+	 * Remove the given cache together with all its values, once its owner is no longer used.
+	 */
+	static void drop(Cache<?> cache) {
+		caches.remove(cache);
+		List<Class<?>> types = new ArrayList<>();
+		synchronized (classes) {
+			for (Set<Class<?>> t : classes.values())
+				types.addAll(t);
+		}
+		for (Class<?> type : types)
+			cache.remove(type);
+	}
+
+	private static void remove(List<Class<?>> types) {
+		for (Class<?> type : types) {
+			for (Cache<?> cache : caches)
+				cache.remove(type);
+		}
+	}
+}
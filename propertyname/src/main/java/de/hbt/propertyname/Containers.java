@@ -0,0 +1,128 @@
+package de.hbt.propertyname;
+
+import java.util.*;
+
+/**
+ * The containers returned by the getters of generated proxies for collections and maps, each holding the proxy of its
+ * element type (or <code>null</code> where it cannot be proxied), like {@link Collections#singletonList(Object)} and
+ * {@link Collections#singletonMap(Object, Object)} do.
+ * <p>
+ * The containers are created once per proxy and getter. {@link PropertyNameBuilder#any(Collection) any()},
+ * {@link PropertyNameBuilder#anyKey(Map) anyKey()} and {@link PropertyNameBuilder#anyValue(Map) anyValue()} read
+ * their element directly, without an iterator.
+ */
+final class Containers {
+
+	private Containers() {
+	}
+
+	/**
+	 * A collection holding a single element.
+	 */
+	interface Container {
+		Object element();
+	}
+
+	static final class ElementList<E> extends AbstractList<E> implements RandomAccess, Container {
+		private final E element;
+
+		ElementList(E element) {
+			this.element = element;
+		}
+
+		@Override
+		public E element() {
+			return element;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ElementIterator<>(element);
+		}
+
+		@Override
+		public E get(int index) {
+			if (index != 0)
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: 1");
+			return element;
+		}
+
+		@Override
+		public int size() {
+			return 1;
+		}
+	}
+
+	static final class ElementSet<E> extends AbstractSet<E> implements Container {
+		private final E element;
+
+		ElementSet(E element) {
+			this.element = element;
+		}
+
+		@Override
+		public E element() {
+			return element;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ElementIterator<>(element);
+		}
+
+		@Override
+		public int size() {
+			return 1;
+		}
+	}
+
+	/**
+	 * The iterator of a single element, which is a single small allocation, unlike the ones of
+	 * {@link Collections#singleton(Object)} and {@link AbstractList}. Iterators keep their position, so they cannot be
+	 * shared between iterations.
+	 */
+	static final class ElementIterator<E> implements Iterator<E> {
+		private final E element;
+		private boolean hasNext = true;
+
+		ElementIterator(E element) {
+			this.element = element;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return hasNext;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext)
+				throw new NoSuchElementException();
+			hasNext = false;
+			return element;
+		}
+	}
+
+	static final class ElementMap<K, V> extends AbstractMap<K, V> {
+		private final K key;
+		private final V value;
+
+		ElementMap(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		K key() {
+			return key;
+		}
+
+		V value() {
+			return value;
+		}
+
+		@Override
+		public Set<Map.Entry<K, V>> entrySet() {
+			return Collections.singletonMap(key, value).entrySet();
+		}
+	}
+}
@@ -0,0 +1,304 @@
+package de.hbt.propertyname;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.Type;
+
+import de.hbt.propertyname.PropertyNameBuilder.RT;
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * Generates the classes behind {@link PropertyExtractor}s.
+ * <p>
+ * The getters of all paths are merged into a tree, in which paths sharing a prefix share the nodes of its getters. The
+ * generated code walks the tree depth-first, calling the getter of each node once, keeping its value in a local
+ * variable and skipping the subtree when it is <code>null</code>. Where a path navigates through a container, the rest
+ * of the path is read by the stretch methods of {@link AccessorGenerator}, which collect the values into the list
+ * written into the row before.
+ */
+final class ExtractorGenerator {
+	private static final String EXTRACTOR_NAME = Type.getInternalName(RT.Extractor.class);
+	private static final String OBJECT_ARRAY_DESC = "[Ljava/lang/Object;";
+
+	/**
+	 * Extractors per class the paths start at and paths.
+	 */
+	private static final ClassValue<Map<List<PropertyPath>, PropertyExtractor<?>>> extractors = new Caches.Cache<Map<List<PropertyPath>, PropertyExtractor<?>>>() {
+		protected Map<List<PropertyPath>, PropertyExtractor<?>> compute(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * A getter shared by all paths starting with the getters from the root to it.
+	 */
+	private static final class Node {
+		final ProxyMethod getter;
+		/** The paths ending at this node */
+		final List<Integer> leaves = new ArrayList<>();
+		/** The paths navigating through a container returned by a getter of the value of this node */
+		final List<Integer> fanOuts = new ArrayList<>();
+		final Map<ProxyMethod, Node> children = new LinkedHashMap<>();
+
+		Node(ProxyMethod getter) {
+			this.getter = getter;
+		}
+	}
+
+	private ExtractorGenerator() {
+	}
+
+	/**
+	 * @param type  the class the paths start at
+	 * @param paths the paths to read
+	 * @return the (cached) extractor
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> PropertyExtractor<T> extractor(Class<T> type, List<PropertyPath> paths) {
+		return (PropertyExtractor<T>) extractors.get(type).computeIfAbsent(paths, p -> create(type, p));
+	}
+
+	private static <T> PropertyExtractor<T> create(Class<T> type, List<PropertyPath> paths) {
+		ProxyMethod[][] steps = new ProxyMethod[paths.size()][];
+		for (int i = 0; i < steps.length; i++)
+			steps[i] = AccessorGenerator.steps(type, paths.get(i));
+		String internalName = type.getName().replace('.', '/') + "_$$_PropertyExtractor"
+				+ AccessorGenerator.counter.incrementAndGet();
+		byte[] definition = generate(internalName, type, steps);
+		RT.Extractor extractor = (RT.Extractor) PropertyNameBuilder
+				.instantiate(PropertyNameBuilder.defineClass(type.getClassLoader(), type, internalName, definition));
+		return new Extractor<>(paths, steps, extractor);
+	}
+
+	static byte[] generate(String internalName, Class<?> type, ProxyMethod[][] steps) {
+		Node root = new Node(null);
+		for (int i = 0; i < steps.length; i++) {
+			Node node = root;
+			for (int j = 0; j < steps[i].length; j++) {
+				if (j < steps[i].length - 1 && AccessorGenerator.isContainer(steps[i][j])) {
+					node.fanOuts.add(i);
+					break;
+				}
+				node = node.children.computeIfAbsent(steps[i][j], Node::new);
+				if (j == steps[i].length - 1)
+					node.leaves.add(i);
+			}
+		}
+		/*
+		 * The locals of the nodes are only live within their subtree, so the frames are computed by ASM. Where locals
+		 * of different types are merged, they are not live anymore, so their common superclass is irrelevant.
+		 */
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+			@Override
+			protected String getCommonSuperClass(String type1, String type2) {
+				return "java/lang/Object";
+			}
+		};
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null, "java/lang/Object",
+				new String[] { EXTRACTOR_NAME });
+		generateExtract(cw, internalName, type, steps, root, false);
+		generateExtract(cw, internalName, type, steps, root, true);
+		for (int i = 0; i < steps.length; i++) {
+			int start = firstContainer(steps[i]);
+			if (start >= 0) {
+				AccessorGenerator.generateStretches(cw, internalName, "p" + i, start == 0 ? type
+						: steps[i][start - 1].proxiedType, steps[i], start);
+			}
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * @return the index of the first getter returning a container navigated through, or -1
+	 */
+	private static int firstContainer(ProxyMethod[] steps) {
+		for (int j = 0; j < steps.length - 1; j++) {
+			if (AccessorGenerator.isContainer(steps[j]))
+				return j;
+		}
+		return -1;
+	}
+
+	/**
+	 * Generate <code>extract(Object, Object[])</code> writing into a row, or <code>extract(Object, Object[], int)</code>
+	 * writing into columns.
+	 */
+	private static void generateExtract(ClassWriter cw, String internalName, Class<?> type, ProxyMethod[][] steps,
+			Node root, boolean columns) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "extract",
+				columns ? "(Ljava/lang/Object;[Ljava/lang/Object;I)V" : "(Ljava/lang/Object;[Ljava/lang/Object;)V", null,
+				null);
+		for (int i = 0; i < steps.length; i++) {
+			Type leafType = Type.getReturnType(steps[i][steps[i].length - 1].descriptor);
+			boolean multiValued = AccessorGenerator.isMultiValued(steps[i]);
+			generateTarget(mv, i, columns, multiValued ? null : leafType);
+			if (multiValued) {
+				mv.visitTypeInsn(NEW, "java/util/ArrayList");
+				mv.visitInsn(DUP);
+				mv.visitMethodInsn(INVOKESPECIAL, "java/util/ArrayList", "<init>", "()V", false);
+				mv.visitInsn(AASTORE);
+			} else if (columns && leafType.getSort() != Type.OBJECT && leafType.getSort() != Type.ARRAY) {
+				generateDefaultValue(mv, leafType);
+				mv.visitInsn(leafType.getOpcode(IASTORE));
+			} else {
+				mv.visitInsn(ACONST_NULL);
+				mv.visitInsn(AASTORE);
+			}
+		}
+		Label done = new Label();
+		int rootLocal = columns ? 4 : 3;
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitJumpInsn(IFNULL, done);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+		mv.visitVarInsn(ASTORE, rootLocal);
+		generateNode(mv, internalName, steps, root, type, rootLocal, columns);
+		mv.visitLabel(done);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(-1, -1);
+		mv.visitEnd();
+	}
+
+	/**
+	 * Generate the code of the subtree of the given node, whose non-null value is held by the given local.
+	 */
+	private static void generateNode(MethodVisitor mv, String internalName, ProxyMethod[][] steps, Node node,
+			Class<?> type, int local, boolean columns) {
+		for (int i : node.leaves) {
+			generateTarget(mv, i, columns, Type.getType(Object.class));
+			mv.visitVarInsn(ALOAD, local);
+			mv.visitInsn(AASTORE);
+		}
+		for (int i : node.fanOuts) {
+			mv.visitVarInsn(ALOAD, local);
+			mv.visitVarInsn(ALOAD, 2);
+			generateIndex(mv, i);
+			mv.visitInsn(AALOAD);
+			if (columns) {
+				mv.visitTypeInsn(CHECKCAST, OBJECT_ARRAY_DESC);
+				mv.visitVarInsn(ILOAD, 3);
+				mv.visitInsn(AALOAD);
+			}
+			mv.visitTypeInsn(CHECKCAST, "java/util/List");
+			mv.visitMethodInsn(INVOKESTATIC, internalName, "p" + i + "collect0",
+					AccessorGenerator.stretchDescriptor(type), false);
+		}
+		for (Node child : node.children.values()) {
+			Type valueType = Type.getReturnType(child.getter.descriptor);
+			if (valueType.getSort() != Type.OBJECT && valueType.getSort() != Type.ARRAY) {
+				for (int i : child.leaves) {
+					generateTarget(mv, i, columns, valueType);
+					mv.visitVarInsn(ALOAD, local);
+					AccessorGenerator.generateGetterCall(mv, type, child.getter);
+					if (!columns)
+						AccessorGenerator.generateBoxing(mv, valueType);
+					mv.visitInsn((columns ? valueType : Type.getType(Object.class)).getOpcode(IASTORE));
+				}
+				continue;
+			}
+			Label isNull = new Label();
+			int childLocal = local + 1;
+			mv.visitVarInsn(ALOAD, local);
+			AccessorGenerator.generateGetterCall(mv, type, child.getter);
+			mv.visitVarInsn(ASTORE, childLocal);
+			mv.visitVarInsn(ALOAD, childLocal);
+			mv.visitJumpInsn(IFNULL, isNull);
+			generateNode(mv, internalName, steps, child, child.getter.proxiedType, childLocal, columns);
+			mv.visitLabel(isNull);
+		}
+	}
+
+	/**
+	 * Push the array and index to store the value of the given path into: the row and the index of the path, or the
+	 * column of the path and the index of the instance.
+	 *
+	 * @param leafType the type of the value, or <code>null</code> for lists of values
+	 */
+	private static void generateTarget(MethodVisitor mv, int path, boolean columns, Type leafType) {
+		mv.visitVarInsn(ALOAD, 2);
+		generateIndex(mv, path);
+		if (columns) {
+			mv.visitInsn(AALOAD);
+			boolean primitive = leafType != null && leafType.getSort() != Type.OBJECT
+					&& leafType.getSort() != Type.ARRAY;
+			mv.visitTypeInsn(CHECKCAST, primitive ? "[" + leafType.getDescriptor() : OBJECT_ARRAY_DESC);
+			mv.visitVarInsn(ILOAD, 3);
+		}
+	}
+
+	private static void generateIndex(MethodVisitor mv, int i) {
+		if (i <= 5)
+			mv.visitInsn(ICONST_0 + i);
+		else if (i <= Byte.MAX_VALUE)
+			mv.visitIntInsn(BIPUSH, i);
+		else
+			mv.visitIntInsn(SIPUSH, i);
+	}
+
+	private static void generateDefaultValue(MethodVisitor mv, Type type) {
+		if (type.getSort() == Type.LONG)
+			mv.visitInsn(LCONST_0);
+		else if (type.getSort() == Type.FLOAT)
+			mv.visitInsn(FCONST_0);
+		else if (type.getSort() == Type.DOUBLE)
+			mv.visitInsn(DCONST_0);
+		else
+			mv.visitInsn(ICONST_0);
+	}
+
+	/**
+	 * The extractor of a list of paths, delegating to an instance of the generated class.
+	 */
+	private static final class Extractor<T> implements PropertyExtractor<T> {
+		private final List<PropertyPath> paths;
+		/** The component types of the columns */
+		private final Class<?>[] columnTypes;
+		private final RT.Extractor extractor;
+
+		Extractor(List<PropertyPath> paths, ProxyMethod[][] steps, RT.Extractor extractor) {
+			this.paths = paths;
+			this.columnTypes = new Class<?>[steps.length];
+			for (int i = 0; i < steps.length; i++) {
+				Class<?> leafType = steps[i][steps[i].length - 1].method.getReturnType();
+				boolean multiValued = AccessorGenerator.isMultiValued(steps[i]);
+				columnTypes[i] = leafType.isPrimitive() && !multiValued ? leafType : Object.class;
+			}
+			this.extractor = extractor;
+		}
+
+		@Override
+		public List<PropertyPath> paths() {
+			return paths;
+		}
+
+		@Override
+		public Object[] extract(T t, Object[] row) {
+			extractor.extract(t, row);
+			return row;
+		}
+
+		@Override
+		public Object[] newColumns(int size) {
+			Object[] columns = new Object[columnTypes.length];
+			for (int i = 0; i < columns.length; i++)
+				columns[i] = Array.newInstance(columnTypes[i], size);
+			return columns;
+		}
+
+		@Override
+		public void extract(T t, Object[] columns, int index) {
+			extractor.extract(t, columns, index);
+		}
+
+		@Override
+		public String toString() {
+			return "PropertyExtractor" + paths;
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package de.hbt.propertyname;
+
+import java.io.Serializable;
+import java.util.function.Function;
+
+/**
+ * A serializable {@link Function}, which method references of getters passed to {@link PropertyNameBuilder} are
+ * compiled to.
+ * <p>
+ * The getter and the type declaring it are read directly from the {@link java.lang.invoke.SerializedLambda} of such a
+ * method reference, instead of being searched for in the constant pool of the lambda class. This needs no access to
+ * JDK internals.
+ *
+ * @param <T> type of the property owner
+ * @param <R> type of the property
+ */
+@FunctionalInterface
+public interface Getter<T, R> extends Function<T, R>, Serializable {
+}
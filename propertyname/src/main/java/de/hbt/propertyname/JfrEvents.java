@@ -0,0 +1,71 @@
+package de.hbt.propertyname;
+
+import jdk.jfr.*;
+
+/**
+ * JDK Flight Recorder events. Only loaded when {@link Metrics#JFR} is <code>true</code>.
+ */
+final class JfrEvents {
+
+	@Name("de.hbt.propertyname.ProxyGeneration")
+	@Label("Proxy Generation")
+	@Category("Property Names")
+	@Description("Creation of the proxy of a class, including the generation of its proxy class")
+	static final class ProxyGeneration extends Event {
+		@Label("Proxied Class")
+		Class<?> proxiedClass;
+
+		@Label("Class Size")
+		@Description("Size of the generated proxy class, 0 when a pregenerated class was used")
+		@DataAmount
+		int bytes;
+	}
+
+	@Name("de.hbt.propertyname.LambdaResolution")
+	@Label("Lambda Resolution")
+	@Category("Property Names")
+	@Description("Resolution of the type a lambda or method reference is applied to")
+	static final class LambdaResolution extends Event {
+		@Label("Lambda Class")
+		Class<?> lambdaClass;
+
+		@Label("Resolved Class")
+		Class<?> resolvedClass;
+
+		@Label("Resolver")
+		String resolver;
+	}
+
+	static Object beginProxyGeneration() {
+		ProxyGeneration event = new ProxyGeneration();
+		event.begin();
+		return event;
+	}
+
+	static void commitProxyGeneration(Object e, Class<?> proxiedClass, int bytes) {
+		ProxyGeneration event = (ProxyGeneration) e;
+		event.end();
+		if (event.shouldCommit()) {
+			event.proxiedClass = proxiedClass;
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	static Object beginLambdaResolution() {
+		LambdaResolution event = new LambdaResolution();
+		event.begin();
+		return event;
+	}
+
+	static void commitLambdaResolution(Object e, Class<?> lambdaClass, Class<?> resolvedClass, String resolver) {
+		LambdaResolution event = (LambdaResolution) e;
+		event.end();
+		if (event.shouldCommit()) {
+			event.lambdaClass = lambdaClass;
+			event.resolvedClass = resolvedClass;
+			event.resolver = resolver;
+			event.commit();
+		}
+	}
+}
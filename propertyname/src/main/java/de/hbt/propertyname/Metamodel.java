@@ -0,0 +1,32 @@
+package de.hbt.propertyname;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a class for which the <code>propertyname-processor</code> annotation processor generates a metamodel class
+ * holding the names of all properties reachable from the annotated class as <code>static final String</code>
+ * constants.
+ * <p>
+ * For a class <code>Contract</code> the generated class is called <code>Contract_</code> and contains constants such
+ * as:
+ *
+ * <pre>
+ * <code>
+ * public static final String CUSTOMER_LEGAL_NAME = "customer.legalName";
+ * </code>
+ * </pre>
+ *
+ * which is the same name as <code>name(of(Contract::getCustomer).getLegalName())</code> would return, without any
+ * runtime cost. Nested classes are named after their enclosing classes, separated by an underscore, such as
+ * <code>Outer_Contract_</code>.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Metamodel {
+
+	/**
+	 * @return the maximum number of properties in a generated property path
+	 */
+	int maxDepth() default 3;
+}
@@ -0,0 +1,165 @@
+package de.hbt.propertyname;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.*;
+
+/**
+ * Counters behind {@link PropertyNameStats} and the emission of JDK Flight Recorder events.
+ * <p>
+ * All counters are only updated when {@link #ENABLED}, which is a constant, so that the JIT removes the updates
+ * entirely otherwise.
+ */
+final class Metrics {
+
+	static final boolean ENABLED = Boolean.getBoolean(PropertyNameStats.ENABLED_PROPERTY);
+
+	/**
+	 * Whether the JDK Flight Recorder API is available (Java 11 and later, as well as Java 8u262 and later).
+	 */
+	static final boolean JFR = isJfrAvailable();
+
+	static final LongAdder proxyHits = new LongAdder();
+	static final LongAdder proxyMisses = new LongAdder();
+	static final LongAdder resolutionLookups = new LongAdder();
+	static final LongAdder resolutionMisses = new LongAdder();
+	static final LongAdder nameHits = new LongAdder();
+	static final LongAdder nameMisses = new LongAdder();
+	static final LongAdder generatedClasses = new LongAdder();
+	static final LongAdder generatedBytes = new LongAdder();
+	static final LongAdder proxyGenerationNanos = new LongAdder();
+	static final LongAdder resolutionNanos = new LongAdder();
+
+	static {
+		if (ENABLED)
+			registerMXBean();
+	}
+
+	/**
+	 * A running proxy generation or lambda resolution.
+	 */
+	static final class Measurement {
+		private final long start = ENABLED ? System.nanoTime() : 0L;
+		/**
+		 * The JFR event, or <code>null</code>
+		 */
+		private final Object event;
+
+		Measurement(Object event) {
+			this.event = event;
+		}
+
+		long elapsedNanos() {
+			return System.nanoTime() - start;
+		}
+	}
+
+	private static final class LiveStats implements PropertyNameStatsMXBean {
+		public long getProxyCacheHits() {
+			return PropertyNameStats.snapshot().getProxyCacheHits();
+		}
+
+		public long getProxyCacheMisses() {
+			return PropertyNameStats.snapshot().getProxyCacheMisses();
+		}
+
+		public long getResolutionCacheHits() {
+			return PropertyNameStats.snapshot().getResolutionCacheHits();
+		}
+
+		public long getResolutionCacheMisses() {
+			return PropertyNameStats.snapshot().getResolutionCacheMisses();
+		}
+
+		public long getNameCacheHits() {
+			return PropertyNameStats.snapshot().getNameCacheHits();
+		}
+
+		public long getNameCacheMisses() {
+			return PropertyNameStats.snapshot().getNameCacheMisses();
+		}
+
+		public long getGeneratedClasses() {
+			return PropertyNameStats.snapshot().getGeneratedClasses();
+		}
+
+		public long getGeneratedBytes() {
+			return PropertyNameStats.snapshot().getGeneratedBytes();
+		}
+
+		public long getProxyGenerationNanos() {
+			return PropertyNameStats.snapshot().getProxyGenerationNanos();
+		}
+
+		public long getResolutionNanos() {
+			return PropertyNameStats.snapshot().getResolutionNanos();
+		}
+	}
+
+	private static boolean isJfrAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private static void registerMXBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new LiveStats(),
+					new ObjectName(PropertyNameStats.OBJECT_NAME));
+		} catch (JMException | RuntimeException e) {
+			/*
+			 * Most likely another copy of this library (in another class loader) registered it already.
+			 */
+		}
+	}
+
+	/**
+	 * @return the measurement of a proxy generation, or <code>null</code> when neither statistics nor JFR are available
+	 */
+	static Measurement beginProxyGeneration() {
+		if (!ENABLED && !JFR)
+			return null;
+		return new Measurement(JFR ? JfrEvents.beginProxyGeneration() : null);
+	}
+
+	/**
+	 * @param bytes the size of the defined proxy class, or 0 when a pregenerated class was loaded
+	 */
+	static void endProxyGeneration(Measurement measurement, Class<?> proxiedClass, int bytes) {
+		if (measurement == null)
+			return;
+		if (ENABLED) {
+			proxyGenerationNanos.add(measurement.elapsedNanos());
+			if (bytes > 0) {
+				generatedClasses.increment();
+				generatedBytes.add(bytes);
+			}
+		}
+		if (measurement.event != null)
+			JfrEvents.commitProxyGeneration(measurement.event, proxiedClass, bytes);
+	}
+
+	/**
+	 * @return the measurement of a lambda resolution, or <code>null</code> when neither statistics nor JFR are available
+	 */
+	static Measurement beginResolution() {
+		if (!ENABLED && !JFR)
+			return null;
+		return new Measurement(JFR ? JfrEvents.beginLambdaResolution() : null);
+	}
+
+	static void endResolution(Measurement measurement, Class<?> lambdaClass, Class<?> receiver, String resolver) {
+		if (measurement == null)
+			return;
+		if (ENABLED) {
+			resolutionMisses.increment();
+			resolutionNanos.add(measurement.elapsedNanos());
+		}
+		if (measurement.event != null)
+			JfrEvents.commitLambdaResolution(measurement.event, lambdaClass, receiver, resolver);
+	}
+}
@@ -0,0 +1,129 @@
+package de.hbt.propertyname;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.*;
+import java.util.Objects;
+
+/**
+ * The implementations of the {@link NamingStrategy} constants and factories.
+ */
+final class NamingStrategies {
+
+	private NamingStrategies() {
+	}
+
+	static String bean(Method getter, String beanName) {
+		return beanName;
+	}
+
+	/**
+	 * Insert an underscore before each upper-case letter following a lower-case letter or digit, and before the last
+	 * letter of a run of upper-case letters followed by a lower-case letter, so that <code>uRLValue</code> becomes
+	 * <code>u_rl_value</code>, and lower-case all letters.
+	 */
+	static String snakeCase(Method getter, String beanName) {
+		StringBuilder sb = new StringBuilder(beanName.length() + 4);
+		for (int i = 0; i < beanName.length(); i++) {
+			char c = beanName.charAt(i);
+			if (Character.isUpperCase(c)) {
+				if (i > 0 && beanName.charAt(i - 1) != '_' && (!Character.isUpperCase(beanName.charAt(i - 1))
+						|| i + 1 < beanName.length() && Character.isLowerCase(beanName.charAt(i + 1))))
+					sb.append('_');
+				sb.append(Character.toLowerCase(c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	static NamingStrategy annotated(Class<? extends Annotation> annotationType, String attribute,
+			NamingStrategy fallback) {
+		Method value;
+		try {
+			value = annotationType.getMethod(attribute);
+		} catch (NoSuchMethodException e) {
+			throw new PropertyNameException("No attribute " + attribute + " in " + annotationType.getName(), e);
+		}
+		if (value.getReturnType() != String.class)
+			throw new PropertyNameException("Attribute " + attribute + " of " + annotationType.getName()
+					+ " is not a String", null);
+		return new Annotated(annotationType, value, fallback);
+	}
+
+	/**
+	 * The strategy of {@link NamingStrategy#annotated(Class, String, NamingStrategy)}, which equals the strategies of
+	 * the same attribute and fallback, so that the namings with such strategies are interned as one.
+	 */
+	static final class Annotated implements NamingStrategy {
+		private final Class<? extends Annotation> annotationType;
+		private final Method attribute;
+		private final NamingStrategy fallback;
+
+		Annotated(Class<? extends Annotation> annotationType, Method attribute, NamingStrategy fallback) {
+			this.annotationType = annotationType;
+			this.attribute = attribute;
+			this.fallback = Objects.requireNonNull(fallback, "fallback");
+		}
+
+		@Override
+		public String propertyName(Method getter, String beanName) {
+			Annotation annotation = getter.getAnnotation(annotationType);
+			if (annotation == null) {
+				Field field = field(getter.getDeclaringClass(), beanName);
+				annotation = field == null ? null : field.getAnnotation(annotationType);
+			}
+			String name = annotation == null ? null : (String) invoke(attribute, annotation);
+			return name == null || name.isEmpty() ? fallback.propertyName(getter, beanName) : name;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Annotated))
+				return false;
+			Annotated other = (Annotated) obj;
+			return annotationType == other.annotationType && attribute.equals(other.attribute)
+					&& fallback.equals(other.fallback);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(annotationType, attribute, fallback);
+		}
+
+		@Override
+		public String toString() {
+			return "annotated(" + annotationType.getName() + "." + attribute.getName() + ", " + fallback + ")";
+		}
+	}
+
+	/**
+	 * @return whether the given strategy, or one it delegates to, was loaded by the given class loader
+	 */
+	static boolean loadedBy(NamingStrategy strategy, ClassLoader cl) {
+		if (strategy instanceof Annotated) {
+			Annotated annotated = (Annotated) strategy;
+			return annotated.annotationType.getClassLoader() == cl || loadedBy(annotated.fallback, cl);
+		}
+		return strategy.getClass().getClassLoader() == cl;
+	}
+
+	private static Field field(Class<?> clazz, String name) {
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+			try {
+				return c.getDeclaredField(name);
+			} catch (NoSuchFieldException e) {
+				// look in the superclass
+			}
+		}
+		return null;
+	}
+
+	private static Object invoke(Method attribute, Annotation annotation) {
+		try {
+			return attribute.invoke(annotation);
+		} catch (ReflectiveOperationException e) {
+			throw new PropertyNameException("Could not read " + attribute.getName() + " of " + annotation, e);
+		}
+	}
+}
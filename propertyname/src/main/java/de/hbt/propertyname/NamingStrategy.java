@@ -0,0 +1,49 @@
+package de.hbt.propertyname;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Determines the property names of getters for a {@link PropertyNaming}, such as the names a JSON or persistence layer
+ * uses for them. The names are determined once per getter, when the proxy of its class is generated, and recorded as
+ * constants from then on.
+ */
+@FunctionalInterface
+public interface NamingStrategy {
+
+	/**
+	 * The property names of the JavaBeans conventions, such as <code>legalName</code> for
+	 * <code>getLegalName()</code>, which are the ones {@link PropertyNameBuilder} returns.
+	 */
+	NamingStrategy BEAN = NamingStrategies::bean;
+
+	/**
+	 * The property names of the JavaBeans conventions in snake case, such as <code>legal_name</code> for
+	 * <code>getLegalName()</code>.
+	 */
+	NamingStrategy SNAKE_CASE = NamingStrategies::snakeCase;
+
+	/**
+	 * @param getter   the getter
+	 * @param beanName the property name of the getter according to the JavaBeans conventions, such as
+	 *                 <code>legalName</code> for <code>getLegalName()</code>
+	 * @return the property name of the getter, neither <code>null</code> nor empty
+	 */
+	String propertyName(Method getter, String beanName);
+
+	/**
+	 * Return a strategy taking the names of getters from an attribute of an annotation on the getter or on the field of
+	 * the same name, such as the <code>name</code> of a <code>@Column</code> or the <code>value</code> of a
+	 * <code>@JsonProperty</code>, like so:
+	 * <code>NamingStrategy.annotated(JsonProperty.class, "value", NamingStrategy.SNAKE_CASE)</code>
+	 *
+	 * @param annotationType the annotation to read the names from
+	 * @param attribute      the attribute holding the name, which must be of type {@link String}
+	 * @param fallback       the strategy for getters without the annotation or with an empty name
+	 * @return the strategy, which equals the strategies of the same attribute and fallback
+	 */
+	static NamingStrategy annotated(Class<? extends Annotation> annotationType, String attribute,
+			NamingStrategy fallback) {
+		return NamingStrategies.annotated(annotationType, attribute, fallback);
+	}
+}
@@ -0,0 +1,159 @@
+package de.hbt.propertyname;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * Support for GraalVM native images, in which no classes can be defined at runtime and reflection only sees the
+ * classes and members registered when building the image. The feature of <code>propertyname-graalvm</code> calls
+ * these methods at image build time to define the proxy classes of the types reachable from {@link Getter} lambdas and
+ * to register everything {@link PropertyNameBuilder} reflects on at runtime.
+ * <p>
+ * In a native image, {@link PropertyNameBuilder} only uses proxy classes found by their name, which are the ones
+ * defined by {@link #defineProxyClass(Class)} at build time and the ones generated via {@link PregeneratedProxies}, and
+ * fails for all other classes instead of generating their proxies. It instantiates them via their constructor, so the
+ * proxied classes need a non-private constructor without parameters, see {@link #newInstance(Class)}. Proxies of a
+ * {@link PropertyNaming} and {@link java.util.function.Function} lambdas, which are resolved via their constant pool,
+ * are not supported.
+ */
+public final class NativeImageSupport {
+
+	/**
+	 * The system property GraalVM sets to <code>buildtime</code> while building an image and to <code>runtime</code>
+	 * in the image.
+	 */
+	static final String IMAGE_CODE_PROPERTY = "org.graalvm.nativeimage.imagecode";
+
+	private NativeImageSupport() {
+	}
+
+	/**
+	 * @return whether this is the runtime of a native image
+	 */
+	static boolean inImage() {
+		return "runtime".equals(System.getProperty(IMAGE_CODE_PROPERTY));
+	}
+
+	/**
+	 * @param getterClass the class of a lambda or method reference implementing {@link Getter}
+	 * @return the class the getter is applied to, whose proxy {@link PropertyNameBuilder#of(Getter)} returns
+	 * @throws PropertyNameException if the class is not a lambda class or the getter cannot be proxied
+	 */
+	public static Class<?> receiverOf(Class<?> getterClass) {
+		return PropertyNameBuilder.receiverOf(getter(getterClass));
+	}
+
+	/**
+	 * @param getterClass the class of a lambda or method reference implementing {@link Getter}
+	 * @return the members {@link PropertyNameBuilder} reflects on to resolve the getter and to determine whether it
+	 *         captures values: the <code>writeReplace</code> method and the instance fields of the lambda class, and
+	 *         the implementation method
+	 * @throws PropertyNameException if the class is not a lambda class
+	 */
+	public static List<Member> reflectedMembers(Class<?> getterClass) {
+		List<Member> members = new ArrayList<>();
+		try {
+			members.add(getterClass.getDeclaredMethod("writeReplace"));
+		} catch (NoSuchMethodException e) {
+			throw new PropertyNameException("Not a lambda or method reference: " + getterClass, e);
+		}
+		for (Field f : getterClass.getDeclaredFields()) {
+			if (!Modifier.isStatic(f.getModifiers()))
+				members.add(f);
+		}
+		Method implementation = PropertyNameBuilder.implementationOf(getter(getterClass));
+		if (implementation != null)
+			members.add(implementation);
+		return members;
+	}
+
+	/**
+	 * Instantiate a pregenerated proxy class via its constructor without parameters, which is the only way a native
+	 * image can instantiate a class registered via the public GraalVM API.
+	 *
+	 * @param proxyClass a proxy class generated by {@link PregeneratedProxies#generate(Class)}
+	 * @return the new proxy
+	 * @throws PropertyNameException if the proxy class has no constructor without parameters, since the proxied class
+	 *                               has none
+	 */
+	static Object newInstance(Class<?> proxyClass) {
+		Constructor<?> constructor;
+		try {
+			constructor = proxyClass.getDeclaredConstructor();
+		} catch (NoSuchMethodException e) {
+			throw new PropertyNameException("Cannot instantiate proxy in a native image, since "
+					+ proxyClass.getSuperclass().getName() + " has no non-private constructor without parameters", e);
+		}
+		try {
+			return constructor.newInstance();
+		} catch (InvocationTargetException e) {
+			throw new PropertyNameException("Could not instantiate proxy for " + proxyClass, e.getCause());
+		} catch (ReflectiveOperationException e) {
+			throw new PropertyNameException("Could not instantiate proxy for " + proxyClass, e);
+		}
+	}
+
+	/**
+	 * @param root a class to proxy
+	 * @return the given class and all classes its proxy navigates to, directly or via other proxies, which are the
+	 *         return types of getters and the element, key and value types of containers
+	 */
+	public static Set<Class<?>> reachableClasses(Class<?> root) {
+		Set<Class<?>> classes = new LinkedHashSet<>();
+		Deque<Class<?>> pending = new ArrayDeque<>();
+		Class<?> clazz = PropertyNameBuilder.findNonProxyClass(root);
+		if (PropertyNameBuilder.canProxy(clazz) && classes.add(clazz))
+			pending.add(clazz);
+		while ((clazz = pending.poll()) != null) {
+			for (ProxyMethod m : ProxyModel.of(clazz).methods) {
+				if (m.proxiedType != null && classes.add(m.proxiedType))
+					pending.add(m.proxiedType);
+				if (m.keyType != null && classes.add(m.keyType))
+					pending.add(m.keyType);
+			}
+		}
+		return classes;
+	}
+
+	/**
+	 * Define the proxy class of the given class under {@link PregeneratedProxies#proxyClassName(Class)} in the class
+	 * loader of the given class, unless it already exists there, and add it to the index of
+	 * {@link PregeneratedProxies}, so that {@link PropertyNameBuilder} finds it by its name.
+	 *
+	 * @param clazz the class to proxy
+	 * @return the proxy class
+	 * @throws PropertyNameException if {@link PregeneratedProxies#canPregenerate(Class)} does not support the class
+	 */
+	public static Class<?> defineProxyClass(Class<?> clazz) {
+		String name = PregeneratedProxies.proxyClassName(clazz);
+		Class<?> proxyClass;
+		try {
+			proxyClass = Class.forName(name, false, clazz.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			proxyClass = null;
+		}
+		if (proxyClass == null) {
+			byte[] definition = PregeneratedProxies.generate(clazz);
+			try {
+				proxyClass = PropertyNameBuilder.defineNamedClass(clazz, name, definition);
+			} catch (PropertyNameException e) {
+				/* Another thread defined the class concurrently */
+				try {
+					proxyClass = Class.forName(name, false, clazz.getClassLoader());
+				} catch (ClassNotFoundException notFound) {
+					throw e;
+				}
+			}
+		}
+		PregeneratedProxies.list(clazz);
+		return proxyClass;
+	}
+
+	private static Getter<?, ?> getter(Class<?> getterClass) {
+		if (!Getter.class.isAssignableFrom(getterClass))
+			throw new PropertyNameException("Not a " + Getter.class.getName() + ": " + getterClass, null);
+		return (Getter<?, ?>) PropertyNameBuilder.instantiate(getterClass);
+	}
+}
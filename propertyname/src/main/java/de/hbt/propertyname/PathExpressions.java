@@ -0,0 +1,223 @@
+package de.hbt.propertyname;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.Type;
+
+/**
+ * Determines the path of a path expression, such as <code>c -&gt; c.getCustomer().getLegalName()</code>, from the
+ * bytecode of the method implementing the lambda, without calling it.
+ * <p>
+ * The implementation method must consist of a chain of getter calls on its only parameter, optionally with
+ * {@link PropertyNameBuilder#any(Collection) any()} (or one of its variants for maps, optionals and arrays) wrapped
+ * around containers, casts and the boxing of a primitive result. Method references of getters are paths with a single
+ * property.
+ */
+final class PathExpressions {
+	private static final String BUILDER_NAME = Type.getInternalName(PropertyNameBuilder.class);
+	private static final Set<String> ANY_NAMES = new HashSet<>(
+			Arrays.asList("any", "anyKey", "anyValue", "anyElement"));
+	/**
+	 * The owners and descriptors of the <code>valueOf()</code> methods boxing primitives, such as
+	 * <code>java/lang/Integer.(I)Ljava/lang/Integer;</code>
+	 */
+	private static final Set<String> BOXING_METHODS = new HashSet<>();
+
+	static {
+		Class<?>[] wrappers = { Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class,
+				Float.class, Double.class };
+		Class<?>[] primitives = { boolean.class, byte.class, char.class, short.class, int.class, long.class,
+				float.class, double.class };
+		for (int i = 0; i < wrappers.length; i++) {
+			BOXING_METHODS.add(Type.getInternalName(wrappers[i]) + "."
+					+ Type.getMethodDescriptor(Type.getType(wrappers[i]), Type.getType(primitives[i])));
+		}
+	}
+
+	private PathExpressions() {
+	}
+
+	/**
+	 * @param implClass  the class declaring the implementation method
+	 * @param name       the name of the implementation method
+	 * @param descriptor the descriptor of the implementation method
+	 * @return the path of the expression
+	 */
+	static PropertyPath path(Class<?> implClass, String name, String descriptor) {
+		Method method = PropertyNameBuilder.findMethod(implClass, name, descriptor);
+		if (method == null)
+			throw new PropertyNameException("Could not find " + implClass.getName() + "." + name + descriptor, null);
+		if (!Modifier.isStatic(method.getModifiers())) {
+			if (!PropertyNameBuilder.isGetter(method))
+				throw new PropertyNameException("Not a getter: " + method, null);
+			return PropertyPath.EMPTY.recordedChild(PropertyNameBuilder.propertyName(method));
+		}
+		if (method.getParameterCount() != 1)
+			throw new PropertyNameException("Path expressions must not capture any values: " + method, null);
+		ChainVisitor chain = new ChainVisitor(implClass.getClassLoader());
+		new ClassReader(classFile(implClass)).accept(new ClassVisitor(ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String n, String d, String signature, String[] exceptions) {
+				return n.equals(name) && d.equals(descriptor) ? chain : null;
+			}
+		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		if (chain.unsupported != null || !chain.returned || chain.path.isEmpty()) {
+			throw new PropertyNameException("Only chains of getter calls are supported as path expressions, but "
+					+ method + " contains " + (chain.unsupported != null ? chain.unsupported : "none"), null);
+		}
+		return chain.path;
+	}
+
+	private static byte[] classFile(Class<?> clazz) {
+		String resource = clazz.getName().replace('.', '/') + ".class";
+		ClassLoader cl = clazz.getClassLoader();
+		try (InputStream is = cl != null ? cl.getResourceAsStream(resource)
+				: ClassLoader.getSystemResourceAsStream(resource)) {
+			if (is == null)
+				throw new PropertyNameException("Could not find class file of " + clazz.getName(), null);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n; (n = is.read(buffer)) > 0;)
+				out.write(buffer, 0, n);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new PropertyNameException("Could not read class file of " + clazz.getName(), e);
+		}
+	}
+
+	/**
+	 * Records the getters called in the visited method, or the first instruction which is not part of a chain of
+	 * getter calls on the parameter.
+	 */
+	private static final class ChainVisitor extends MethodVisitor {
+		private final ClassLoader cl;
+		private PropertyPath path = PropertyPath.EMPTY;
+		private boolean loaded;
+		private boolean returned;
+		private String unsupported;
+
+		ChainVisitor(ClassLoader cl) {
+			super(ASM9);
+			this.cl = cl;
+		}
+
+		private void unsupported(String instruction) {
+			if (unsupported == null)
+				unsupported = instruction;
+		}
+
+		private boolean inChain() {
+			return loaded && !returned;
+		}
+
+		@Override
+		public void visitVarInsn(int opcode, int var) {
+			if (opcode == ALOAD && var == 0 && !loaded)
+				loaded = true;
+			else
+				unsupported("a local variable access");
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+			if (!inChain()) {
+				unsupported("a call of " + name);
+			} else if ((opcode == INVOKEVIRTUAL || opcode == INVOKEINTERFACE)
+					&& Type.getArgumentTypes(descriptor).length == 0) {
+				Method getter = getter(owner, name, descriptor);
+				if (getter == null)
+					unsupported("a call of " + owner.replace('/', '.') + "." + name);
+				else
+					path = path.recordedChild(PropertyNameBuilder.propertyName(getter));
+			} else if (opcode == INVOKESTATIC && owner.equals(BUILDER_NAME) && ANY_NAMES.contains(name)) {
+				// any() only marks the navigation into a container
+			} else if (opcode == INVOKESTATIC && name.equals("valueOf")
+					&& BOXING_METHODS.contains(owner + "." + descriptor)) {
+				// boxing of a primitive result
+			} else {
+				unsupported("a call of " + owner.replace('/', '.') + "." + name);
+			}
+		}
+
+		private Method getter(String owner, String name, String descriptor) {
+			Class<?> clazz;
+			try {
+				clazz = Class.forName(Type.getObjectType(owner).getClassName(), false, cl);
+			} catch (ClassNotFoundException e) {
+				return null;
+			}
+			Method m = PropertyNameBuilder.findMethod(clazz, name, descriptor);
+			return m != null && PropertyNameBuilder.isGetter(m) ? m : null;
+		}
+
+		@Override
+		public void visitTypeInsn(int opcode, String type) {
+			if (opcode != CHECKCAST || !inChain())
+				unsupported("a " + (opcode == CHECKCAST ? "cast" : "type instruction"));
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			if (opcode == ARETURN && inChain())
+				returned = true;
+			else
+				unsupported("an instruction with opcode " + opcode);
+		}
+
+		@Override
+		public void visitIntInsn(int opcode, int operand) {
+			unsupported("a constant");
+		}
+
+		@Override
+		public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+			unsupported("an access of field " + name);
+		}
+
+		@Override
+		public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle,
+				Object... bootstrapMethodArguments) {
+			unsupported("a lambda or string concatenation");
+		}
+
+		@Override
+		public void visitJumpInsn(int opcode, Label label) {
+			unsupported("a branch");
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			unsupported("a constant");
+		}
+
+		@Override
+		public void visitIincInsn(int var, int increment) {
+			unsupported("a local variable access");
+		}
+
+		@Override
+		public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+			unsupported("a switch");
+		}
+
+		@Override
+		public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+			unsupported("a switch");
+		}
+
+		@Override
+		public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+			unsupported("an array creation");
+		}
+
+		@Override
+		public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+			unsupported("a try block");
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package de.hbt.propertyname;
+
+/**
+ * How a {@link PropertyNaming} renders the paths it records. The segments of a path are rendered once, when the proxy
+ * recording them is generated, and the path once, when it is recorded for the first time.
+ */
+public enum PathStyle {
+	/**
+	 * Dotted paths, such as <code>customer.addresses.city</code>, like the ones of {@link PropertyNameBuilder}
+	 */
+	DOTS(PropertyPath.EMPTY) {
+		@Override
+		String segment(String propertyName, boolean multiValued) {
+			return propertyName;
+		}
+	},
+	/**
+	 * Dotted paths whose segments of collections, maps and arrays end in <code>[]</code>, such as
+	 * <code>customer.addresses[].city</code>
+	 */
+	DOTS_WITH_ELEMENT_MARKERS(PropertyPath.EMPTY) {
+		@Override
+		String segment(String propertyName, boolean multiValued) {
+			return multiValued ? propertyName + "[]" : propertyName;
+		}
+	},
+	/**
+	 * JSON Pointers according to RFC 6901, such as <code>/customer/addresses/city</code>, with <code>~</code> and
+	 * <code>/</code> in property names escaped as <code>~0</code> and <code>~1</code>
+	 */
+	JSON_POINTER(PropertyPath.root("/", "/")) {
+		@Override
+		String segment(String propertyName, boolean multiValued) {
+			return propertyName.replace("~", "~0").replace("/", "~1");
+		}
+	};
+
+	/**
+	 * The root of the paths of this style
+	 */
+	final PropertyPath root;
+
+	PathStyle(PropertyPath root) {
+		this.root = root;
+	}
+
+	/**
+	 * @param propertyName the property name of a getter
+	 * @param multiValued  whether the getter returns a collection, a map or an array
+	 * @return the segment of the getter in paths of this style
+	 */
+	abstract String segment(String propertyName, boolean multiValued);
+}
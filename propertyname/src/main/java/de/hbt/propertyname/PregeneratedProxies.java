@@ -0,0 +1,134 @@
+package de.hbt.propertyname;
+
+import java.io.*;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates the bytecode of the proxy classes used by {@link PropertyNameBuilder} ahead of time, such as in a build
+ * step.
+ * <p>
+ * When the generated class file is stored under {@link #proxyClassName(Class)} next to the proxied class, so that the
+ * class loader of the proxied class can load it, and its name is listed in the {@link #INDEX} resource,
+ * {@link PropertyNameBuilder} uses it instead of generating and defining the proxy class at runtime. Proxies of classes
+ * without a pregenerated proxy class are still generated at runtime, without trying to load a proxy class first.
+ */
+public final class PregeneratedProxies {
+
+	/**
+	 * The resource listing the binary names of the pregenerated proxy classes, one per line. All resources of this
+	 * name visible to the class loader of a proxied class are read, once per class loader.
+	 */
+	public static final String INDEX = "META-INF/propertyname/pregenerated-proxies";
+
+	/**
+	 * The binary names of the pregenerated proxy classes per class loader, which do not keep the class loaders alive.
+	 */
+	private static final Map<ClassLoader, Set<String>> indexes = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private PregeneratedProxies() {
+	}
+
+	/**
+	 * Determine whether a proxy class can be pregenerated for the given class.
+	 *
+	 * @param clazz the class to proxy
+	 * @return <code>true</code> if {@link #generate(Class)} supports the class
+	 */
+	public static boolean canPregenerate(Class<?> clazz) {
+		return PropertyNameBuilder.canProxy(clazz) && !clazz.isAnonymousClass() && !clazz.isLocalClass()
+				&& !clazz.isSynthetic() && !Modifier.isPrivate(clazz.getModifiers())
+				&& PropertyNameBuilder.findNonProxyClass(clazz) == clazz;
+	}
+
+	/**
+	 * @param clazz the class to proxy
+	 * @return the binary name of the proxy class of the given class
+	 */
+	public static String proxyClassName(Class<?> clazz) {
+		return PropertyNameBuilder.proxyClassInternalName(clazz).replace('/', '.');
+	}
+
+	/**
+	 * @param clazz a class to proxy
+	 * @return whether the proxy class of the given class is listed in the index of its class loader, so that it can be
+	 *         loaded by its name
+	 */
+	static boolean isListed(Class<?> clazz) {
+		ClassLoader cl = clazz.getClassLoader();
+		return cl != null && index(cl).contains(proxyClassName(clazz));
+	}
+
+	/**
+	 * Add a proxy class defined in the class loader of the given class, rather than generated at build time, to the
+	 * index.
+	 */
+	static void list(Class<?> clazz) {
+		ClassLoader cl = clazz.getClassLoader();
+		if (cl != null)
+			index(cl).add(proxyClassName(clazz));
+	}
+
+	private static Set<String> index(ClassLoader cl) {
+		return indexes.computeIfAbsent(cl, PregeneratedProxies::readIndex);
+	}
+
+	/**
+	 * @return the names listed by all index resources of the given class loader, or the ones read so far, if reading
+	 *         them failed
+	 */
+	private static Set<String> readIndex(ClassLoader cl) {
+		Set<String> names = ConcurrentHashMap.newKeySet();
+		try {
+			for (Enumeration<URL> resources = cl.getResources(INDEX); resources.hasMoreElements();) {
+				try (BufferedReader reader = new BufferedReader(
+						new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						line = line.trim();
+						if (!line.isEmpty())
+							names.add(line);
+					}
+				}
+			}
+		} catch (IOException e) {
+			/* The proxies of the missing names are generated at runtime */
+		}
+		return names;
+	}
+
+	/**
+	 * Generate the bytecode of the proxy class of the given class.
+	 * <p>
+	 * If the given class {@linkplain #hasNullaryConstructor(Class) has a constructor without parameters}, the proxy
+	 * class has a public one, so that it can also be instantiated via reflection, as in native images.
+	 *
+	 * @param clazz the class to proxy
+	 * @return the class file of the proxy class named {@link #proxyClassName(Class)}
+	 * @throws PropertyNameException if the class cannot be proxied
+	 */
+	public static byte[] generate(Class<?> clazz) {
+		if (!canPregenerate(clazz))
+			throw new PropertyNameException("Cannot pregenerate proxy of " + clazz, null);
+		return PropertyNameBuilder.generateProxyClass(clazz, PropertyNameBuilder.proxyClassInternalName(clazz), null,
+				hasNullaryConstructor(clazz));
+	}
+
+	/**
+	 * @param clazz the class to proxy
+	 * @return <code>true</code> if the given class is an interface or has a non-private constructor without
+	 *         parameters, which its proxy class can call
+	 */
+	public static boolean hasNullaryConstructor(Class<?> clazz) {
+		if (clazz.isInterface())
+			return true;
+		try {
+			return !Modifier.isPrivate(clazz.getDeclaredConstructor().getModifiers());
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package de.hbt.propertyname;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.jar.*;
+import java.util.stream.Stream;
+
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * Generates the proxies of a set of root classes and of all classes reachable from them via getters, in parallel on a
+ * {@link ForkJoinPool}.
+ * <p>
+ * Each class is visited once. Its proxy is generated, and a subtask is forked for every type its proxy would lazily
+ * create a proxy of, which are the return types of navigable getters and the element types of container getters.
+ */
+final class Preloader extends CountedCompleter<Void> {
+	private final Set<Class<?>> visited;
+	private final Class<?> clazz;
+
+	private Preloader(CountedCompleter<?> parent, Set<Class<?>> visited, Class<?> clazz) {
+		super(parent);
+		this.visited = visited;
+		this.clazz = clazz;
+	}
+
+	/**
+	 * @param pool  the pool to generate the proxies on
+	 * @param roots supplies the root classes, called on the pool
+	 * @return a future completed when all proxies have been generated
+	 */
+	static CompletableFuture<Void> preload(ForkJoinPool pool, Supplier<? extends Collection<Class<?>>> roots) {
+		Root root = new Root(roots);
+		pool.execute(root);
+		return root.future;
+	}
+
+	@Override
+	public void compute() {
+		PropertyNameBuilder.of(clazz);
+		for (ProxyMethod m : ProxyModel.of(clazz).methods) {
+			if (m.proxiedType != null && visited.add(m.proxiedType))
+				forkVisit(this, visited, m.proxiedType);
+			if (m.keyType != null && visited.add(m.keyType))
+				forkVisit(this, visited, m.keyType);
+		}
+		tryComplete();
+	}
+
+	private static void forkVisit(CountedCompleter<?> parent, Set<Class<?>> visited, Class<?> clazz) {
+		parent.addToPendingCount(1);
+		new Preloader(parent, visited, clazz).fork();
+	}
+
+	/**
+	 * Forks the tasks of the root classes and completes the future once all of them are done.
+	 */
+	private static final class Root extends CountedCompleter<Void> {
+		private final Supplier<? extends Collection<Class<?>>> roots;
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+		Root(Supplier<? extends Collection<Class<?>>> roots) {
+			this.roots = roots;
+		}
+
+		@Override
+		public void compute() {
+			Set<Class<?>> visited = ConcurrentHashMap.newKeySet();
+			for (Class<?> clazz : roots.get()) {
+				clazz = PropertyNameBuilder.findNonProxyClass(clazz);
+				if (visited.add(clazz))
+					forkVisit(this, visited, clazz);
+			}
+			tryComplete();
+		}
+
+		@Override
+		public void onCompletion(CountedCompleter<?> caller) {
+			future.complete(null);
+		}
+
+		@Override
+		public boolean onExceptionalCompletion(Throwable ex, CountedCompleter<?> caller) {
+			future.completeExceptionally(ex);
+			return true;
+		}
+	}
+
+	/**
+	 * @param cl          the class loader to load the classes with
+	 * @param packageName the package to scan, including its subpackages
+	 * @return all classes of the package that can be proxied
+	 */
+	static List<Class<?>> classesInPackage(ClassLoader cl, String packageName) {
+		String path = packageName.replace('.', '/');
+		SortedSet<String> classNames = new TreeSet<>();
+		try {
+			for (URL url : Collections.list(cl.getResources(path))) {
+				if ("file".equals(url.getProtocol()))
+					addClassNames(Paths.get(url.toURI()), path, classNames);
+				else if ("jar".equals(url.getProtocol()))
+					addClassNames((JarURLConnection) url.openConnection(), path, classNames);
+			}
+		} catch (IOException | URISyntaxException e) {
+			throw new PropertyNameException("Could not scan package " + packageName, e);
+		}
+		List<Class<?>> classes = new ArrayList<>();
+		for (String className : classNames) {
+			Class<?> clazz;
+			try {
+				clazz = Class.forName(className, false, cl);
+			} catch (ClassNotFoundException | LinkageError e) {
+				continue;
+			}
+			if (PropertyNameBuilder.canProxy(clazz) && !clazz.isSynthetic() && !clazz.isAnonymousClass()
+					&& !clazz.isLocalClass())
+				classes.add(clazz);
+		}
+		return classes;
+	}
+
+	private static void addClassNames(Path directory, String path, Set<String> classNames) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.map(f -> path + "/" + directory.relativize(f).toString().replace(File.separatorChar, '/'))
+					.forEach(f -> addClassName(f, classNames));
+		}
+	}
+
+	private static void addClassNames(JarURLConnection connection, String path, Set<String> classNames)
+			throws IOException {
+		connection.setUseCaches(false);
+		try (JarFile jar = connection.getJarFile()) {
+			for (JarEntry entry : Collections.list(jar.entries())) {
+				if (entry.getName().startsWith(path + "/"))
+					addClassName(entry.getName(), classNames);
+			}
+		}
+	}
+
+	private static void addClassName(String file, Set<String> classNames) {
+		if (file.endsWith(".class") && !file.contains("_$$_") && !file.endsWith("package-info.class")
+				&& !file.endsWith("module-info.class"))
+			classNames.add(file.substring(0, file.length() - ".class".length()).replace('/', '.'));
+	}
+}
@@ -0,0 +1,42 @@
+package de.hbt.propertyname;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads the value of a {@link PropertyPath} from instances of a class, as returned by
+ * {@link PropertyNameBuilder#accessor(Class, PropertyPath)}.
+ * <p>
+ * The getters along the path are called directly by a generated class, so reading a value is as fast as calling the
+ * getters by hand.
+ *
+ * @param <T> the type the path starts at
+ */
+public interface PropertyAccessor<T> extends Function<T, Object> {
+
+	/**
+	 * @return the path read by this accessor
+	 */
+	PropertyPath path();
+
+	/**
+	 * @return whether the path navigates through a collection, map, {@link java.util.Optional} or array, so that
+	 *         {@link #apply(Object)} returns a {@link List}
+	 */
+	boolean isMultiValued();
+
+	/**
+	 * Read the value of the path from the given instance.
+	 * <p>
+	 * When the path navigates through collections, maps, optionals or arrays, the values of all of their elements are
+	 * returned as a {@link List}, in iteration order. Maps contribute their values, or their keys if only the key type
+	 * has the next property of the path. Elements which are <code>null</code>, or where a property along the rest of the
+	 * path is <code>null</code>, contribute no value.
+	 *
+	 * @param t the instance to read the value from
+	 * @return the value, which is <code>null</code> when the instance or a property along the path is
+	 *         <code>null</code>, or the list of values for {@link #isMultiValued() multi-valued} paths
+	 */
+	@Override
+	Object apply(T t);
+}
@@ -0,0 +1,65 @@
+package de.hbt.propertyname;
+
+import java.util.*;
+
+/**
+ * Reads the values of several {@link PropertyPath}s from instances of a class at once, as returned by
+ * {@link PropertyNameBuilder#extractor(Class, PropertyPath...)}.
+ * <p>
+ * The values are read by a single generated class, which calls each getter shared by several paths only once per
+ * instance. They are written either into a row, which can be reused for all instances, or into columns holding the
+ * values of many instances, with primitive arrays for paths ending at primitive getters.
+ * <p>
+ * Each value is the one {@link PropertyAccessor#apply(Object)} of its path returns, except in primitive columns, which
+ * hold the default value of their type where a property along the path is <code>null</code>.
+ *
+ * @param <T> the type the paths start at
+ */
+public interface PropertyExtractor<T> {
+
+	/**
+	 * @return the extracted paths, in the order of the values in rows and of the columns
+	 */
+	List<PropertyPath> paths();
+
+	/**
+	 * @param t the instance to read the values from
+	 * @return a new row holding the value of each path
+	 */
+	default Object[] extract(T t) {
+		return extract(t, new Object[paths().size()]);
+	}
+
+	/**
+	 * @param t   the instance to read the values from
+	 * @param row the row to write the value of each path into, which is at least as long as the number of paths
+	 * @return the given row
+	 */
+	Object[] extract(T t, Object[] row);
+
+	/**
+	 * @param size the number of instances to hold values of
+	 * @return new columns for {@link #extract(Object, Object[], int)}, one per path, each being an array of the given
+	 *         size: a primitive array for paths ending at primitive getters, and an <code>Object[]</code> otherwise
+	 */
+	Object[] newColumns(int size);
+
+	/**
+	 * @param t       the instance to read the values from
+	 * @param columns the columns as returned by {@link #newColumns(int)}
+	 * @param index   the index in the columns to write the values to
+	 */
+	void extract(T t, Object[] columns, int index);
+
+	/**
+	 * @param ts the instances to read the values from
+	 * @return the columns holding the values of all given instances, in iteration order
+	 */
+	default Object[] extractColumns(Collection<? extends T> ts) {
+		Object[] columns = newColumns(ts.size());
+		int index = 0;
+		for (T t : ts)
+			extract(t, columns, index++);
+		return columns;
+	}
+}
@@ -0,0 +1,1932 @@
+package de.hbt.propertyname;
+
+import static org.objectweb.asm.Opcodes.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.time.temporal.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.Type;
+
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * Generate the name (as a {@link String}) of a class property or sequence of properties in a type-safe and
+ * refactoring-safe way.
+ * <p>
+ * Examples:
+ * 
+ * <pre>
+ * <code>
+ * assertThat(nameOf(Contract::getCustomer)).isEqualTo("customer");
+ * assertThat(name(of(Contract::getCustomer).getName())).isEqualTo("customer");
+ * assertThat(name(any(of(Contract::getProducts)).getPrice())).isEqualTo("products.price");
+ * </code>
+ * </pre>
+ * <p>
+ * See the documentation of the following methods:
+ * <ul>
+ * <li>{@link #name(Object)}
+ * <li>{@link #path(Object)}
+ * <li>{@link #nameOf(Getter)}
+ * <li>{@link #pathOf(Getter)}
+ * <li>{@link #pathOf(Class, Getter)}
+ * <li>{@link #of(Getter)}
+ * <li>{@link #any(Collection)}
+ * <li>{@link #accessor(Class, PropertyPath)}
+ * <li>{@link #extractor(Class, PropertyPath...)}
+ * </ul>
+ * <p>
+ * Method references and lambdas given directly to these methods are compiled to {@link Getter}s, whose getter is
+ * resolved via their {@link SerializedLambda}. The overloads taking a plain {@link Function} resolve it by inspecting
+ * the constant pool of the lambda class instead, which on Java 12 and later requires the JVM arguments
+ * <code>--add-opens java.base/java.lang=ALL-UNNAMED --add-opens java.base/jdk.internal.reflect=ALL-UNNAMED</code>.
+ */
+public class PropertyNameBuilder {
+
+	/**
+	 * Runtime support class containing methods called by the generated classes.
+	 */
+	public static class RT {
+		public static void appendName(String name) {
+			Recorder.add(name);
+		}
+
+		/**
+		 * Called by the static initializer of the helper classes defining proxies in other modules. Lookups of all
+		 * other classes are ignored.
+		 */
+		public static void hostLookup(MethodHandles.Lookup lookup) {
+			HostLookups.accept(lookup);
+		}
+
+		public static Object proxy(Class<?> clazz) {
+			return of(clazz);
+		}
+
+		public static Object newList(Class<?> clazz) {
+			return new Containers.ElementList<>(of(clazz));
+		}
+
+		public static Object newSet(Class<?> clazz) {
+			return new Containers.ElementSet<>(of(clazz));
+		}
+
+		public static Object newMap(Class<?> keyClass, Class<?> valueClass) {
+			return new Containers.ElementMap<>(keyClass == null ? null : of(keyClass),
+					valueClass == null ? null : of(valueClass));
+		}
+
+		public static Object newOptional(Class<?> clazz) {
+			return Optional.of(of(clazz));
+		}
+
+		public static Object newArray(Class<?> clazz) {
+			Object[] array = (Object[]) Array.newInstance(clazz, 1);
+			array[0] = of(clazz);
+			return array;
+		}
+
+		/*
+		 * The counterparts of the methods above called by the proxies of a PropertyNaming, with the id of the naming.
+		 */
+
+		public static Object proxy(Class<?> clazz, int naming) {
+			return of(PropertyNaming.byId(naming), clazz);
+		}
+
+		public static Object newList(Class<?> clazz, int naming) {
+			return new Containers.ElementList<>(of(PropertyNaming.byId(naming), clazz));
+		}
+
+		public static Object newSet(Class<?> clazz, int naming) {
+			return new Containers.ElementSet<>(of(PropertyNaming.byId(naming), clazz));
+		}
+
+		public static Object newMap(Class<?> keyClass, Class<?> valueClass, int naming) {
+			PropertyNaming n = PropertyNaming.byId(naming);
+			return new Containers.ElementMap<>(keyClass == null ? null : of(n, keyClass),
+					valueClass == null ? null : of(n, valueClass));
+		}
+
+		public static Object newOptional(Class<?> clazz, int naming) {
+			return Optional.of(of(PropertyNaming.byId(naming), clazz));
+		}
+
+		public static Object newArray(Class<?> clazz, int naming) {
+			Object[] array = (Object[]) Array.newInstance(clazz, 1);
+			array[0] = of(PropertyNaming.byId(naming), clazz);
+			return array;
+		}
+
+		public static String Object_toString(Object o) {
+			return o.getClass().getName() + "@" + Integer.toHexString(Object_hashCode(o));
+		}
+
+		public static boolean Object_equals(Object o1, Object o2) {
+			return o1 == o2;
+		}
+
+		public static int Object_hashCode(Object o) {
+			return System.identityHashCode(o);
+		}
+
+		public static Exception noGetterMethodCalledException(String name) {
+			return new UnsupportedOperationException("Non-getter method called: " + name);
+		}
+
+		/**
+		 * Bootstrap method of the <code>invokedynamic</code> instructions which the <code>propertyname-agent</code>
+		 * rewrites call sites like <code>nameOf(Contract::getCustomer)</code> and
+		 * <code>name(of(Contract::getCustomer).getName())</code> to, as well as their <code>pathOf()</code> and
+		 * <code>path()</code> counterparts. The path is determined once, when the call site is linked, and the call site
+		 * returns it as a constant from then on. When determining the path fails, each call of the call site throws a
+		 * new {@link PropertyNameException} caused by the failure at link time.
+		 * 
+		 * @param lookup                 the lookup of the class containing the call site
+		 * @param name                   not used
+		 * @param type                   the type of the call site, returning either {@link String} or
+		 *                               {@link PropertyPath}
+		 * @param implMethod             the method implementing the lambda or method reference given to
+		 *                               <code>nameOf()</code> or <code>of()</code>
+		 * @param instantiatedMethodType the type of the lambda, whose parameter is the type the path starts at
+		 * @param chain                  the getters (and {@link PropertyNameBuilder#any(Collection) any()}) called on
+		 *                               the result of <code>of()</code>
+		 * @return a call site returning the path as a constant
+		 */
+		public static CallSite constantPath(MethodHandles.Lookup lookup, String name, MethodType type,
+				MethodHandle implMethod, MethodType instantiatedMethodType, MethodHandle... chain) {
+			Object value;
+			try {
+				PropertyPath path = PropertyNameBuilder.constantPath(lookup, implMethod,
+						instantiatedMethodType.parameterType(0), chain);
+				value = type.returnType() == String.class && path != null ? path.toString() : path;
+			} catch (RuntimeException e) {
+				return new ConstantCallSite(unresolvedPath(type, e));
+			}
+			return new ConstantCallSite(MethodHandles.constant(type.returnType(), value));
+		}
+
+		/**
+		 * Implemented by the classes generated for {@link PropertyExtractor}s.
+		 */
+		public interface Extractor {
+			void extract(Object t, Object[] row);
+
+			void extract(Object t, Object[] columns, int index);
+		}
+	}
+
+	/**
+	 * Holds a lazily created proxy instance of a single class. It does not hold the naming of the proxy, which would
+	 * keep the naming alive as long as the proxied class.
+	 */
+	static final class Lazy {
+		private volatile Object value;
+
+		/**
+		 * @param naming the naming of the proxy, or <code>null</code> for the one of this class
+		 */
+		Object get(Class<?> clazz, PropertyNaming naming) {
+			Object v = value;
+			if (v != null) {
+				if (Metrics.ENABLED)
+					Metrics.proxyHits.increment();
+				return v;
+			}
+			synchronized (this) {
+				v = value;
+				if (v == null) {
+					if (Metrics.ENABLED)
+						Metrics.proxyMisses.increment();
+					v = createProxy(clazz, naming);
+					value = v;
+				} else if (Metrics.ENABLED) {
+					Metrics.proxyHits.increment();
+				}
+				return v;
+			}
+		}
+	}
+
+	/**
+	 * Holds the cached property path of a single lambda class.
+	 */
+	static final class NameHolder extends Caches.Entry {
+		private final ClassValue<NameHolder> cache;
+		private final boolean cacheable;
+		private volatile PropertyPath path;
+
+		NameHolder(Class<?> type, ClassValue<NameHolder> cache, boolean cacheable) {
+			super(type);
+			this.cache = cache;
+			this.cacheable = cacheable;
+		}
+
+		PropertyPath hit() {
+			PropertyPath p = path;
+			if (p != null) {
+				if (Metrics.ENABLED)
+					Metrics.nameHits.increment();
+				if (nameClock != null && !used)
+					used = true;
+			}
+			return p;
+		}
+
+		PropertyPath cache(PropertyPath path) {
+			this.path = path;
+			if (nameClock != null)
+				nameClock.admit(this);
+			return path;
+		}
+
+		@Override
+		void evict() {
+			path = null;
+			Class<?> t = type.get();
+			if (t != null)
+				cache.remove(t);
+		}
+	}
+
+	/**
+	 * The type a lambda class is applied to and the method implementing it.
+	 */
+	private static final class Resolution {
+		private final Class<?> receiver;
+		/**
+		 * The class declaring the implementation method, or <code>null</code> if it is not known
+		 */
+		private final Class<?> implClass;
+		/**
+		 * The name and descriptor of the implementation method
+		 */
+		private final String implMethod;
+
+		Resolution(Class<?> receiver, Class<?> implClass, String implMethod) {
+			this.receiver = receiver;
+			this.implClass = implClass;
+			this.implMethod = implMethod;
+		}
+	}
+
+	/**
+	 * Holds the {@link Resolution} of a {@link Getter} lambda class, resolved on first use.
+	 */
+	private static final class ReceiverHolder {
+		private volatile Resolution resolution;
+	}
+
+	/**
+	 * The lambda classes of the getters of a {@link PropertyNameBuilder#names(Getter...) names()} call and their paths.
+	 */
+	private static final class Batch {
+		static final Batch EMPTY = new Batch(new Class<?>[0], new PropertyPath[0]);
+
+		private final Class<?>[] types;
+		private final List<PropertyPath> paths;
+		private final String[] names;
+
+		Batch(Class<?>[] types, PropertyPath[] paths) {
+			this.types = types;
+			this.paths = Collections.unmodifiableList(Arrays.asList(paths));
+			this.names = new String[paths.length];
+			for (int i = 0; i < paths.length; i++)
+				names[i] = paths[i] == null ? null : paths[i].toString();
+		}
+
+		boolean matches(Function<?, ?>[] getters) {
+			if (getters.length != types.length)
+				return false;
+			for (int i = 0; i < getters.length; i++) {
+				if (getters[i].getClass() != types[i])
+					return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Holds the last {@link Batch} of non-capturing lambdas starting with a lambda class.
+	 */
+	private static final class BatchHolder {
+		private volatile Batch batch;
+	}
+
+	/**
+	 * Records the property name segments appended by the generated proxies since the last call to
+	 * {@link PropertyNameBuilder#name(Object) name()} in a per-thread list, which keeps its size, so that adding a
+	 * segment takes constant time.
+	 * <p>
+	 * Only references to the segments (which are constants of the generated classes) are recorded. The path is looked up
+	 * in {@link #path(PropertyPath)} in the tree of recorded {@link PropertyPath}s, so recording and reading a known
+	 * path does not allocate. The list is an {@link ArrayList} rather than an object of this library, so that the
+	 * threads of a pool, which are never asked to remove it, do not keep the class loader of the library alive.
+	 */
+	private static final class Recorder {
+		private Recorder() {
+		}
+
+		static void add(String segment) {
+			RECORDER.get().add(segment);
+		}
+
+		static PropertyPath path(PropertyPath root) {
+			ArrayList<String> segments = RECORDER.get();
+			int size = segments.size();
+			if (size == 0)
+				return null;
+			PropertyPath path = root;
+			for (int i = 0; i < size; i++)
+				path = path.recordedChild(segments.get(i));
+			segments.clear();
+			return path;
+		}
+	}
+
+	private static final MethodHandles.Lookup thisLookup = MethodHandles.lookup();
+	/**
+	 * <code>MethodHandles.Lookup.PRIVATE | MethodHandles.Lookup.MODULE</code> (the latter being absent in Java 8)
+	 */
+	private static final int FULL_PRIVILEGE_ACCESS = MethodHandles.Lookup.PRIVATE | 0x10;
+
+	private static final String RT_name = RT.class.getName().replace('.', '/');
+	/**
+	 * Proxy instances per proxied class. Reads are lock-free. Generation is single-flight per class: the first thread
+	 * generates the proxy while concurrent callers for the same class wait on the {@link Lazy} holder, and other classes
+	 * are generated in parallel.
+	 */
+	private static final ClassValue<Lazy> proxies = proxyCache();
+	private static final ClassValue<Resolution> resolved = new Caches.Cache<Resolution>() {
+		protected Resolution compute(Class<?> type) {
+			Metrics.Measurement measurement = Metrics.beginResolution();
+			Resolution resolution = resolve(type);
+			Metrics.endResolution(measurement, type, resolution.receiver, "ConstantPool");
+			return resolution;
+		}
+	};
+	/**
+	 * Receiver types of {@link Getter} lambda classes. Resolving them needs a lambda instance, so the holders are filled
+	 * on first use.
+	 */
+	private static final ClassValue<ReceiverHolder> resolvedGetters = new Caches.Cache<ReceiverHolder>() {
+		protected ReceiverHolder compute(Class<?> type) {
+			return new ReceiverHolder();
+		}
+	};
+	/**
+	 * Property names of {@link #nameOf(Getter)} and {@link #nameOf(Function)} per lambda class. Only non-capturing lambdas (which is what method
+	 * references of getters are) are cached, since for them the name does not depend on the lambda instance.
+	 */
+	private static final ClassValue<NameHolder> singleNameCache = nameCache();
+	/**
+	 * Property paths of non-capturing lambda classes per implementation method, keyed by the class declaring the method
+	 * and then by the name and descriptor of the method. The path only depends on the implementation method, so all
+	 * call sites of the same method reference (each of which has its own lambda class) share one entry, and the proxy
+	 * is only invoked for the first of them.
+	 */
+	private static final ClassValue<Map<String, PropertyPath>> implementationPaths = new Caches.Cache<Map<String, PropertyPath>>() {
+		protected Map<String, PropertyPath> compute(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+	/**
+	 * Batches of {@link #names(Getter...)} and {@link #paths(Getter...)} per lambda class of their first getter. All
+	 * lambda classes of a call site are declared by the class calling it, so the lambda classes of a batch share their
+	 * class loader and are only compared on each call instead of being looked up.
+	 */
+	private static final ClassValue<BatchHolder> batches = new Caches.Cache<BatchHolder>() {
+		protected BatchHolder compute(Class<?> type) {
+			return new BatchHolder();
+		}
+	};
+	/**
+	 * Paths of the path expressions of {@link #pathOf(Class, Getter)} and {@link #pathOf(Class, Function)} per lambda
+	 * class.
+	 */
+	private static final ClassValue<NameHolder> expressionPaths = new Caches.Cache<NameHolder>() {
+		protected NameHolder compute(Class<?> type) {
+			return new NameHolder(type, this, true);
+		}
+	};
+	/**
+	 * Bounds the number of lambda classes in {@link #singleNameCache} and {@link #expressionPaths} to the value of the
+	 * system property {@value Caches#NAME_CACHE_SIZE_PROPERTY}, or <code>null</code> if they are unbounded.
+	 */
+	private static final Caches.Clock nameClock = Caches.NAME_CACHE_SIZE > 0 ? new Caches.Clock(Caches.NAME_CACHE_SIZE)
+			: null;
+	/**
+	 * A subclass rather than <code>ThreadLocal.withInitial()</code>, which would bootstrap lambdas during the
+	 * initialization of this class.
+	 */
+	private static final ThreadLocal<ArrayList<String>> RECORDER = new ThreadLocal<ArrayList<String>>() {
+		@Override
+		protected ArrayList<String> initialValue() {
+			return new ArrayList<>(8);
+		}
+	};
+
+	/*
+	 * The JVM internals needed to generate proxies and to resolve lambdas are looked up in the following holder classes,
+	 * each of which is initialized on first use only. So using pregenerated proxies does not look up how to define
+	 * classes, and nothing but resolving plain Function lambdas looks up the ConstantPool.
+	 */
+
+	/**
+	 * <code>sun.misc.Unsafe</code>
+	 */
+	private static final class UnsafeAccess {
+		private static final Class<?> unsafeClass;
+		private static final Object unsafe;
+		/**
+		 * Why {@link #unsafe} is not available, or <code>null</code>
+		 */
+		private static final Throwable unavailable;
+
+		static {
+			Class<?> unsafeClass_ = null;
+			Object unsafe_ = null;
+			Throwable unavailable_ = null;
+			try {
+				unsafeClass_ = ClassLoader.getSystemClassLoader().loadClass("sun.misc.Unsafe");
+				Field theUnsafeField = unsafeClass_.getDeclaredField("theUnsafe");
+				theUnsafeField.setAccessible(true);
+				unsafe_ = theUnsafeField.get(null);
+			} catch (Exception e) {
+				unavailable_ = e;
+			}
+			unsafeClass = unsafeClass_;
+			unsafe = unsafe_;
+			unavailable = unavailable_;
+		}
+
+		static Object unsafe() {
+			if (unsafe == null)
+				throw new PropertyNameException("Cannot generate property names", unavailable);
+			return unsafe;
+		}
+
+		static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+			unsafe();
+			return unsafeClass.getDeclaredMethod(name, parameterTypes);
+		}
+
+		/**
+		 * @return the handle of the given method of Unsafe, bound to the Unsafe instance
+		 */
+		static MethodHandle bind(String name, MethodType type) throws ReflectiveOperationException {
+			Object u = unsafe();
+			MethodHandle mh = thisLookup.findVirtual(unsafeClass, name, type);
+			return mh.asType(mh.type().changeParameterType(0, Object.class)).bindTo(u);
+		}
+	}
+
+	/**
+	 * Instantiation of proxies without calling a constructor.
+	 */
+	private static final class Instantiation {
+		private static final MethodHandle Unsafe_allocateInstance;
+		private static final Throwable unavailable;
+
+		static {
+			MethodHandle Unsafe_allocateInstanceMH = null;
+			Throwable unavailable_ = null;
+			try {
+				Unsafe_allocateInstanceMH = UnsafeAccess.bind("allocateInstance",
+						MethodType.methodType(Object.class, Class.class));
+			} catch (Throwable e) {
+				unavailable_ = e;
+			}
+			Unsafe_allocateInstance = Unsafe_allocateInstanceMH;
+			unavailable = unavailable_;
+		}
+	}
+
+	/**
+	 * Definition of generated classes, preferably as hidden classes.
+	 */
+	private static final class ClassDefinition {
+		private static final MethodHandle Lookup_defineHiddenClass;
+		private static final MethodHandle Unsafe_defineAnonymousClass;
+		private static final MethodHandle ClassLoader_defineClass;
+		private static final MethodHandle Lookup_defineClass;
+		private static final MethodHandle MethodHandles_privateLookupIn;
+		/**
+		 * Why no way to define classes is available, or <code>null</code>
+		 */
+		private static final Throwable unavailable;
+
+		static {
+			MethodHandle Lookup_defineHiddenClassMH = null;
+			MethodHandle Unsafe_defineAnonymousClassMH = null;
+			MethodHandle ClassLoader_defineClassMH = null;
+			MethodHandle MethodHandles_privateLookupInMH = null;
+			MethodHandle Lookup_defineClassMH = null;
+			Throwable unavailable_ = null;
+			try {
+				Lookup_defineClassMH = thisLookup.findVirtual(MethodHandles.Lookup.class, "defineClass",
+						MethodType.methodType(Class.class, byte[].class));
+				MethodHandles_privateLookupInMH = thisLookup.findStatic(MethodHandles.class, "privateLookupIn",
+						MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class));
+			} catch (Exception e) {
+				/*
+				 * No Lookup.defineClass() or MethodHandles.privateLookupIn(). Probably Java 8 here. That's fine.
+				 */
+			}
+			try {
+				Class<?> classOptionClass = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+				Object noClassOptions = Array.newInstance(classOptionClass, 0);
+				MethodHandle mh = thisLookup.findVirtual(MethodHandles.Lookup.class, "defineHiddenClass",
+						MethodType.methodType(MethodHandles.Lookup.class, byte[].class, boolean.class,
+								noClassOptions.getClass()));
+				Lookup_defineHiddenClassMH = MethodHandles.insertArguments(mh, 2, true, noClassOptions);
+			} catch (Exception e) {
+				/*
+				 * No hidden classes before Java 15. That's fine.
+				 */
+			}
+			try {
+				if (Lookup_defineHiddenClassMH == null) {
+					/*
+					 * Unsafe.defineAnonymousClass() was removed in Java 17, but by then we have hidden classes.
+					 */
+					Unsafe_defineAnonymousClassMH = UnsafeAccess.bind("defineAnonymousClass",
+							MethodType.methodType(Class.class, Class.class, byte[].class, Object[].class));
+				}
+				if (Lookup_defineClassMH == null) {
+					Method defineClassM = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class,
+							int.class, int.class);
+					defineClassM.setAccessible(true);
+					ClassLoader_defineClassMH = thisLookup.unreflect(defineClassM);
+				}
+			} catch (Throwable e) {
+				unavailable_ = e;
+			}
+			Lookup_defineHiddenClass = Lookup_defineHiddenClassMH;
+			Unsafe_defineAnonymousClass = Unsafe_defineAnonymousClassMH;
+			ClassLoader_defineClass = ClassLoader_defineClassMH;
+			Lookup_defineClass = Lookup_defineClassMH;
+			MethodHandles_privateLookupIn = MethodHandles_privateLookupInMH;
+			unavailable = unavailable_;
+		}
+	}
+
+	/**
+	 * Access to the ConstantPool of classes, which is only needed to resolve plain {@link Function} lambdas.
+	 */
+	private static final class ConstantPoolAccess {
+		private static final MethodHandle Class_getConstantPoolMH;
+		private static final MethodHandle ConstantPool_getSizeMH;
+		private static final MethodHandle ConstantPool_getMethodAtMH;
+		private static final MethodHandle ConstantPool_getClassAtMH;
+		/**
+		 * Why the ConstantPool handles are not available, or <code>null</code>
+		 */
+		private static final Throwable unavailable;
+
+		static {
+			MethodHandle Class_getConstantPoolMH_ = null;
+			MethodHandle ConstantPool_getSizeMH_ = null;
+			MethodHandle ConstantPool_getMethodAtMH_ = null;
+			MethodHandle ConstantPool_getClassAtMH_ = null;
+			Throwable unavailable_ = null;
+			try {
+				Class<?> constantPoolClass;
+				try {
+					constantPoolClass = Class.forName("jdk.internal.reflect.ConstantPool");
+				} catch (ClassNotFoundException e) {
+					constantPoolClass = Class.forName("sun.reflect.ConstantPool");
+				}
+				Method Class_getConstantPool = Class.class.getDeclaredMethod("getConstantPool");
+				Method ConstantPool_getSize = constantPoolClass.getDeclaredMethod("getSize");
+				Method ConstantPool_getMethodAt = constantPoolClass.getDeclaredMethod("getMethodAt", int.class);
+				Method ConstantPool_getClassAt = constantPoolClass.getDeclaredMethod("getClassAt", int.class);
+				boolean isAtLeastJava12 = Double.valueOf(System.getProperty("java.class.version")) >= 56.0;
+				if (isAtLeastJava12) {
+					try {
+						Class_getConstantPool.setAccessible(true);
+						ConstantPool_getSize.setAccessible(true);
+						ConstantPool_getMethodAt.setAccessible(true);
+						ConstantPool_getClassAt.setAccessible(true);
+					} catch (Exception e) {
+						throw new PropertyNameException(
+								"When run under JDK12, please add the JVM arguments '--add-opens java.base/java.lang=ALL-UNNAMED --add-opens java.base/jdk.internal.reflect=ALL-UNNAMED'",
+								e);
+					}
+				} else {
+					Object unsafe = UnsafeAccess.unsafe();
+					Method Unsafe_objectFieldOffset = UnsafeAccess.method("objectFieldOffset", Field.class);
+					Method Unsafe_putBoolean = UnsafeAccess.method("putBoolean", Object.class, long.class,
+							boolean.class);
+					Field AccessibleObject_override = AccessibleObject.class.getDeclaredField("override");
+					long overrideOffset = (long) Unsafe_objectFieldOffset.invoke(unsafe, AccessibleObject_override);
+					Unsafe_putBoolean.invoke(unsafe, Class_getConstantPool, overrideOffset, true);
+					Unsafe_putBoolean.invoke(unsafe, ConstantPool_getSize, overrideOffset, true);
+					Unsafe_putBoolean.invoke(unsafe, ConstantPool_getMethodAt, overrideOffset, true);
+					Unsafe_putBoolean.invoke(unsafe, ConstantPool_getClassAt, overrideOffset, true);
+				}
+				Class_getConstantPoolMH_ = thisLookup.unreflect(Class_getConstantPool);
+				Class_getConstantPoolMH_ = Class_getConstantPoolMH_
+						.asType(Class_getConstantPoolMH_.type().changeReturnType(Object.class));
+				ConstantPool_getSizeMH_ = thisLookup.unreflect(ConstantPool_getSize);
+				ConstantPool_getSizeMH_ = ConstantPool_getSizeMH_
+						.asType(ConstantPool_getSizeMH_.type().changeParameterType(0, Object.class));
+				ConstantPool_getMethodAtMH_ = thisLookup.unreflect(ConstantPool_getMethodAt);
+				ConstantPool_getMethodAtMH_ = ConstantPool_getMethodAtMH_
+						.asType(ConstantPool_getMethodAtMH_.type().changeParameterType(0, Object.class));
+				ConstantPool_getClassAtMH_ = thisLookup.unreflect(ConstantPool_getClassAt);
+				ConstantPool_getClassAtMH_ = ConstantPool_getClassAtMH_
+						.asType(ConstantPool_getClassAtMH_.type().changeParameterType(0, Object.class));
+			} catch (Throwable e) {
+				/*
+				 * Only needed for plain Function lambdas. Getters are resolved without the constant pool.
+				 */
+				Class_getConstantPoolMH_ = null;
+				ConstantPool_getSizeMH_ = null;
+				ConstantPool_getMethodAtMH_ = null;
+				ConstantPool_getClassAtMH_ = null;
+				unavailable_ = e;
+			}
+			Class_getConstantPoolMH = Class_getConstantPoolMH_;
+			ConstantPool_getSizeMH = ConstantPool_getSizeMH_;
+			ConstantPool_getMethodAtMH = ConstantPool_getMethodAtMH_;
+			ConstantPool_getClassAtMH = ConstantPool_getClassAtMH_;
+			unavailable = unavailable_;
+		}
+	}
+
+	static <T> Class<T> defineClass(ClassLoader cl, Class<?> hostClass, String name, byte[] definition) {
+		if (ClassDefinition.unavailable != null)
+			throw new PropertyNameException("Cannot generate property names", ClassDefinition.unavailable);
+		try {
+			if (ClassDefinition.Lookup_defineHiddenClass != null && hostClass != null) {
+				/*
+				 * Hidden classes are not strongly referenced by their class loader and can be unloaded as soon as
+				 * the proxy is not referenced anymore.
+				 */
+				MethodHandles.Lookup hostLookup = fullPrivilegeLookup(hostClass);
+				return (Class<T>) ((MethodHandles.Lookup) ClassDefinition.Lookup_defineHiddenClass
+						.invokeExact(hostLookup, definition)).lookupClass();
+			}
+			if (ClassDefinition.Unsafe_defineAnonymousClass != null && hostClass != null) {
+				return (Class<T>) ClassDefinition.Unsafe_defineAnonymousClass.invokeExact(hostClass, definition,
+						(Object[]) null);
+			}
+			if (ClassDefinition.Lookup_defineClass != null && hostClass != null) {
+				MethodHandles.Lookup hostLookup = (MethodHandles.Lookup) ClassDefinition.MethodHandles_privateLookupIn
+						.invokeExact(hostClass, thisLookup);
+				return (Class<T>) ClassDefinition.Lookup_defineClass.invokeExact(hostLookup, definition);
+			}
+			return (Class<T>) ClassDefinition.ClassLoader_defineClass.invokeExact(cl, name.replace('/', '.'), definition,
+					0, definition.length);
+		} catch (Throwable e) {
+			throw new PropertyNameException("Could not define class in JVM: " + name, e);
+		}
+	}
+
+	/**
+	 * Define a class in the class loader and package of the given class, which unlike the hidden classes defined by
+	 * {@link #defineClass(ClassLoader, Class, String, byte[])} can be found by its name.
+	 */
+	static Class<?> defineNamedClass(Class<?> hostClass, String name, byte[] definition) {
+		if (ClassDefinition.unavailable != null)
+			throw new PropertyNameException("Cannot generate property names", ClassDefinition.unavailable);
+		try {
+			if (ClassDefinition.Lookup_defineClass != null) {
+				MethodHandles.Lookup hostLookup = (MethodHandles.Lookup) ClassDefinition.MethodHandles_privateLookupIn
+						.invokeExact(hostClass, thisLookup);
+				return (Class<?>) ClassDefinition.Lookup_defineClass.invokeExact(hostLookup, definition);
+			}
+			return (Class<?>) ClassDefinition.ClassLoader_defineClass.invokeExact(hostClass.getClassLoader(),
+					name.replace('/', '.'), definition, 0, definition.length);
+		} catch (Throwable e) {
+			throw new PropertyNameException("Could not define class in JVM: " + name, e);
+		}
+	}
+
+	/**
+	 * Obtain a lookup with full privilege access in the package of the given class, which is needed to define hidden
+	 * classes.
+	 * <p>
+	 * When the class is in another module than this class (such as the unnamed module of another class loader), the
+	 * lookup returned by <code>MethodHandles.privateLookupIn()</code> lacks module access. In that case a package-private
+	 * helper class without any members is defined once in the package of the class. Its static initializer hands its
+	 * own lookup to {@link RT#hostLookup(MethodHandles.Lookup)} while this method waits for it, so no other code can
+	 * obtain that lookup.
+	 */
+	private static MethodHandles.Lookup fullPrivilegeLookup(Class<?> hostClass) throws Throwable {
+		MethodHandles.Lookup lookup = (MethodHandles.Lookup) ClassDefinition.MethodHandles_privateLookupIn
+				.invokeExact(hostClass, thisLookup);
+		if ((lookup.lookupModes() & FULL_PRIVILEGE_ACCESS) == FULL_PRIVILEGE_ACCESS)
+			return lookup;
+		String hostName = hostClass.getName();
+		int lastDot = hostName.lastIndexOf('.');
+		String helperName = (lastDot < 0 ? "" : hostName.substring(0, lastDot + 1)) + "$$_PropertyNameLookup$"
+				+ Integer.toHexString(System.identityHashCode(PropertyNameBuilder.class));
+		synchronized (HostLookups.class) {
+			Class<?> helper;
+			try {
+				helper = Class.forName(helperName, false, hostClass.getClassLoader());
+			} catch (ClassNotFoundException e) {
+				helper = (Class<?>) ClassDefinition.Lookup_defineClass.invokeExact(lookup,
+						generateLookupHelper(helperName));
+			}
+			MethodHandles.Lookup[] helperLookup = HostLookups.lookups.get(helper);
+			if (helperLookup[0] == null) {
+				HostLookups.pending = helper;
+				try {
+					Class.forName(helperName, true, hostClass.getClassLoader());
+				} finally {
+					HostLookups.pending = null;
+				}
+			}
+			if (helperLookup[0] == null)
+				throw new PropertyNameException("No lookup in the package of " + hostName, null);
+			return helperLookup[0];
+		}
+	}
+
+	/**
+	 * The lookups handed out by the helper classes of {@link #fullPrivilegeLookup(Class)}, held by the helper classes
+	 * themselves. Guarded by this class.
+	 */
+	private static final class HostLookups {
+		private static final ClassValue<MethodHandles.Lookup[]> lookups = new ClassValue<MethodHandles.Lookup[]>() {
+			@Override
+			protected MethodHandles.Lookup[] computeValue(Class<?> type) {
+				return new MethodHandles.Lookup[1];
+			}
+		};
+		/**
+		 * The helper class being initialized
+		 */
+		private static Class<?> pending;
+
+		static synchronized void accept(MethodHandles.Lookup lookup) {
+			Class<?> helper = lookup.lookupClass();
+			if (helper == pending && (lookup.lookupModes() & FULL_PRIVILEGE_ACCESS) == FULL_PRIVILEGE_ACCESS)
+				lookups.get(helper)[0] = lookup;
+		}
+	}
+
+	private static byte[] generateLookupHelper(String helperName) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		String lookupDesc = Type.getDescriptor(MethodHandles.Lookup.class);
+		cw.visit(V1_8, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, helperName.replace('.', '/'), null, "java/lang/Object",
+				null);
+		MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		mv.visitMethodInsn(INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup", "()" + lookupDesc, false);
+		mv.visitMethodInsn(INVOKESTATIC, RT_name, "hostLookup", "(" + lookupDesc + ")V", false);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(-1, -1);
+		mv.visitEnd();
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	static boolean isGetter(Method m) {
+		Class<?> ret = m.getReturnType();
+		return (m.getName().startsWith("get") && ret != void.class && ret != Void.class
+						|| (m.getName().startsWith("is")
+								&& (m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class)))
+				&& m.getParameterCount() == 0 && m.getDeclaringClass() != Object.class;
+	}
+
+	static boolean canOverwrite(Method m) {
+		return !Modifier.isFinal(m.getModifiers()) && !Modifier.isStatic(m.getModifiers())
+				&& !Modifier.isPrivate(m.getModifiers()) && m.getDeclaringClass() != Object.class
+				&& (!m.getName().equals("equals") || m.getParameterCount() != 1 || m.getParameterTypes()[0] != Object.class)
+				&& (!m.getName().equals("toString") || m.getParameterCount() != 0)
+				&& (!m.getName().equals("hashCode") || m.getParameterCount() != 0);
+	}
+
+	static boolean canProxy(Class<?> clazz) {
+		return !clazz.isArray() && !clazz.isAnnotation() && !clazz.isPrimitive() && String.class != clazz
+				&& !clazz.isEnum() && !Temporal.class.isAssignableFrom(clazz) && !Date.class.isAssignableFrom(clazz)
+				&& !Number.class.isAssignableFrom(clazz) && !Boolean.class.isAssignableFrom(clazz)
+				&& !Collection.class.isAssignableFrom(clazz) && !Map.class.isAssignableFrom(clazz)
+				&& !Modifier.isFinal(clazz.getModifiers());
+	}
+
+	static String propertyName(Method m) {
+		if (m.getName().startsWith("get"))
+			return m.getName().substring(3, 4).toLowerCase() + m.getName().substring(4);
+		else if (m.getName().startsWith("is"))
+			return m.getName().substring(2, 3).toLowerCase() + m.getName().substring(3);
+		throw new IllegalArgumentException("Not a getter method: " + m);
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> Class<T> findNonProxyClass(Class<? extends T> clazz) {
+		if (clazz.getName().contains("_$$_") || clazz.getName().contains("$HibernateProxy$"))
+			return (Class<T>) findNonProxyClass(clazz.getSuperclass());
+		return (Class<T>) clazz;
+	}
+
+	static Class<?> collectionElementType(java.lang.reflect.Type t) {
+		if (t instanceof ParameterizedType) {
+			ParameterizedType pt = (ParameterizedType) t;
+			return (Class<?>) pt.getActualTypeArguments()[0];
+		}
+		throw new PropertyNameException("Unsupported collection element type: " + t, null);
+	}
+
+	/**
+	 * @return a new cache of proxies per proxied class
+	 */
+	static Caches.Cache<Lazy> proxyCache() {
+		return new Caches.Cache<Lazy>() {
+			protected Lazy compute(Class<?> type) {
+				return new Lazy();
+			}
+		};
+	}
+
+	/**
+	 * @return a new cache of the paths of lambda classes, which only caches non-capturing lambdas
+	 */
+	static Caches.Cache<NameHolder> nameCache() {
+		return new Caches.Cache<NameHolder>() {
+			protected NameHolder compute(Class<?> type) {
+				return new NameHolder(type, this, !hasCapturedArguments(type));
+			}
+		};
+	}
+
+	private static boolean hasCapturedArguments(Class<?> lambdaClass) {
+		for (Field f : lambdaClass.getDeclaredFields()) {
+			if (!Modifier.isStatic(f.getModifiers()))
+				return true;
+		}
+		return false;
+	}
+
+	private static <T, S extends T> Resolution resolve(Class<S> sub) {
+		if (ConstantPoolAccess.Class_getConstantPoolMH == null) {
+			throw new PropertyNameException("Cannot resolve " + sub + " without access to its ConstantPool, use a "
+					+ Getter.class.getName() + " instead", ConstantPoolAccess.unavailable);
+		}
+		Object constantPool;
+		try {
+			constantPool = ConstantPoolAccess.Class_getConstantPoolMH.invokeExact(sub);
+		} catch (Throwable e) {
+			throw new PropertyNameException("Could not get ConstantPool of " + sub, e);
+		}
+		Member member = null;
+		int cpSize = constantPoolSize(constantPool);
+		Class<?> mostSpecific = null;
+		Class<?> generatedMethodDeclaringClass = null;
+		Method implMethod = null;
+		for (int i = cpSize - 1; i >= 0; i--) {
+			try {
+				Member mem = (Member) ConstantPoolAccess.ConstantPool_getMethodAtMH.invokeExact(constantPool, i);
+				if ("valueOf".equals(mem.getName())) {
+					continue;
+				}
+				if (mem instanceof Method) {
+					Method method = (Method) mem;
+					if (method.getName().startsWith("lambda$")) {
+						generatedMethodDeclaringClass = method.getDeclaringClass();
+						implMethod = method;
+					}
+					if (method.getParameterCount() == 1) {
+						mostSpecific = method.getParameterTypes()[0];
+					}
+				}
+				if (member == null || member.getDeclaringClass().isAssignableFrom(mem.getDeclaringClass())) {
+					member = mem;
+				}
+			} catch (Throwable t) {
+			}
+		}
+		if (mostSpecific == null) {
+			if (member.getDeclaringClass().equals(Object.class)) {
+				throw new PropertyNameException("Methods declared by Object are unsupported: " + member, null);
+			} else if (Modifier.isFinal(member.getModifiers())) {
+				throw new PropertyNameException("Final methods are unsupported: " + member, null);
+			}
+			mostSpecific = member.getDeclaringClass();
+		}
+		for (int i = cpSize - 1; i >= 0; i--) {
+			try {
+				Class<?> clazz = (Class<?>) ConstantPoolAccess.ConstantPool_getClassAtMH.invokeExact(constantPool, i);
+				if (!clazz.equals(generatedMethodDeclaringClass) && mostSpecific.isAssignableFrom(clazz) && !mostSpecific.equals(clazz)) {
+					mostSpecific = clazz;
+					break;
+				}
+			} catch (Throwable t) {
+			}
+		}
+		if (Modifier.isFinal(mostSpecific.getModifiers())) {
+			throw new PropertyNameException("Final classes are unsupported: " + mostSpecific.getName(), null);
+		}
+		if (implMethod == null && member instanceof Method)
+			implMethod = (Method) member;
+		if (implMethod == null)
+			return new Resolution(mostSpecific, null, null);
+		return new Resolution(mostSpecific, implMethod.getDeclaringClass(),
+				implMethod.getName() + Type.getMethodDescriptor(implMethod));
+	}
+
+	/**
+	 * Resolve the type a {@link Getter} is applied to from the instantiated method type of its
+	 * {@link SerializedLambda}, and check the referenced method like {@link #resolve(Class)} does.
+	 */
+	private static Resolution resolve(Getter<?, ?> getter) {
+		SerializedLambda lambda = serializedLambda(getter);
+		ClassLoader cl = getter.getClass().getClassLoader();
+		Class<?> implClass = loadClass(Type.getObjectType(lambda.getImplClass()), cl);
+		int kind = lambda.getImplMethodKind();
+		if (kind == MethodHandleInfo.REF_invokeVirtual || kind == MethodHandleInfo.REF_invokeInterface
+				|| kind == MethodHandleInfo.REF_invokeSpecial) {
+			Method method = findMethod(implClass, lambda.getImplMethodName(), lambda.getImplMethodSignature());
+			if (method != null && method.getDeclaringClass() == Object.class) {
+				throw new PropertyNameException("Methods declared by Object are unsupported: " + method, null);
+			} else if (method != null && Modifier.isFinal(method.getModifiers())) {
+				throw new PropertyNameException("Final methods are unsupported: " + method, null);
+			}
+		}
+		Class<?> receiver = loadClass(Type.getArgumentTypes(lambda.getInstantiatedMethodType())[0], cl);
+		if (Modifier.isFinal(receiver.getModifiers())) {
+			throw new PropertyNameException("Final classes are unsupported: " + receiver.getName(), null);
+		}
+		return new Resolution(receiver, implClass, lambda.getImplMethodName() + lambda.getImplMethodSignature());
+	}
+
+	private static SerializedLambda serializedLambda(Getter<?, ?> getter) {
+		try {
+			Method writeReplace = getter.getClass().getDeclaredMethod("writeReplace");
+			writeReplace.setAccessible(true);
+			return (SerializedLambda) writeReplace.invoke(getter);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			throw new PropertyNameException("Not a lambda or method reference: " + getter.getClass(), e);
+		}
+	}
+
+	private static Class<?> loadClass(Type type, ClassLoader cl) {
+		if (type.getSort() != Type.OBJECT)
+			throw new PropertyNameException("Cannot proxy " + type.getClassName(), null);
+		try {
+			return Class.forName(type.getClassName(), false, cl);
+		} catch (ClassNotFoundException e) {
+			throw new PropertyNameException("Could not load " + type.getClassName(), e);
+		}
+	}
+
+	static Method findMethod(Class<?> clazz, String name, String descriptor) {
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (Method m : c.getDeclaredMethods()) {
+				if (m.getName().equals(name) && Type.getMethodDescriptor(m).equals(descriptor))
+					return m;
+			}
+		}
+		for (Class<?> i : clazz.getInterfaces()) {
+			Method m = findMethod(i, name, descriptor);
+			if (m != null)
+				return m;
+		}
+		return null;
+	}
+
+	private static Resolution resolutionOf(Getter<?, ?> getter) {
+		if (Metrics.ENABLED)
+			Metrics.resolutionLookups.increment();
+		ReceiverHolder holder = resolvedGetters.get(getter.getClass());
+		Resolution resolution = holder.resolution;
+		if (resolution == null) {
+			Metrics.Measurement measurement = Metrics.beginResolution();
+			resolution = resolve(getter);
+			Metrics.endResolution(measurement, getter.getClass(), resolution.receiver, "SerializedLambda");
+			holder.resolution = resolution;
+		}
+		return resolution;
+	}
+
+	/**
+	 * @return the class the given getter is applied to
+	 */
+	static Class<?> receiverOf(Getter<?, ?> getter) {
+		return resolutionOf(getter).receiver;
+	}
+
+	/**
+	 * @return the method implementing the given getter, or <code>null</code> if it cannot be found
+	 */
+	static Method implementationOf(Getter<?, ?> getter) {
+		SerializedLambda lambda = serializedLambda(getter);
+		Class<?> implClass = loadClass(Type.getObjectType(lambda.getImplClass()), getter.getClass().getClassLoader());
+		return findMethod(implClass, lambda.getImplMethodName(), lambda.getImplMethodSignature());
+	}
+
+	private static int constantPoolSize(Object constantPool) {
+		try {
+			return (int) ConstantPoolAccess.ConstantPool_getSizeMH.invokeExact(constantPool);
+		} catch (Throwable t) {
+			throw new PropertyNameException("Cannot get ConstantPool size of " + constantPool, t);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T of(Class<T> clazz) {
+		if (!canProxy(clazz))
+			throw new PropertyNameException("Cannot proxy " + clazz, null);
+		return (T) proxies.get(clazz).get(clazz, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T of(PropertyNaming naming, Class<T> clazz) {
+		if (!canProxy(clazz))
+			throw new PropertyNameException("Cannot proxy " + clazz, null);
+		return (T) naming.proxies.get(clazz).get(clazz, naming);
+	}
+
+	/**
+	 * @see PropertyNaming#of(Getter)
+	 */
+	static <T, R> R of(PropertyNaming naming, Getter<? super T, R> property) {
+		@SuppressWarnings("unchecked")
+		T t = (T) of(naming, resolutionOf(property).receiver);
+		return property.apply(t);
+	}
+
+	/**
+	 * To be used in conjunction with {@link #name(Object) name()} like so:
+	 * <code>name(of(Contract::getCustomer).getLegalName())</code>
+	 * <p>
+	 * This scheme can be used when selecting multiple properties in a row.
+	 * 
+	 * @see #name(Object)
+	 * 
+	 * @param          <T> type of the property owner
+	 * @param          <R> type of the property
+	 * @param property a method reference of a getter method
+	 * @return the object returned by the getter call on a generated proxy
+	 */
+	public static <T, R> R of(Getter<? super T, R> property) {
+		@SuppressWarnings("unchecked")
+		T t = (T) of(resolutionOf(property).receiver);
+		return property.apply(t);
+	}
+
+	/**
+	 * Like {@link #of(Getter)}, but for a plain {@link Function}, which is resolved via the constant pool of its class.
+	 * 
+	 * @param          <T> type of the property owner
+	 * @param          <R> type of the property
+	 * @param property a method reference of a getter method
+	 * @return the object returned by the getter call on a generated proxy
+	 */
+	public static <T, R> R of(Function<? super T, R> property) {
+		if (Metrics.ENABLED)
+			Metrics.resolutionLookups.increment();
+		@SuppressWarnings("unchecked")
+		T t = (T) of(resolved.get(property.getClass()).receiver);
+		return property.apply(t);
+	}
+
+	/**
+	 * To be used in conjunction with {@link #name(Object) name()} and {@link #of(Getter) of()} where the last
+	 * navigated property is a collection, like so: <code>name(any(of(Contract::getPositions)).getProduct())</code>
+	 * <p>
+	 * This method must be used when selecting through collections, wrapping each navigated collection in an
+	 * {@link #any(Collection)} call.
+	 *
+	 * @see #name(Object)
+	 * @see #of(Getter)
+	 *
+	 * @param      <T> type of the collection element
+	 * @param coll the collection property
+	 * @return a proxy for the collection element
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T any(Collection<T> coll) {
+		if (coll instanceof Containers.Container)
+			return (T) ((Containers.Container) coll).element();
+		if (coll instanceof List)
+			return ((List<T>) coll).get(0);
+		return coll.iterator().next();
+	}
+
+	/**
+	 * Like {@link #any(Collection)}, but for the keys of a map, like so:
+	 * <code>name(anyKey(of(Contract::getPricesByProduct)).getName())</code>
+	 * 
+	 * @param     <K> type of the keys
+	 * @param map the map property
+	 * @return a proxy for the key, or <code>null</code> if the key type cannot be proxied
+	 */
+	public static <K> K anyKey(Map<K, ?> map) {
+		if (map instanceof Containers.ElementMap)
+			return ((Containers.ElementMap<K, ?>) map).key();
+		return map.keySet().iterator().next();
+	}
+
+	/**
+	 * Like {@link #any(Collection)}, but for the values of a map, like so:
+	 * <code>name(anyValue(of(Contract::getPricesByProduct)).getAmount())</code>
+	 * 
+	 * @param     <V> type of the values
+	 * @param map the map property
+	 * @return a proxy for the value, or <code>null</code> if the value type cannot be proxied
+	 */
+	public static <V> V anyValue(Map<?, V> map) {
+		if (map instanceof Containers.ElementMap)
+			return ((Containers.ElementMap<?, V>) map).value();
+		return map.values().iterator().next();
+	}
+
+	/**
+	 * Like {@link #any(Collection)}, but for an optional property, like so:
+	 * <code>name(anyElement(of(Contract::getGuarantor)).getName())</code>
+	 * 
+	 * @param          <T> type of the element
+	 * @param optional the optional property
+	 * @return a proxy for the element
+	 */
+	public static <T> T anyElement(Optional<T> optional) {
+		return optional.get();
+	}
+
+	/**
+	 * Like {@link #any(Collection)}, but for an array property, like so:
+	 * <code>name(anyElement(of(Contract::getSignatories)).getName())</code>
+	 * 
+	 * @param       <T> type of the components
+	 * @param array the array property
+	 * @return a proxy for the component
+	 */
+	public static <T> T anyElement(T[] array) {
+		return array[0];
+	}
+
+	/**
+	 * To be used in conjunction with {@link #of(Function) of()} like so:
+	 * <code>name(of(Contract::getCustomer).getLegalName())</code>
+	 * <p>
+	 * This scheme is used when selecting multiple properties in a row. When only selecting a single top-level property,
+	 * {@link #nameOf(Getter)} should be used like so: <code>nameOf(Contract::getCustomer)</code>.
+	 * 
+	 * @see #of(Getter)
+	 * @see #nameOf(Getter)
+	 * 
+	 * @param obj the return value of a getter call to return the property name of
+	 * @return the name of the selected properties
+	 */
+	public static String name(Object obj) {
+		PropertyPath path = Recorder.path(PropertyPath.EMPTY);
+		return path == null ? null : path.toString();
+	}
+
+	/**
+	 * Like {@link #name(Object)}, but returning the selected properties as a {@link PropertyPath}, like so:
+	 * <code>path(of(Contract::getCustomer).getLegalName())</code>
+	 * 
+	 * @param obj the return value of a getter call to return the property path of
+	 * @return the path of the selected properties
+	 */
+	public static PropertyPath path(Object obj) {
+		return Recorder.path(PropertyPath.EMPTY);
+	}
+
+	/**
+	 * @return the path recorded by the proxies of the given naming, in its style
+	 */
+	static PropertyPath recordedPath(PropertyNaming naming) {
+		return Recorder.path(naming.style.root);
+	}
+
+	/**
+	 * @return a method handle of the given type throwing a new {@link PropertyNameException} caused by the given
+	 *         failure on each call
+	 */
+	private static MethodHandle unresolvedPath(MethodType type, RuntimeException failure) {
+		String message = failure instanceof PropertyNameException ? failure.getMessage() : failure.toString();
+		try {
+			MethodHandle thrower = thisLookup.findStatic(PropertyNameBuilder.class, "throwUnresolvedPath",
+					MethodType.methodType(Object.class, String.class, RuntimeException.class));
+			return MethodHandles.insertArguments(thrower, 0, message, failure).asType(type);
+		} catch (ReflectiveOperationException e) {
+			throw new PropertyNameException("Could not link call site throwing " + message, e);
+		}
+	}
+
+	private static Object throwUnresolvedPath(String message, RuntimeException failure) {
+		throw new PropertyNameException(message, failure);
+	}
+
+	/**
+	 * Determine the path of a rewritten call site for {@link RT#constantPath}, checking the referenced method like
+	 * {@link #resolve(Getter)} does. The path is recorded by a recorder of its own, so that the call site does not
+	 * capture segments recorded by an unfinished expression of the current thread.
+	 */
+	private static PropertyPath constantPath(MethodHandles.Lookup lookup, MethodHandle implMethod, Class<?> receiver,
+			MethodHandle[] chain) {
+		MethodHandleInfo info = lookup.revealDirect(implMethod);
+		if (info.getReferenceKind() == MethodHandleInfo.REF_invokeVirtual
+				|| info.getReferenceKind() == MethodHandleInfo.REF_invokeInterface) {
+			Method method = info.reflectAs(Method.class, lookup);
+			if (method.getDeclaringClass() == Object.class) {
+				throw new PropertyNameException("Methods declared by Object are unsupported: " + method, null);
+			} else if (Modifier.isFinal(method.getModifiers())) {
+				throw new PropertyNameException("Final methods are unsupported: " + method, null);
+			}
+		}
+		if (Modifier.isFinal(receiver.getModifiers()))
+			throw new PropertyNameException("Final classes are unsupported: " + receiver.getName(), null);
+		ArrayList<String> recorded = RECORDER.get();
+		RECORDER.set(new ArrayList<>(8));
+		try {
+			Object value = implMethod.invoke(of(receiver));
+			for (MethodHandle getter : chain)
+				value = getter.invoke(value);
+			return path(value);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new PropertyNameException("Could not determine the path of " + info, t);
+		} finally {
+			RECORDER.set(recorded);
+		}
+	}
+
+	/**
+	 * Given a method reference of a getter method, such as via <code>nameOf(Contract::getCustomer)</code>, this method
+	 * returns the property name of the referenced getter (in this case "customer").
+	 * 
+	 * @param        <T> type of the property owner
+	 * @param getter a method reference of a getter method
+	 * @return the name of the selected property
+	 */
+	public static <T> String nameOf(Getter<? super T, ?> getter) {
+		PropertyPath path = pathOf(getter);
+		return path == null ? null : path.toString();
+	}
+
+	/**
+	 * Like {@link #nameOf(Getter)}, but returning the property as a {@link PropertyPath}.
+	 * 
+	 * @param        <T> type of the property owner
+	 * @param getter a method reference of a getter method
+	 * @return the path of the selected property
+	 */
+	public static <T> PropertyPath pathOf(Getter<? super T, ?> getter) {
+		NameHolder holder = singleNameCache.get(getter.getClass());
+		PropertyPath path = holder.hit();
+		if (path != null)
+			return path;
+		return pathOf(holder, getter, resolutionOf(getter), null);
+	}
+
+	/**
+	 * @see PropertyNaming#pathOf(Getter)
+	 */
+	@SuppressWarnings("unchecked")
+	static PropertyPath pathOf(PropertyNaming naming, Getter<?, ?> getter) {
+		NameHolder holder = naming.names.get(getter.getClass());
+		PropertyPath path = holder.hit();
+		if (path != null)
+			return path;
+		if (Metrics.ENABLED)
+			Metrics.nameMisses.increment();
+		((Getter<Object, ?>) getter).apply(of(naming, resolutionOf(getter).receiver));
+		path = recordedPath(naming);
+		return holder.cacheable && path != null ? holder.cache(path) : path;
+	}
+
+	/**
+	 * Like {@link #nameOf(Getter)}, but for a plain {@link Function}, which is resolved via the constant pool of its
+	 * class.
+	 * 
+	 * @param        <T> type of the property owner
+	 * @param getter a method reference of a getter method
+	 * @return the name of the selected property
+	 */
+	public static <T> String nameOf(Function<? super T, ?> getter) {
+		PropertyPath path = pathOf(getter);
+		return path == null ? null : path.toString();
+	}
+
+	/**
+	 * Like {@link #pathOf(Getter)}, but for a plain {@link Function}, which is resolved via the constant pool of its
+	 * class.
+	 * 
+	 * @param        <T> type of the property owner
+	 * @param getter a method reference of a getter method
+	 * @return the path of the selected property
+	 */
+	public static <T> PropertyPath pathOf(Function<? super T, ?> getter) {
+		NameHolder holder = singleNameCache.get(getter.getClass());
+		PropertyPath path = holder.hit();
+		if (path != null)
+			return path;
+		if (Metrics.ENABLED)
+			Metrics.resolutionLookups.increment();
+		return pathOf(holder, getter, resolved.get(getter.getClass()), null);
+	}
+
+	/**
+	 * Like {@link #nameOf(Getter)}, but for several getters at once, like so:
+	 * <code>names(Contract::getVersion, Contract::getCustomer, Contract::getPositions)</code>
+	 * <p>
+	 * The names of non-capturing lambdas are cached per call site, so that repeated calls look them up at once instead
+	 * of one by one. On the first call, the names not cached yet are recorded in one pass with the same proxy, as long
+	 * as the getters are applied to the same type.
+	 * 
+	 * @param         <T> type of the property owner
+	 * @param getters method references of getter methods
+	 * @return the names of the selected properties, in the order of the getters
+	 */
+	@SafeVarargs
+	public static <T> String[] names(Getter<? super T, ?>... getters) {
+		return batch(getters, true).names.clone();
+	}
+
+	/**
+	 * Like {@link #names(Getter...)}, but returning the properties as {@link PropertyPath}s.
+	 * 
+	 * @param         <T> type of the property owner
+	 * @param getters method references of getter methods
+	 * @return the unmodifiable list of the paths of the selected properties, in the order of the getters
+	 */
+	@SafeVarargs
+	public static <T> List<PropertyPath> paths(Getter<? super T, ?>... getters) {
+		return batch(getters, true).paths;
+	}
+
+	/**
+	 * Like {@link #names(Getter...)}, but for plain {@link Function}s, which are resolved via the constant pool of
+	 * their classes.
+	 * 
+	 * @param         <T> type of the property owner
+	 * @param getters method references of getter methods
+	 * @return the names of the selected properties, in the order of the getters
+	 */
+	@SafeVarargs
+	public static <T> String[] names(Function<? super T, ?>... getters) {
+		return batch(getters, false).names.clone();
+	}
+
+	/**
+	 * Like {@link #paths(Getter...)}, but for plain {@link Function}s, which are resolved via the constant pool of
+	 * their classes.
+	 * 
+	 * @param         <T> type of the property owner
+	 * @param getters method references of getter methods
+	 * @return the unmodifiable list of the paths of the selected properties, in the order of the getters
+	 */
+	@SafeVarargs
+	public static <T> List<PropertyPath> paths(Function<? super T, ?>... getters) {
+		return batch(getters, false).paths;
+	}
+
+	private static Batch batch(Function<?, ?>[] getters, boolean serializable) {
+		if (getters.length == 0)
+			return Batch.EMPTY;
+		BatchHolder holder = batches.get(getters[0].getClass());
+		Batch batch = holder.batch;
+		if (batch != null && batch.matches(getters)) {
+			if (Metrics.ENABLED)
+				Metrics.nameHits.add(getters.length);
+			return batch;
+		}
+		Class<?>[] types = new Class<?>[getters.length];
+		PropertyPath[] paths = new PropertyPath[getters.length];
+		boolean cacheable = true;
+		Class<?> receiver = null;
+		Object proxy = null;
+		for (int i = 0; i < getters.length; i++) {
+			Function<?, ?> getter = getters[i];
+			NameHolder nameHolder = singleNameCache.get(getter.getClass());
+			PropertyPath path = nameHolder.hit();
+			if (path == null) {
+				Resolution resolution;
+				if (serializable) {
+					resolution = resolutionOf((Getter<?, ?>) getter);
+				} else {
+					if (Metrics.ENABLED)
+						Metrics.resolutionLookups.increment();
+					resolution = resolved.get(getter.getClass());
+				}
+				if (resolution.receiver != receiver) {
+					receiver = resolution.receiver;
+					proxy = of(receiver);
+				}
+				path = pathOf(nameHolder, getter, resolution, proxy);
+			}
+			types[i] = getter.getClass();
+			paths[i] = path;
+			cacheable &= nameHolder.cacheable && path != null;
+		}
+		batch = new Batch(types, paths);
+		if (cacheable)
+			holder.batch = batch;
+		return batch;
+	}
+
+	/**
+	 * Look up the path of a lambda class not cached in its holder yet, calling the getter on the given proxy of the
+	 * receiver type (or on the proxy looked up if <code>null</code>) if the path of its implementation method is not
+	 * known either.
+	 */
+	@SuppressWarnings("unchecked")
+	private static PropertyPath pathOf(NameHolder holder, Function<?, ?> getter, Resolution resolution,
+			Object proxy) {
+		Map<String, PropertyPath> paths = holder.cacheable && resolution.implClass != null
+				? implementationPaths.get(resolution.implClass)
+				: null;
+		PropertyPath path = paths != null ? paths.get(resolution.implMethod) : null;
+		if (path != null) {
+			if (Metrics.ENABLED)
+				Metrics.nameHits.increment();
+			return holder.cache(path);
+		}
+		if (Metrics.ENABLED)
+			Metrics.nameMisses.increment();
+		if (proxy == null)
+			proxy = of(resolution.receiver);
+		path = path(((Function<Object, ?>) getter).apply(proxy));
+		if (holder.cacheable && path != null) {
+			holder.cache(path);
+			if (paths != null)
+				paths.putIfAbsent(resolution.implMethod, path);
+		}
+		return path;
+	}
+
+	/**
+	 * Return the path of a path expression consisting of a chain of getter calls, like so:
+	 * <code>pathOf(Contract.class, c -&gt; any(c.getPositions()).getProduct())</code>
+	 * <p>
+	 * Unlike <code>path(of(...))</code>, the path is determined from the bytecode of the expression without calling
+	 * it, so no proxies are created and no state is passed between calls via the current thread. This makes it
+	 * suitable for virtual threads and for reactive code, which may continue on another thread. The path is cached
+	 * per lambda class.
+	 * 
+	 * @param            <T> type of the object the expression is applied to
+	 * @param type       the type of the object the expression is applied to
+	 * @param expression a non-capturing lambda calling a chain of getters on its parameter, or a method reference of a
+	 *                   getter
+	 * @return the path of the getters called by the expression
+	 */
+	public static <T> PropertyPath pathOf(Class<T> type, Getter<? super T, ?> expression) {
+		NameHolder holder = expressionPaths.get(expression.getClass());
+		PropertyPath path = holder.hit();
+		if (path != null)
+			return path;
+		if (Metrics.ENABLED)
+			Metrics.nameMisses.increment();
+		SerializedLambda lambda = serializedLambda(expression);
+		if (lambda.getCapturedArgCount() > 0)
+			throw new PropertyNameException("Path expressions on " + type.getName() + " must not capture any values: "
+					+ lambda.getImplMethodName(), null);
+		Class<?> implClass = loadClass(Type.getObjectType(lambda.getImplClass()),
+				expression.getClass().getClassLoader());
+		path = PathExpressions.path(implClass, lambda.getImplMethodName(), lambda.getImplMethodSignature());
+		return holder.cache(path);
+	}
+
+	/**
+	 * Like {@link #pathOf(Class, Getter)}, but for a plain {@link Function}, which is resolved via the constant pool of
+	 * its class.
+	 * 
+	 * @param            <T> type of the object the expression is applied to
+	 * @param type       the type of the object the expression is applied to
+	 * @param expression a non-capturing lambda calling a chain of getters on its parameter, or a method reference of a
+	 *                   getter
+	 * @return the path of the getters called by the expression
+	 */
+	public static <T> PropertyPath pathOf(Class<T> type, Function<? super T, ?> expression) {
+		NameHolder holder = expressionPaths.get(expression.getClass());
+		PropertyPath path = holder.hit();
+		if (path != null)
+			return path;
+		if (Metrics.ENABLED)
+			Metrics.nameMisses.increment();
+		if (hasCapturedArguments(expression.getClass()))
+			throw new PropertyNameException("Path expressions on " + type.getName() + " must not capture any values: "
+					+ expression.getClass().getName(), null);
+		Resolution resolution = resolved.get(expression.getClass());
+		if (resolution.implClass == null)
+			throw new PropertyNameException("Could not resolve the method of " + expression.getClass(), null);
+		int descriptorStart = resolution.implMethod.indexOf('(');
+		path = PathExpressions.path(resolution.implClass, resolution.implMethod.substring(0, descriptorStart),
+				resolution.implMethod.substring(descriptorStart));
+		return holder.cache(path);
+	}
+
+	/**
+	 * Like {@link #pathOf(Class, Getter)}, but returning the path as a dotted string.
+	 * 
+	 * @param            <T> type of the object the expression is applied to
+	 * @param type       the type of the object the expression is applied to
+	 * @param expression a non-capturing lambda calling a chain of getters on its parameter, or a method reference of a
+	 *                   getter
+	 * @return the name of the getters called by the expression
+	 */
+	public static <T> String nameOf(Class<T> type, Getter<? super T, ?> expression) {
+		return pathOf(type, expression).toString();
+	}
+
+	/**
+	 * Like {@link #pathOf(Class, Function)}, but returning the path as a dotted string.
+	 * 
+	 * @param            <T> type of the object the expression is applied to
+	 * @param type       the type of the object the expression is applied to
+	 * @param expression a non-capturing lambda calling a chain of getters on its parameter, or a method reference of a
+	 *                   getter
+	 * @return the name of the getters called by the expression
+	 */
+	public static <T> String nameOf(Class<T> type, Function<? super T, ?> expression) {
+		return pathOf(type, expression).toString();
+	}
+
+	/**
+	 * Return an accessor reading the value of the given path from instances of the given class via a generated class,
+	 * which calls the getters along the path directly, like so:
+	 * <code>accessor(Contract.class, path(any(of(Contract::getPositions)).getProduct())).apply(contract)</code>
+	 * <p>
+	 * Where the path navigates through a collection, map, optional or array, the accessor returns the values of all of
+	 * its elements as a list.
+	 * All getters along the path must be accessible from the package of the given class.
+	 * 
+	 * @param      <T> the type the path starts at
+	 * @param type the class the path starts at
+	 * @param path the path to read
+	 * @return the (cached) accessor of the path
+	 */
+	public static <T> PropertyAccessor<T> accessor(Class<T> type, PropertyPath path) {
+		return AccessorGenerator.accessor(type, path);
+	}
+
+	/**
+	 * Like {@link #accessor(Class, PropertyPath)}, but for a dotted property path, such as
+	 * <code>positions.product</code>.
+	 * 
+	 * @param      <T> the type the path starts at
+	 * @param type the class the path starts at
+	 * @param name the dotted property path to read
+	 * @return the (cached) accessor of the path
+	 */
+	public static <T> PropertyAccessor<T> accessor(Class<T> type, String name) {
+		return AccessorGenerator.accessor(type, PropertyPath.parse(name));
+	}
+
+	/**
+	 * Return an extractor reading the values of all given paths from instances of the given class at once via a
+	 * generated class, which calls each getter shared by several paths only once per instance, like so:
+	 * <code>extractor(Contract.class, path(of(Contract::getCustomer).getName()), pathOf(Contract::getPrice))</code>
+	 * <p>
+	 * The values of each path are the same as the ones of {@link #accessor(Class, PropertyPath)}.
+	 * 
+	 * @param       <T> the type the paths start at
+	 * @param type  the class the paths start at
+	 * @param paths the paths to read
+	 * @return the (cached) extractor of the paths
+	 */
+	public static <T> PropertyExtractor<T> extractor(Class<T> type, PropertyPath... paths) {
+		return ExtractorGenerator.extractor(type, Collections.unmodifiableList(Arrays.asList(paths.clone())));
+	}
+
+	/**
+	 * Like {@link #extractor(Class, PropertyPath...)}, but for dotted property paths, such as
+	 * <code>customer.name</code>.
+	 * 
+	 * @param       <T> the type the paths start at
+	 * @param type  the class the paths start at
+	 * @param names the dotted property paths to read
+	 * @return the (cached) extractor of the paths
+	 */
+	public static <T> PropertyExtractor<T> extractor(Class<T> type, String... names) {
+		PropertyPath[] paths = new PropertyPath[names.length];
+		for (int i = 0; i < names.length; i++)
+			paths[i] = PropertyPath.parse(names[i]);
+		return extractor(type, paths);
+	}
+
+	/**
+	 * Generate the proxies of the given classes and of all classes reachable from them via getters (including the
+	 * element types of collections) in the background on the {@link ForkJoinPool#commonPool() common pool}, so that
+	 * navigating into these classes later does not have to generate them.
+	 * 
+	 * @param roots the classes to start from
+	 * @return a future completed when all proxies have been generated, or completed exceptionally when a proxy could not
+	 *         be generated
+	 */
+	public static CompletableFuture<Void> preload(Class<?>... roots) {
+		return preload(ForkJoinPool.commonPool(), roots);
+	}
+
+	/**
+	 * Like {@link #preload(Class...)}, but generating the proxies on the given pool.
+	 * 
+	 * @param pool  the pool to generate the proxies on
+	 * @param roots the classes to start from
+	 * @return a future completed when all proxies have been generated
+	 */
+	public static CompletableFuture<Void> preload(ForkJoinPool pool, Class<?>... roots) {
+		List<Class<?>> rootList = Arrays.asList(roots.clone());
+		return Preloader.preload(pool, () -> rootList);
+	}
+
+	/**
+	 * Like {@link #preload(Class...)}, starting from all classes in the given package and its subpackages that can be
+	 * proxied. The package is scanned in the background as well.
+	 * 
+	 * @param cl          the class loader to find and load the classes of the package with
+	 * @param packageName the name of the package, such as <code>com.example.domain</code>
+	 * @return a future completed when all proxies have been generated
+	 */
+	public static CompletableFuture<Void> preload(ClassLoader cl, String packageName) {
+		return preload(ForkJoinPool.commonPool(), cl, packageName);
+	}
+
+	/**
+	 * Like {@link #preload(ClassLoader, String)}, but scanning the package and generating the proxies on the given pool.
+	 * 
+	 * @param pool        the pool to generate the proxies on
+	 * @param cl          the class loader to find and load the classes of the package with
+	 * @param packageName the name of the package, such as <code>com.example.domain</code>
+	 * @return a future completed when all proxies have been generated
+	 */
+	public static CompletableFuture<Void> preload(ForkJoinPool pool, ClassLoader cl, String packageName) {
+		return Preloader.preload(pool, () -> Preloader.classesInPackage(cl, packageName));
+	}
+
+	/**
+	 * Remove everything cached for classes loaded by the given class loader, such as proxies, accessors and the names of
+	 * lambdas, for example when undeploying the application that class loader belongs to.
+	 * <p>
+	 * This is not needed to let the class loader be garbage collected, since the cached values are held by the classes
+	 * they belong to, but frees them right away.
+	 * 
+	 * @param cl the class loader whose classes to remove the cached values of
+	 */
+	public static void evict(ClassLoader cl) {
+		Caches.evict(cl);
+	}
+
+	/**
+	 * Remove everything cached for all classes, as well as the recorded paths.
+	 */
+	public static void clear() {
+		Caches.clear();
+		PropertyPath.clearRecorded();
+	}
+
+	/**
+	 * @return whether the proxy of the given class has already been generated
+	 */
+	static boolean isProxyGenerated(Class<?> clazz) {
+		return proxies.get(clazz).value != null;
+	}
+
+	/**
+	 * @param naming the naming of the proxy, or <code>null</code> for the one of this class
+	 */
+	private static <T> Object createProxy(Class<T> clazz, PropertyNaming naming) {
+		Metrics.Measurement measurement = Metrics.beginProxyGeneration();
+		clazz = findNonProxyClass(clazz);
+		Class<?> pregenerated = naming == null ? findPregeneratedProxyClass(clazz) : null;
+		if (pregenerated != null) {
+			Object proxy = NativeImageSupport.inImage() ? NativeImageSupport.newInstance(pregenerated)
+					: instantiate(pregenerated);
+			Metrics.endProxyGeneration(measurement, clazz, 0);
+			return proxy;
+		}
+		if (NativeImageSupport.inImage())
+			throw new PropertyNameException("No proxy class of " + clazz.getName()
+					+ " was defined when building the native image", null);
+		String internalClassName = proxyClassInternalName(clazz) + (naming == null ? "" : "$" + naming.id);
+		ProxyCache cache = ProxyCache.INSTANCE;
+		byte[] definition = cache != null ? cache.definition(clazz, internalClassName, naming)
+				: generateProxyClass(clazz, internalClassName, naming);
+		Object proxy = instantiate(defineClass(clazz.getClassLoader(), clazz, internalClassName, definition));
+		Metrics.endProxyGeneration(measurement, clazz, definition.length);
+		return proxy;
+	}
+
+	static String proxyClassInternalName(Class<?> clazz) {
+		return clazz.getName().replace('.', '/') + "_$$_FieldNameClass";
+	}
+
+	/**
+	 * Look for a proxy class generated at build time via {@link PregeneratedProxies}, which is loaded like any other
+	 * class from the class loader of the proxied class. Outside of native images, only the proxy classes listed in the
+	 * {@link PregeneratedProxies#INDEX index} are loaded, so that other classes do not pay for a failed lookup.
+	 */
+	private static Class<?> findPregeneratedProxyClass(Class<?> clazz) {
+		ClassLoader cl = clazz.getClassLoader();
+		if (cl == null || !NativeImageSupport.inImage() && !PregeneratedProxies.isListed(clazz))
+			return null;
+		try {
+			Class<?> proxyClass = Class.forName(proxyClassInternalName(clazz).replace('/', '.'), false, cl);
+			return clazz.isAssignableFrom(proxyClass) ? proxyClass : null;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return null;
+		}
+	}
+
+	static byte[] generateProxyClass(Class<?> clazz, String internalClassName) {
+		return generateProxyClass(clazz, internalClassName, null, false);
+	}
+
+	static byte[] generateProxyClass(Class<?> clazz, String internalClassName, PropertyNaming naming) {
+		return generateProxyClass(clazz, internalClassName, naming, false);
+	}
+
+	/**
+	 * @param naming      the naming whose property names the proxy records and whose proxies it navigates to, or
+	 *                    <code>null</code> for the one of this class
+	 * @param constructor whether the proxy gets a public constructor without parameters, which calls the one of its
+	 *                    superclass, instead of being instantiated without running any constructor
+	 */
+	static byte[] generateProxyClass(Class<?> clazz, String internalClassName, PropertyNaming naming,
+			boolean constructor) {
+		/*
+		 * Stack map frames as well as the maximum stack sizes and locals are emitted explicitly, which is a lot cheaper
+		 * than letting ASM compute them.
+		 */
+		ClassWriter cw = new ClassWriter(0);
+		String superTypeInternalName = clazz.getName().replace('.', '/');
+		String superClassInternalName = clazz.isInterface() ? "java/lang/Object" : superTypeInternalName;
+		String[] interfaces = clazz.isInterface() ? new String[] { superTypeInternalName } : null;
+		cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, internalClassName, null, superClassInternalName, interfaces);
+		ProxyMethod[] methods = ProxyModel.of(clazz).methods;
+		String[] segments = new String[methods.length];
+		/*
+		 * The segments are the first constants, so that as many getters as possible load them with the short form of
+		 * ldc.
+		 */
+		for (int i = 0; i < methods.length; i++) {
+			if (methods[i].isGetter()) {
+				segments[i] = naming == null ? methods[i].propertyName : naming.segment(methods[i]);
+				cw.newConst(segments[i]);
+			}
+		}
+		if (constructor) {
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKESPECIAL, superClassInternalName, "<init>", "()V", false);
+			mv.visitInsn(RETURN);
+			mv.visitMaxs(1, 1);
+			mv.visitEnd();
+		}
+		int fieldNameCounter = 0;
+		for (int i = 0; i < methods.length; i++) {
+			ProxyMethod m = methods[i];
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, m.name, m.descriptor, null, null);
+			int maxLocals = Type.getArgumentsAndReturnSizes(m.descriptor) >> 2;
+			if (m.isGetter()) {
+				Type retType = Type.getReturnType(m.descriptor);
+				mv.visitLdcInsn(segments[i]);
+				mv.visitMethodInsn(INVOKESTATIC, RT_name, "appendName", "(Ljava/lang/String;)V", false);
+				int maxStack = 3;
+				switch (m.kind) {
+				case PROXY:
+					generateCachedProxyCode(cw, mv, internalClassName, "$" + fieldNameCounter++, retType, "proxy",
+							naming, m.proxiedType);
+					break;
+				case LIST:
+					generateCachedProxyCode(cw, mv, internalClassName, "$" + fieldNameCounter++, retType, "newList",
+							naming, m.proxiedType);
+					break;
+				case SET:
+					generateCachedProxyCode(cw, mv, internalClassName, "$" + fieldNameCounter++, retType, "newSet",
+							naming, m.proxiedType);
+					break;
+				case MAP:
+					generateCachedProxyCode(cw, mv, internalClassName, "$" + fieldNameCounter++, retType, "newMap",
+							naming, m.keyType, m.proxiedType);
+					break;
+				case OPTIONAL:
+					generateCachedProxyCode(cw, mv, internalClassName, "$" + fieldNameCounter++, retType,
+							"newOptional", naming, m.proxiedType);
+					break;
+				case ARRAY:
+					generateCachedProxyCode(cw, mv, internalClassName, "$" + fieldNameCounter++, retType, "newArray",
+							naming, m.proxiedType);
+					break;
+				default:
+					generateDefaultValue(mv, retType);
+					maxStack = Math.max(1, retType.getSize());
+				}
+				mv.visitInsn(retType.getOpcode(IRETURN));
+				mv.visitMaxs(maxStack, maxLocals);
+			} else {
+				generateNonGetterCode(mv, m.name);
+				mv.visitMaxs(1, maxLocals);
+			}
+			mv.visitEnd();
+		}
+		if (!clazz.isInterface()) {
+			generateEquals(cw);
+			generateHashCode(cw);
+			generateToString(cw);
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void generateNonGetterCode(MethodVisitor mv, String name) {
+		mv.visitLdcInsn(name);
+		mv.visitMethodInsn(INVOKESTATIC, RT_name, "noGetterMethodCalledException",
+				"(Ljava/lang/String;)Ljava/lang/Exception;", false);
+		mv.visitInsn(ATHROW);
+	}
+
+	/**
+	 * Generate code returning the value of a field caching the proxy (or container of proxies) returned by the given
+	 * {@link RT} method, which is called with the given classes (each of which may be <code>null</code>) and the id of
+	 * the given naming (unless it is <code>null</code>) to initialize the field when it is still <code>null</code>.
+	 * Needs a stack of three.
+	 */
+	private static void generateCachedProxyCode(ClassWriter cw, MethodVisitor mv, String internalClassName,
+			String fieldName, Type retType, String rtMethod, PropertyNaming naming, Class<?>... proxiedTypes) {
+		String fieldDesc = retType.getDescriptor();
+		cw.visitField(ACC_PRIVATE, fieldName, fieldDesc, null, null);
+		Label notNull = new Label();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, internalClassName, fieldName, fieldDesc);
+		mv.visitInsn(DUP);
+		mv.visitJumpInsn(IFNONNULL, notNull);
+		mv.visitInsn(POP);
+		StringBuilder desc = new StringBuilder("(");
+		for (Class<?> proxiedType : proxiedTypes) {
+			if (proxiedType == null)
+				mv.visitInsn(ACONST_NULL);
+			else
+				mv.visitLdcInsn(Type.getType(proxiedType));
+			desc.append("Ljava/lang/Class;");
+		}
+		if (naming != null) {
+			mv.visitLdcInsn(naming.id);
+			desc.append('I');
+		}
+		mv.visitMethodInsn(INVOKESTATIC, RT_name, rtMethod, desc.append(")Ljava/lang/Object;").toString(), false);
+		mv.visitTypeInsn(CHECKCAST, retType.getInternalName());
+		mv.visitInsn(DUP);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitInsn(SWAP);
+		mv.visitFieldInsn(PUTFIELD, internalClassName, fieldName, fieldDesc);
+		mv.visitLabel(notNull);
+		mv.visitFrame(F_SAME1, 0, null, 1, new Object[] { retType.getInternalName() });
+	}
+
+	private static void generateDefaultValue(MethodVisitor mv, Type type) {
+		if (type.getSort() == Type.BOOLEAN || type.getSort() == Type.CHAR || type.getSort() == Type.SHORT
+				|| type.getSort() == Type.INT || type.getSort() == Type.BYTE)
+			mv.visitInsn(ICONST_0);
+		else if (type.getSort() == Type.LONG)
+			mv.visitInsn(LCONST_0);
+		else if (type.getSort() == Type.FLOAT)
+			mv.visitInsn(FCONST_0);
+		else if (type.getSort() == Type.DOUBLE)
+			mv.visitInsn(DCONST_0);
+		else
+			mv.visitInsn(ACONST_NULL);
+	}
+
+	static Object instantiate(Class<?> generatedClass) {
+		if (Instantiation.Unsafe_allocateInstance == null)
+			throw new PropertyNameException("Cannot generate property names", Instantiation.unavailable);
+		try {
+			return Instantiation.Unsafe_allocateInstance.invokeExact(generatedClass);
+		} catch (Throwable e) {
+			throw new PropertyNameException("Could not instantiate propxy for " + generatedClass, e);
+		}
+	}
+
+	private static void generateEquals(ClassVisitor cv) {
+		MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "equals", "(Ljava/lang/Object;)Z", null, null);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitMethodInsn(INVOKESTATIC, RT_name, "Object_equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z", false);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+
+	private static void generateHashCode(ClassVisitor cv) {
+		MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "hashCode", "()I", null, null);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESTATIC, RT_name, "Object_hashCode", "(Ljava/lang/Object;)I", false);
+		mv.visitInsn(IRETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+	}
+
+	private static void generateToString(ClassVisitor cv) {
+		MethodVisitor mv = cv.visitMethod(ACC_PUBLIC, "toString", "()Ljava/lang/String;", null, null);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESTATIC, RT_name, "Object_toString", "(Ljava/lang/Object;)Ljava/lang/String;", false);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+	}
+
+}
@@ -0,0 +1,122 @@
+package de.hbt.propertyname;
+
+/**
+ * Snapshot of the statistics of {@link PropertyNameBuilder}: cache hits and misses of proxies, lambda resolutions and
+ * names, and the number, size and generation time of proxy classes.
+ * <p>
+ * Statistics are only collected when the system property {@value #ENABLED_PROPERTY} is set to <code>true</code> when
+ * this library is initialized. Otherwise all values are 0, and collecting them costs nothing.
+ * <p>
+ * Independently of that, each proxy generation and lambda resolution emits a JDK Flight Recorder event (named
+ * <code>de.hbt.propertyname.ProxyGeneration</code> and <code>de.hbt.propertyname.LambdaResolution</code>) when
+ * running on a JVM supporting it.
+ */
+public final class PropertyNameStats implements PropertyNameStatsMXBean {
+
+	/**
+	 * The system property enabling statistics.
+	 */
+	public static final String ENABLED_PROPERTY = "propertyname.stats";
+
+	/**
+	 * The name of the {@link PropertyNameStatsMXBean} in the platform MBean server.
+	 */
+	public static final String OBJECT_NAME = "de.hbt.propertyname:type=PropertyNameStats";
+
+	private final long proxyCacheHits;
+	private final long proxyCacheMisses;
+	private final long resolutionCacheHits;
+	private final long resolutionCacheMisses;
+	private final long nameCacheHits;
+	private final long nameCacheMisses;
+	private final long generatedClasses;
+	private final long generatedBytes;
+	private final long proxyGenerationNanos;
+	private final long resolutionNanos;
+
+	private PropertyNameStats() {
+		this.proxyCacheHits = Metrics.proxyHits.sum();
+		this.proxyCacheMisses = Metrics.proxyMisses.sum();
+		this.resolutionCacheMisses = Metrics.resolutionMisses.sum();
+		this.resolutionCacheHits = Math.max(0L, Metrics.resolutionLookups.sum() - resolutionCacheMisses);
+		this.nameCacheHits = Metrics.nameHits.sum();
+		this.nameCacheMisses = Metrics.nameMisses.sum();
+		this.generatedClasses = Metrics.generatedClasses.sum();
+		this.generatedBytes = Metrics.generatedBytes.sum();
+		this.proxyGenerationNanos = Metrics.proxyGenerationNanos.sum();
+		this.resolutionNanos = Metrics.resolutionNanos.sum();
+	}
+
+	/**
+	 * @return whether statistics are collected
+	 */
+	public static boolean isEnabled() {
+		return Metrics.ENABLED;
+	}
+
+	/**
+	 * @return the current statistics
+	 */
+	public static PropertyNameStats snapshot() {
+		return new PropertyNameStats();
+	}
+
+	@Override
+	public long getProxyCacheHits() {
+		return proxyCacheHits;
+	}
+
+	@Override
+	public long getProxyCacheMisses() {
+		return proxyCacheMisses;
+	}
+
+	@Override
+	public long getResolutionCacheHits() {
+		return resolutionCacheHits;
+	}
+
+	@Override
+	public long getResolutionCacheMisses() {
+		return resolutionCacheMisses;
+	}
+
+	@Override
+	public long getNameCacheHits() {
+		return nameCacheHits;
+	}
+
+	@Override
+	public long getNameCacheMisses() {
+		return nameCacheMisses;
+	}
+
+	@Override
+	public long getGeneratedClasses() {
+		return generatedClasses;
+	}
+
+	@Override
+	public long getGeneratedBytes() {
+		return generatedBytes;
+	}
+
+	@Override
+	public long getProxyGenerationNanos() {
+		return proxyGenerationNanos;
+	}
+
+	@Override
+	public long getResolutionNanos() {
+		return resolutionNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyNameStats [proxyCacheHits=" + proxyCacheHits + ", proxyCacheMisses=" + proxyCacheMisses
+				+ ", resolutionCacheHits=" + resolutionCacheHits + ", resolutionCacheMisses=" + resolutionCacheMisses
+				+ ", nameCacheHits=" + nameCacheHits + ", nameCacheMisses=" + nameCacheMisses + ", generatedClasses="
+				+ generatedClasses + ", generatedBytes=" + generatedBytes + ", proxyGenerationNanos="
+				+ proxyGenerationNanos + ", resolutionNanos=" + resolutionNanos + "]";
+	}
+}
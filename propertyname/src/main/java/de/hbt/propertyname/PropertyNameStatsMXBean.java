@@ -0,0 +1,61 @@
+package de.hbt.propertyname;
+
+/**
+ * Management interface of the statistics of {@link PropertyNameBuilder}, registered with the platform MBean server
+ * under the name {@value PropertyNameStats#OBJECT_NAME} when statistics are
+ * {@link PropertyNameStats#isEnabled() enabled}.
+ *
+ * @see PropertyNameStats
+ */
+public interface PropertyNameStatsMXBean {
+
+	/**
+	 * @return the number of proxy instances that were requested and already existed
+	 */
+	long getProxyCacheHits();
+
+	/**
+	 * @return the number of proxy instances that were requested and had to be created
+	 */
+	long getProxyCacheMisses();
+
+	/**
+	 * @return the number of lambdas whose receiver type was already resolved
+	 */
+	long getResolutionCacheHits();
+
+	/**
+	 * @return the number of lambdas whose receiver type had to be resolved
+	 */
+	long getResolutionCacheMisses();
+
+	/**
+	 * @return the number of <code>nameOf()</code> calls returning a cached name
+	 */
+	long getNameCacheHits();
+
+	/**
+	 * @return the number of <code>nameOf()</code> calls that had to call the getter on a proxy
+	 */
+	long getNameCacheMisses();
+
+	/**
+	 * @return the number of proxy classes defined at runtime
+	 */
+	long getGeneratedClasses();
+
+	/**
+	 * @return the total size in bytes of the proxy classes defined at runtime
+	 */
+	long getGeneratedBytes();
+
+	/**
+	 * @return the total time spent creating proxies in nanoseconds
+	 */
+	long getProxyGenerationNanos();
+
+	/**
+	 * @return the total time spent resolving lambdas in nanoseconds
+	 */
+	long getResolutionNanos();
+}
@@ -0,0 +1,249 @@
+package de.hbt.propertyname;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * A naming of properties, whose property names are determined by a {@link NamingStrategy} and whose paths are
+ * rendered in a {@link PathStyle}, like so:
+ *
+ * <pre>
+ * <code>
+ * static final PropertyNaming JSON = PropertyNaming.with(NamingStrategy.SNAKE_CASE, PathStyle.JSON_POINTER);
+ *
+ * assertThat(JSON.nameOf(Contract::getStartDate)).isEqualTo("/start_date");
+ * assertThat(JSON.name(any(JSON.of(Contract::getPositions)).getUnitPrice())).isEqualTo("/positions/unit_price");
+ * </code>
+ * </pre>
+ * <p>
+ * Each naming has proxy classes of its own, into which the names are baked as constants when they are generated, so
+ * recording a path costs the same as with {@link PropertyNameBuilder}, whose names are the ones of
+ * {@link NamingStrategy#BEAN} and {@link PathStyle#DOTS}. Like there, the names of method references are cached per
+ * lambda class. {@link PropertyNameBuilder#any(java.util.Collection) any()} and its variants work with the proxies of
+ * all namings.
+ * <p>
+ * Namings are interned per equal strategy and style, and are meant to be kept in constants. A naming which is no
+ * longer referenced is collected together with its proxies and cached names, so it has to be kept while its proxies
+ * are used. Their paths cannot be read by
+ * {@link PropertyNameBuilder#accessor(Class, PropertyPath) accessors} and {@link PropertyPathIndex}, which only know
+ * the property names of the JavaBeans conventions.
+ */
+public final class PropertyNaming {
+
+	/**
+	 * The interned namings per style, keyed weakly on their strategy. All namings of an entry share the strategy
+	 * instance which is its key, so that the entry lives exactly as long as one of them. Guarded by the class.
+	 */
+	private static final Map<NamingStrategy, Map<PathStyle, Ref>> interned = new WeakHashMap<>();
+	/**
+	 * The namings which have not been collected yet by their id
+	 */
+	private static final Map<Integer, Ref> namings = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<PropertyNaming> collected = new ReferenceQueue<>();
+	/**
+	 * The id of the next naming. Ids are not reused, since they are part of the names of the proxy classes. Id 0 stands
+	 * for the naming of {@link PropertyNameBuilder}. Guarded by the class.
+	 */
+	private static int nextId = 1;
+
+	/**
+	 * The id of this naming, which the generated proxies pass to the {@link PropertyNameBuilder.RT} methods creating
+	 * the proxies they navigate to
+	 */
+	final int id;
+	final NamingStrategy strategy;
+	final PathStyle style;
+	final Caches.Cache<PropertyNameBuilder.Lazy> proxies;
+	final Caches.Cache<PropertyNameBuilder.NameHolder> names;
+
+	private PropertyNaming(int id, NamingStrategy strategy, PathStyle style) {
+		this.id = id;
+		this.strategy = strategy;
+		this.style = style;
+		this.proxies = PropertyNameBuilder.proxyCache();
+		this.names = PropertyNameBuilder.nameCache();
+	}
+
+	/**
+	 * A weak reference to a naming, holding what to remove once it is collected.
+	 */
+	private static final class Ref extends WeakReference<PropertyNaming> {
+		final int id;
+		final Caches.Cache<?> proxies;
+		final Caches.Cache<?> names;
+
+		Ref(PropertyNaming naming) {
+			super(naming, collected);
+			this.id = naming.id;
+			this.proxies = naming.proxies;
+			this.names = naming.names;
+		}
+	}
+
+	/**
+	 * @param strategy the strategy determining the property names of getters
+	 * @param style    the style to render paths in
+	 * @return the (interned) naming with a strategy equal to the given one and the given style
+	 */
+	public static synchronized PropertyNaming with(NamingStrategy strategy, PathStyle style) {
+		Objects.requireNonNull(strategy, "strategy");
+		Objects.requireNonNull(style, "style");
+		expunge();
+		Map<PathStyle, Ref> styles = interned.get(strategy);
+		NamingStrategy shared = null;
+		if (styles != null) {
+			Ref ref = styles.get(style);
+			PropertyNaming naming = ref == null ? null : ref.get();
+			if (naming != null)
+				return naming;
+			for (Ref r : styles.values()) {
+				PropertyNaming other = r.get();
+				if (other != null)
+					shared = other.strategy;
+			}
+		}
+		if (shared == null) {
+			/* Replace an entry without namings, whose key may be another instance than the given one */
+			shared = strategy;
+			styles = new EnumMap<>(PathStyle.class);
+			interned.remove(strategy);
+			interned.put(strategy, styles);
+		}
+		PropertyNaming naming = new PropertyNaming(nextId++, shared, style);
+		Ref ref = new Ref(naming);
+		styles.put(style, ref);
+		namings.put(naming.id, ref);
+		return naming;
+	}
+
+	/**
+	 * @return the naming of the given id
+	 */
+	static PropertyNaming byId(int id) {
+		Ref ref = namings.get(id);
+		PropertyNaming naming = ref == null ? null : ref.get();
+		if (naming == null)
+			throw new PropertyNameException("The naming of id " + id + " is no longer used", null);
+		return naming;
+	}
+
+	/**
+	 * Stop interning the namings whose strategy was loaded by the given class loader, so that they are collected once
+	 * they are no longer used.
+	 */
+	static synchronized void evict(ClassLoader cl) {
+		interned.keySet().removeIf(strategy -> NamingStrategies.loadedBy(strategy, cl));
+		expunge();
+	}
+
+	/**
+	 * Stop interning all namings, so that they are collected once they are no longer used.
+	 */
+	static synchronized void clear() {
+		interned.clear();
+		expunge();
+	}
+
+	/**
+	 * Remove the caches of the collected namings.
+	 */
+	private static void expunge() {
+		for (Reference<?> r; (r = collected.poll()) != null;) {
+			Ref ref = (Ref) r;
+			namings.remove(ref.id);
+			Caches.drop(ref.proxies);
+			Caches.drop(ref.names);
+		}
+	}
+
+	/**
+	 * @return the strategy determining the property names of getters
+	 */
+	public NamingStrategy strategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return the style paths are rendered in
+	 */
+	public PathStyle style() {
+		return style;
+	}
+
+	/**
+	 * Like {@link PropertyNameBuilder#of(Getter)}, but returning an object of the proxies of this naming, to be used in
+	 * conjunction with {@link #name(Object)} like so: <code>JSON.name(JSON.of(Contract::getCustomer).getName())</code>
+	 *
+	 * @param          <T> type of the property owner
+	 * @param          <R> type of the property
+	 * @param property a method reference of a getter method
+	 * @return the object returned by the getter call on a generated proxy of this naming
+	 */
+	public <T, R> R of(Getter<? super T, R> property) {
+		return PropertyNameBuilder.of(this, property);
+	}
+
+	/**
+	 * Like {@link PropertyNameBuilder#name(Object)}, but in the style of this naming.
+	 *
+	 * @param obj the return value of a getter call on a proxy of this naming
+	 * @return the name of the selected properties
+	 */
+	public String name(Object obj) {
+		PropertyPath path = PropertyNameBuilder.recordedPath(this);
+		return path == null ? null : path.toString();
+	}
+
+	/**
+	 * Like {@link PropertyNameBuilder#path(Object)}, but in the style of this naming.
+	 *
+	 * @param obj the return value of a getter call on a proxy of this naming
+	 * @return the path of the selected properties
+	 */
+	public PropertyPath path(Object obj) {
+		return PropertyNameBuilder.recordedPath(this);
+	}
+
+	/**
+	 * Like {@link PropertyNameBuilder#nameOf(Getter)}, but with the names and the style of this naming.
+	 *
+	 * @param        <T> type of the property owner
+	 * @param getter a method reference of a getter method
+	 * @return the name of the selected property
+	 */
+	public <T> String nameOf(Getter<? super T, ?> getter) {
+		PropertyPath path = pathOf(getter);
+		return path == null ? null : path.toString();
+	}
+
+	/**
+	 * Like {@link PropertyNameBuilder#pathOf(Getter)}, but with the names and the style of this naming.
+	 *
+	 * @param        <T> type of the property owner
+	 * @param getter a method reference of a getter method
+	 * @return the path of the selected property
+	 */
+	public <T> PropertyPath pathOf(Getter<? super T, ?> getter) {
+		return PropertyNameBuilder.pathOf(this, getter);
+	}
+
+	/**
+	 * @return the segment the proxies of this naming record for the given getter
+	 */
+	String segment(ProxyMethod m) {
+		String name = strategy.propertyName(m.method, m.propertyName);
+		if (name == null || name.isEmpty())
+			throw new PropertyNameException("No property name for " + m.method + " from " + strategy, null);
+		Class<?> ret = m.method.getReturnType();
+		return style.segment(name, ret.isArray() || Collection.class.isAssignableFrom(ret)
+				|| Map.class.isAssignableFrom(ret));
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyNaming[" + strategy + ", " + style + "]";
+	}
+}
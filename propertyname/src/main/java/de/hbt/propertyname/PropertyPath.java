@@ -0,0 +1,241 @@
+package de.hbt.propertyname;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An immutable sequence of property names, such as <code>customer.addresses.city</code>, as returned by
+ * {@link PropertyNameBuilder#path(Object)} and {@link PropertyNameBuilder#pathOf(Getter)}.
+ * <p>
+ * Paths hold their segments, their hash code and their dotted {@link #toString() string representation}, so none of
+ * them needs to be computed again. All paths recorded by proxies are kept in a tree, so that recording a known path,
+ * as well as navigating from a recorded path to another recorded path via {@link #child(String)}, {@link #parent()}
+ * and {@link #concat(PropertyPath)}, does not allocate. Paths that were never recorded are created on demand and not
+ * kept.
+ * <p>
+ * Paths recorded by a {@link PropertyNaming} belong to the tree of its {@link PathStyle} and are rendered in that
+ * style. They are only equal to paths of the same style.
+ */
+public final class PropertyPath {
+
+	private static final PropertyPath[] NO_CHILDREN = new PropertyPath[0];
+	/**
+	 * The roots of the trees of recorded paths
+	 */
+	private static final List<PropertyPath> roots = new CopyOnWriteArrayList<>();
+
+	/**
+	 * The path without any segments, which is the root of all dotted paths.
+	 */
+	public static final PropertyPath EMPTY = root("", ".");
+
+	private final PropertyPath parent;
+	private final String[] segments;
+	/**
+	 * What the first segment and all other segments are preceded by
+	 */
+	private final String prefix;
+	private final String separator;
+	private final String name;
+	private final int hash;
+	/**
+	 * The recorded children of a recorded path, or {@link #NO_CHILDREN}. Lookups are lock-free. Children are added
+	 * copy-on-write while holding the lock of the parent.
+	 */
+	private volatile PropertyPath[] children = NO_CHILDREN;
+
+	private PropertyPath(String prefix, String separator) {
+		this.parent = null;
+		this.segments = new String[0];
+		this.prefix = prefix;
+		this.separator = separator;
+		this.name = "";
+		this.hash = name.hashCode();
+	}
+
+	private PropertyPath(PropertyPath parent, String segment) {
+		this.parent = parent;
+		this.segments = Arrays.copyOf(parent.segments, parent.segments.length + 1);
+		this.segments[parent.segments.length] = segment;
+		this.prefix = parent.prefix;
+		this.separator = parent.separator;
+		this.name = parent.parent == null ? prefix + segment : parent.name + separator + segment;
+		this.hash = name.hashCode();
+	}
+
+	/**
+	 * @return the empty path of a new tree of recorded paths, whose paths are rendered with the given prefix and
+	 *         separator
+	 */
+	static PropertyPath root(String prefix, String separator) {
+		PropertyPath root = new PropertyPath(prefix, separator);
+		roots.add(root);
+		return root;
+	}
+
+	/**
+	 * @param segments the property names
+	 * @return the path consisting of the given property names
+	 */
+	public static PropertyPath of(String... segments) {
+		PropertyPath path = EMPTY;
+		for (String segment : segments)
+			path = path.child(segment);
+		return path;
+	}
+
+	/**
+	 * @param name a dotted property path, such as <code>customer.legalName</code>, or the empty string
+	 * @return the path of the given name
+	 */
+	public static PropertyPath parse(String name) {
+		return name.isEmpty() ? EMPTY : of(name.split("\\.", -1));
+	}
+
+	/**
+	 * @return the number of segments
+	 */
+	public int size() {
+		return segments.length;
+	}
+
+	/**
+	 * @return whether this path has no segments, like the {@link #EMPTY} path
+	 */
+	public boolean isEmpty() {
+		return segments.length == 0;
+	}
+
+	/**
+	 * @param index the index of the segment
+	 * @return the property name at the given index
+	 */
+	public String segment(int index) {
+		return segments[index];
+	}
+
+	/**
+	 * @return the last property name, or <code>null</code> for an empty path
+	 */
+	public String lastSegment() {
+		return segments.length == 0 ? null : segments[segments.length - 1];
+	}
+
+	/**
+	 * @return the property names of this path
+	 */
+	public List<String> segments() {
+		return Collections.unmodifiableList(Arrays.asList(segments));
+	}
+
+	/**
+	 * @return this path without its last segment, or <code>null</code> for an empty path
+	 */
+	public PropertyPath parent() {
+		return parent;
+	}
+
+	/**
+	 * @param segment a property name
+	 * @return this path followed by the given property name, in the style of this path
+	 */
+	public PropertyPath child(String segment) {
+		PropertyPath child = find(children, segment);
+		return child != null ? child : new PropertyPath(this, Objects.requireNonNull(segment));
+	}
+
+	/**
+	 * @param other a path
+	 * @return this path followed by the segments of the given path
+	 */
+	public PropertyPath concat(PropertyPath other) {
+		PropertyPath path = this;
+		for (String segment : other.segments)
+			path = path.child(segment);
+		return path;
+	}
+
+	/**
+	 * @param prefix a path
+	 * @return whether this path starts with all segments of the given path
+	 */
+	public boolean startsWith(PropertyPath prefix) {
+		if (prefix.segments.length > segments.length)
+			return false;
+		for (int i = 0; i < prefix.segments.length; i++) {
+			String s = segments[i];
+			String p = prefix.segments[i];
+			if (s != p && !s.equals(p))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Like {@link #child(String)}, but keeping the child in the tree of recorded paths.
+	 */
+	PropertyPath recordedChild(String segment) {
+		PropertyPath child = find(children, segment);
+		return child != null ? child : addChild(segment);
+	}
+
+	/**
+	 * Drop the trees of recorded paths, so that paths recorded from now on start new ones.
+	 */
+	static void clearRecorded() {
+		for (PropertyPath root : roots) {
+			synchronized (root) {
+				root.children = NO_CHILDREN;
+			}
+		}
+	}
+
+	private synchronized PropertyPath addChild(String segment) {
+		PropertyPath[] cs = children;
+		PropertyPath child = find(cs, segment);
+		if (child != null)
+			return child;
+		child = new PropertyPath(this, segment);
+		PropertyPath[] newChildren = Arrays.copyOf(cs, cs.length + 1);
+		newChildren[cs.length] = child;
+		children = newChildren;
+		return child;
+	}
+
+	private static PropertyPath find(PropertyPath[] cs, String segment) {
+		for (PropertyPath c : cs) {
+			if (c.lastSegment() == segment)
+				return c;
+		}
+		for (PropertyPath c : cs) {
+			if (c.lastSegment().equals(segment))
+				return c;
+		}
+		return null;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof PropertyPath))
+			return false;
+		PropertyPath other = (PropertyPath) obj;
+		return hash == other.hash && segments.length == other.segments.length && prefix.equals(other.prefix)
+				&& separator.equals(other.separator) && startsWith(other);
+	}
+
+	/**
+	 * @return the dotted property path, such as <code>customer.legalName</code>, or the path in the style it was
+	 *         recorded in
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,282 @@
+package de.hbt.propertyname;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * An immutable index of all property paths of a class up to a maximum number of segments, for validating dotted
+ * property names supplied at runtime, such as the sort and filter properties of a query, like so:
+ * <code>PropertyPathIndex.of(Contract.class, 4).contains("customer.addresses.city")</code>
+ * <p>
+ * The paths are the ones the proxies of {@link PropertyNameBuilder} can record, navigating into the return types of
+ * getters and into the element types of collections, optionals and arrays as well as the value types of maps. They are
+ * held in a trie, whose nodes are shared by all paths arriving at the same class with the same number of remaining
+ * segments. Looking up a path takes time linear in its length and does not allocate.
+ */
+public final class PropertyPathIndex {
+
+	/**
+	 * A property of a class, with the node of the properties of its type.
+	 */
+	private static final class Entry {
+		final String name;
+		final int hash;
+		final Method getter;
+		final Node node;
+
+		Entry(ProxyMethod getter, Node node) {
+			this.name = getter.propertyName;
+			this.hash = name.hashCode();
+			this.getter = getter.method;
+			this.node = node;
+		}
+	}
+
+	/**
+	 * The properties of a class as an open-addressing hash table, which can be looked up by a segment of a dotted path
+	 * without creating a substring of it.
+	 */
+	private static final class Node {
+		static final Node EMPTY = new Node(Collections.emptyList());
+
+		final Entry[] table;
+		/**
+		 * The number of paths starting at this node
+		 */
+		final long size;
+
+		Node(List<Entry> entries) {
+			int capacity = 1;
+			while (capacity < entries.size() * 2)
+				capacity <<= 1;
+			table = new Entry[capacity];
+			long size = 0;
+			for (Entry e : entries) {
+				int i = spread(e.hash) & capacity - 1;
+				while (table[i] != null)
+					i = i + 1 & capacity - 1;
+				table[i] = e;
+				size += 1 + e.node.size;
+			}
+			this.size = size;
+		}
+
+		Entry find(String path, int start, int end, int hash) {
+			int mask = table.length - 1;
+			for (int i = spread(hash) & mask; table[i] != null; i = i + 1 & mask) {
+				Entry e = table[i];
+				if (e.hash == hash && e.name.length() == end - start
+						&& path.regionMatches(start, e.name, 0, end - start))
+					return e;
+			}
+			return null;
+		}
+
+		private static int spread(int hash) {
+			return hash ^ hash >>> 16;
+		}
+	}
+
+	/**
+	 * Creates the nodes from the getters of all reachable classes, once per class and number of remaining segments.
+	 */
+	private static final class Builder {
+		private final Map<Class<?>, List<ProxyMethod>> getters;
+		private final int maxDepth;
+		private final Map<Class<?>, Node[]> nodes = new HashMap<>();
+
+		Builder(Map<Class<?>, List<ProxyMethod>> getters, int maxDepth) {
+			this.getters = getters;
+			this.maxDepth = maxDepth;
+		}
+
+		Node node(Class<?> type, int remaining) {
+			if (type == null || remaining == 0)
+				return Node.EMPTY;
+			Node[] byRemaining = nodes.computeIfAbsent(type, t -> new Node[maxDepth + 1]);
+			Node node = byRemaining[remaining];
+			if (node == null) {
+				List<ProxyMethod> methods = getters.get(type);
+				List<Entry> entries = new ArrayList<>(methods.size());
+				for (ProxyMethod m : methods)
+					entries.add(new Entry(m, node(m.proxiedType, remaining - 1)));
+				node = byRemaining[remaining] = new Node(entries);
+			}
+			return node;
+		}
+	}
+
+	private final Class<?> root;
+	private final int maxDepth;
+	private final Node node;
+
+	private PropertyPathIndex(Class<?> root, int maxDepth, Node node) {
+		this.root = root;
+		this.maxDepth = maxDepth;
+		this.node = node;
+	}
+
+	/**
+	 * Index the paths of the given class, introspecting the classes reachable from it in parallel on the
+	 * {@link ForkJoinPool#commonPool() common pool}.
+	 *
+	 * @param root     the class the paths start at
+	 * @param maxDepth the maximum number of segments of the paths
+	 * @return the index of all paths of the given class with up to <code>maxDepth</code> segments
+	 */
+	public static PropertyPathIndex of(Class<?> root, int maxDepth) {
+		return of(root, maxDepth, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Like {@link #of(Class, int)}, but introspecting the classes on the given pool.
+	 *
+	 * @param root     the class the paths start at
+	 * @param maxDepth the maximum number of segments of the paths
+	 * @param pool     the pool to introspect the classes on
+	 * @return the index of all paths of the given class with up to <code>maxDepth</code> segments
+	 */
+	public static PropertyPathIndex of(Class<?> root, int maxDepth, ForkJoinPool pool) {
+		if (maxDepth < 1)
+			throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+		Class<?> type = PropertyNameBuilder.findNonProxyClass(root);
+		if (!PropertyNameBuilder.canProxy(type))
+			throw new PropertyNameException("Cannot proxy " + type, null);
+		Map<Class<?>, List<ProxyMethod>> getters = introspect(type, maxDepth, pool);
+		return new PropertyPathIndex(type, maxDepth, new Builder(getters, maxDepth).node(type, maxDepth));
+	}
+
+	/**
+	 * Determine the getters of all classes reachable from the given class with less than <code>maxDepth</code>
+	 * segments, level by level, introspecting the classes first reached on each level in parallel.
+	 */
+	private static Map<Class<?>, List<ProxyMethod>> introspect(Class<?> root, int maxDepth, ForkJoinPool pool) {
+		Map<Class<?>, List<ProxyMethod>> getters = new ConcurrentHashMap<>();
+		List<Class<?>> level = Collections.singletonList(root);
+		for (int depth = 0; depth < maxDepth && !level.isEmpty(); depth++) {
+			List<Class<?>> classes = level;
+			pool.submit(() -> classes.parallelStream().forEach(c -> getters.put(c, getters(c)))).join();
+			Set<Class<?>> next = new LinkedHashSet<>();
+			for (Class<?> c : classes) {
+				for (ProxyMethod m : getters.get(c)) {
+					if (m.proxiedType != null && !getters.containsKey(m.proxiedType))
+						next.add(m.proxiedType);
+				}
+			}
+			level = new ArrayList<>(next);
+		}
+		return getters;
+	}
+
+	/**
+	 * @return the getters of the given class, one per property like {@link AccessorGenerator} chooses them
+	 */
+	private static List<ProxyMethod> getters(Class<?> type) {
+		Map<String, ProxyMethod> getters = new LinkedHashMap<>();
+		for (ProxyMethod m : ProxyModel.of(type).methods) {
+			if (m.isGetter() && !m.method.isBridge())
+				getters.putIfAbsent(m.propertyName, m);
+		}
+		return new ArrayList<>(getters.values());
+	}
+
+	/**
+	 * @return the class the paths start at
+	 */
+	public Class<?> root() {
+		return root;
+	}
+
+	/**
+	 * @return the maximum number of segments of the paths
+	 */
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * @return the number of paths
+	 */
+	public long size() {
+		return node.size;
+	}
+
+	/**
+	 * @param name a dotted property path, such as <code>customer.addresses.city</code>
+	 * @return whether the path is a path of the root class
+	 */
+	public boolean contains(String name) {
+		return entry(name) != null;
+	}
+
+	/**
+	 * @param path a property path
+	 * @return whether the path is a path of the root class
+	 */
+	public boolean contains(PropertyPath path) {
+		Node n = node;
+		Entry e = null;
+		for (int i = 0; i < path.size(); i++) {
+			String segment = path.segment(i);
+			e = n.find(segment, 0, segment.length(), segment.hashCode());
+			if (e == null)
+				return false;
+			n = e.node;
+		}
+		return e != null;
+	}
+
+	/**
+	 * @param name a dotted property path, such as <code>customer.addresses.city</code>
+	 * @return the return type of the last getter of the path, or <code>null</code> if it is not a path of the root
+	 *         class
+	 */
+	public Class<?> typeOf(String name) {
+		Entry e = entry(name);
+		return e == null ? null : e.getter.getReturnType();
+	}
+
+	/**
+	 * @param name a dotted property path, such as <code>customer.addresses.city</code>
+	 * @return the getters along the path, or <code>null</code> if it is not a path of the root class
+	 */
+	public List<Method> getters(String name) {
+		List<Method> getters = new ArrayList<>();
+		return entry(name, getters) == null ? null : Collections.unmodifiableList(getters);
+	}
+
+	private Entry entry(String name) {
+		return entry(name, null);
+	}
+
+	/**
+	 * Look up the entry of the last segment of the given path, adding the getters along the path to the given list
+	 * unless it is <code>null</code>.
+	 */
+	private Entry entry(String name, List<Method> getters) {
+		Node n = node;
+		for (int start = 0;;) {
+			int hash = 0;
+			int end = start;
+			for (char c; end < name.length() && (c = name.charAt(end)) != '.'; end++)
+				hash = 31 * hash + c;
+			Entry e = n.find(name, start, end, hash);
+			if (e == null)
+				return null;
+			if (getters != null)
+				getters.add(e.getter);
+			if (end == name.length())
+				return e;
+			n = e.node;
+			start = end + 1;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PropertyPathIndex[" + root.getName() + ", " + size() + " paths up to " + maxDepth + " segments]";
+	}
+}
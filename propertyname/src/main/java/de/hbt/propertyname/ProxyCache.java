@@ -0,0 +1,374 @@
+package de.hbt.propertyname;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.security.*;
+import java.util.*;
+
+import org.objectweb.asm.*;
+import org.objectweb.asm.signature.*;
+
+import de.hbt.propertyname.ProxyModel.ProxyMethod;
+
+/**
+ * Opt-in cache of generated proxy classes in a directory, which survives restarts of the JVM and can be shared by
+ * several JVMs.
+ * <p>
+ * Enabled by setting the system property {@value #DIRECTORY_PROPERTY} to the directory to store the classes in.
+ * <p>
+ * Each class is stored in a file named after a SHA-256 hash of everything the generated class depends on: the name of
+ * the proxy class, the version and bytecode of the generator itself, and the class files of the proxied class and its
+ * superclasses together with the properties of the types their methods return. A changed entity class (or a changed
+ * type it navigates to) thus gets a new file, and files are never modified after they have been written. Since the key
+ * is computed from the class files, a cached class is used without introspecting the proxied class via reflection.
+ * Only when the class files are not available as resources of the class loader, as well as for the proxies of a
+ * {@link PropertyNaming}, the key is computed from the {@link ProxyModel} instead.
+ * <p>
+ * Files are written to a temporary file first and then atomically moved to their final name, so that readers never
+ * see partially written files. Each file starts with a SHA-256 digest of its key and the class, which is verified
+ * before the class is used, so that a file is only used for the key it was written for.
+ * <p>
+ * The cached classes are defined with the privileges of the proxied classes, so whoever can write the directory can
+ * inject code into them. The directory is therefore created accessible to its owner only, and where the file system
+ * supports POSIX permissions, a directory not owned by the current user or writable by others is not used at all. The
+ * cache is best-effort: when reading or writing a file fails, the class is generated as usual.
+ */
+final class ProxyCache {
+
+	/**
+	 * The system property holding the cache directory.
+	 */
+	static final String DIRECTORY_PROPERTY = "propertyname.cacheDirectory";
+
+	/**
+	 * The cache configured via {@value #DIRECTORY_PROPERTY}, or <code>null</code>
+	 */
+	static final ProxyCache INSTANCE = fromSystemProperty();
+
+	private static final int DIGEST_LENGTH = 32;
+
+	private final Path directory;
+	private final String generatorFingerprint = generatorFingerprint();
+	/**
+	 * Whether the directory may be used, determined on first use
+	 */
+	private volatile Boolean trusted;
+
+	ProxyCache(Path directory) {
+		this.directory = directory;
+	}
+
+	private static ProxyCache fromSystemProperty() {
+		String directory = System.getProperty(DIRECTORY_PROPERTY);
+		return directory == null || directory.isEmpty() ? null : new ProxyCache(Paths.get(directory));
+	}
+
+	/**
+	 * @param clazz             the proxied class
+	 * @param internalClassName the internal name of the proxy class
+	 * @return the definition of the proxy class, read from the cache or generated and written to it
+	 */
+	byte[] definition(Class<?> clazz, String internalClassName) {
+		return definition(clazz, internalClassName, null);
+	}
+
+	/**
+	 * @param clazz             the proxied class
+	 * @param internalClassName the internal name of the proxy class
+	 * @param naming            the naming of the proxy, or <code>null</code> for the one of {@link PropertyNameBuilder}
+	 * @return the definition of the proxy class, read from the cache or generated and written to it
+	 */
+	byte[] definition(Class<?> clazz, String internalClassName, PropertyNaming naming) {
+		if (!trusted())
+			return PropertyNameBuilder.generateProxyClass(clazz, internalClassName, naming);
+		String key = key(clazz, internalClassName, naming);
+		Path file = directory.resolve(key + ".class");
+		byte[] definition = read(file, key);
+		if (definition == null) {
+			definition = PropertyNameBuilder.generateProxyClass(clazz, internalClassName, naming);
+			write(file, key, definition);
+		}
+		return definition;
+	}
+
+	/**
+	 * Create the directory accessible to its owner only, unless it exists, and check that nobody else can write it.
+	 */
+	boolean trusted() {
+		Boolean t = trusted;
+		if (t == null) {
+			t = checkDirectory();
+			trusted = t;
+		}
+		return t;
+	}
+
+	private boolean checkDirectory() {
+		try {
+			boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+			if (!Files.isDirectory(directory)) {
+				if (posix)
+					Files.createDirectories(directory,
+							PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+				else
+					Files.createDirectories(directory);
+			}
+			if (!posix)
+				return true;
+			UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+					.lookupPrincipalByName(System.getProperty("user.name"));
+			Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory);
+			return Files.getOwner(directory).equals(user) && !permissions.contains(PosixFilePermission.GROUP_WRITE)
+					&& !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			return false;
+		}
+	}
+
+	String key(Class<?> clazz, String internalClassName) {
+		return key(clazz, internalClassName, null);
+	}
+
+	/**
+	 * The key of a proxy of a {@link PropertyNaming} also covers the names it records, which depend on the strategy of
+	 * the naming. The id of the naming, which the proxy passes to the methods creating the proxies it navigates to, is
+	 * part of the name of the proxy class.
+	 */
+	String key(Class<?> clazz, String internalClassName, PropertyNaming naming) {
+		MessageDigest digest = sha256();
+		update(digest, generatorFingerprint);
+		update(digest, internalClassName);
+		update(digest, clazz.getName());
+		update(digest, clazz.isInterface() ? "interface" : "class");
+		if (naming == null && updateWithClassFiles(digest, clazz))
+			return hex(digest.digest());
+		update(digest, "model");
+		for (ProxyMethod m : ProxyModel.of(clazz).methods) {
+			update(digest, m.name + m.descriptor);
+			update(digest, m.kind.name());
+			update(digest, naming == null || !m.isGetter() ? m.propertyName : naming.segment(m));
+			update(digest, m.proxiedType == null ? null : m.proxiedType.getName());
+			update(digest, m.keyType == null ? null : m.keyType.getName());
+		}
+		return hex(digest.digest());
+	}
+
+	/**
+	 * Add the class files of the given class and of its superclasses (except for the ones of the JDK, which are
+	 * covered by its version) to the digest, as well as the properties of the types their methods return, which the
+	 * {@link ProxyModel} depends on.
+	 *
+	 * @return <code>false</code> if a class file is not available, in which case the digest must not be used
+	 */
+	private static boolean updateWithClassFiles(MessageDigest digest, Class<?> clazz) {
+		ClassLoader cl = clazz.getClassLoader();
+		Set<String> referenced = new TreeSet<>();
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.isInterface() ? null : c.getSuperclass()) {
+			if (c.getClassLoader() == null) {
+				update(digest, c.getName());
+				continue;
+			}
+			byte[] classFile = classFile(c);
+			if (classFile == null)
+				return false;
+			digest.update(classFile);
+			collectReturnedTypes(classFile, referenced);
+		}
+		for (String name : referenced) {
+			Class<?> type;
+			try {
+				type = Class.forName(name, false, cl);
+			} catch (ClassNotFoundException | LinkageError e) {
+				return false;
+			}
+			update(digest, name + " " + PropertyNameBuilder.canProxy(type) + Collection.class.isAssignableFrom(type)
+					+ Set.class.isAssignableFrom(type) + Map.class.isAssignableFrom(type)
+					+ type.isAssignableFrom(Containers.ElementMap.class));
+		}
+		return true;
+	}
+
+	private static byte[] classFile(Class<?> c) {
+		try (InputStream is = c.getClassLoader().getResourceAsStream(c.getName().replace('.', '/') + ".class")) {
+			if (is == null)
+				return null;
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for (int n; (n = is.read(buffer)) > 0;)
+				bytes.write(buffer, 0, n);
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Collect the binary names of the classes in the return types of the methods of the given class file, both erased
+	 * and including the type arguments of their generic signatures.
+	 */
+	private static void collectReturnedTypes(byte[] classFile, Set<String> names) {
+		new ClassReader(classFile).accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+					String[] exceptions) {
+				new SignatureReader(descriptor).accept(new ReturnType(names));
+				if (signature != null)
+					new SignatureReader(signature).accept(new ReturnType(names));
+				return null;
+			}
+		}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+	}
+
+	/**
+	 * Visits a method signature, collecting the classes of its return type.
+	 */
+	private static final class ReturnType extends SignatureVisitor {
+		private final Set<String> names;
+
+		ReturnType(Set<String> names) {
+			super(Opcodes.ASM9);
+			this.names = names;
+		}
+
+		@Override
+		public SignatureVisitor visitReturnType() {
+			return new ClassTypes(names);
+		}
+	}
+
+	/**
+	 * Visits a type, collecting its class and the classes of its type arguments.
+	 */
+	private static final class ClassTypes extends SignatureVisitor {
+		private final Set<String> names;
+		private String name;
+
+		ClassTypes(Set<String> names) {
+			super(Opcodes.ASM9);
+			this.names = names;
+		}
+
+		@Override
+		public SignatureVisitor visitArrayType() {
+			return new ClassTypes(names);
+		}
+
+		@Override
+		public void visitClassType(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void visitInnerClassType(String name) {
+			this.name += "$" + name;
+		}
+
+		@Override
+		public SignatureVisitor visitTypeArgument(char wildcard) {
+			return new ClassTypes(names);
+		}
+
+		@Override
+		public void visitEnd() {
+			names.add(name.replace('/', '.'));
+		}
+	}
+
+	/**
+	 * @return the class stored in the given file, or <code>null</code> if the file does not exist or its digest does
+	 *         not match the given key and its content
+	 */
+	private static byte[] read(Path file, String key) {
+		try {
+			byte[] content = Files.readAllBytes(file);
+			if (content.length <= DIGEST_LENGTH)
+				return null;
+			byte[] definition = Arrays.copyOfRange(content, DIGEST_LENGTH, content.length);
+			return isClassFile(definition)
+					&& MessageDigest.isEqual(Arrays.copyOf(content, DIGEST_LENGTH), digest(key, definition))
+							? definition
+							: null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static byte[] digest(String key, byte[] definition) {
+		MessageDigest digest = sha256();
+		update(digest, key);
+		digest.update(definition);
+		return digest.digest();
+	}
+
+	private void write(Path file, String key, byte[] definition) {
+		Path tmp = null;
+		try {
+			tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+			try (OutputStream os = Files.newOutputStream(tmp)) {
+				os.write(digest(key, definition));
+				os.write(definition);
+			}
+			try {
+				Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			/*
+			 * Most likely another JVM wrote the same file concurrently. Either way the class is not cached this time.
+			 */
+			try {
+				if (tmp != null)
+					Files.deleteIfExists(tmp);
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	private static boolean isClassFile(byte[] definition) {
+		return definition.length > 4 && (definition[0] & 0xFF) == 0xCA && (definition[1] & 0xFF) == 0xFE
+				&& (definition[2] & 0xFF) == 0xBA && (definition[3] & 0xFF) == 0xBE;
+	}
+
+	/**
+	 * The version of this library and the bytecode of the classes generating the proxies, so that a changed generator
+	 * does not use classes generated by another one, even when the version was not changed.
+	 */
+	private static String generatorFingerprint() {
+		MessageDigest digest = sha256();
+		update(digest, PropertyNameBuilder.class.getPackage().getImplementationVersion());
+		update(digest, System.getProperty("java.version"));
+		for (Class<?> generator : new Class<?>[] { PropertyNameBuilder.class, ProxyModel.class }) {
+			try (InputStream is = generator.getResourceAsStream(generator.getSimpleName() + ".class")) {
+				byte[] buffer = new byte[4096];
+				for (int n; is != null && (n = is.read(buffer)) > 0;)
+					digest.update(buffer, 0, n);
+			} catch (IOException e) {
+				throw new PropertyNameException("Could not read " + generator, e);
+			}
+		}
+		return hex(digest.digest());
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new PropertyNameException("SHA-256 not supported", e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String s) {
+		digest.update(String.valueOf(s).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes)
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		return sb.toString();
+	}
+}
@@ -0,0 +1,188 @@
+package de.hbt.propertyname;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import org.objectweb.asm.Type;
+
+/**
+ * The methods a generated proxy class of a class needs to override, determined once per class.
+ * <p>
+ * The model of a class reuses the model of its superclass, so that only the methods declared by the class itself need
+ * to be introspected. This makes generating proxies of many subclasses of the same (possibly wide) superclass cheap.
+ */
+final class ProxyModel {
+
+	/**
+	 * What a generated method does.
+	 */
+	enum Kind {
+		/** A getter returning a default value, such as <code>null</code> or <code>0</code> */
+		LEAF,
+		/** A getter returning a proxy of its return type */
+		PROXY,
+		/** A getter returning a {@link List} containing a proxy of the element type */
+		LIST,
+		/** A getter returning a {@link Set} containing a proxy of the element type */
+		SET,
+		/** A getter returning a {@link Map} containing proxies of the key and the value type */
+		MAP,
+		/** A getter returning an {@link Optional} containing a proxy of the element type */
+		OPTIONAL,
+		/** A getter returning an array containing a proxy of the component type */
+		ARRAY,
+		/** A method that is not a getter and throws {@link UnsupportedOperationException} */
+		NON_GETTER
+	}
+
+	/**
+	 * A method to override in the proxy class.
+	 */
+	static final class ProxyMethod {
+		final Method method;
+		final String name;
+		final String descriptor;
+		final Kind kind;
+		/**
+		 * The property name of getters, otherwise <code>null</code>
+		 */
+		final String propertyName;
+		/**
+		 * The class to proxy for {@link Kind#PROXY} and the element, value or component type to proxy for the
+		 * containers, otherwise <code>null</code>
+		 */
+		final Class<?> proxiedType;
+		/**
+		 * The key type to proxy for {@link Kind#MAP}, otherwise <code>null</code>
+		 */
+		final Class<?> keyType;
+
+		ProxyMethod(Method method, String descriptor, Kind kind, String propertyName, Class<?> proxiedType) {
+			this(method, descriptor, kind, propertyName, proxiedType, null);
+		}
+
+		ProxyMethod(Method method, String descriptor, Kind kind, String propertyName, Class<?> proxiedType,
+				Class<?> keyType) {
+			this.method = method;
+			this.name = method.getName();
+			this.descriptor = descriptor;
+			this.kind = kind;
+			this.propertyName = propertyName;
+			this.proxiedType = proxiedType;
+			this.keyType = keyType;
+		}
+
+		boolean isGetter() {
+			return kind != Kind.NON_GETTER;
+		}
+	}
+
+	private static final ProxyModel EMPTY = new ProxyModel(new ProxyMethod[0]);
+
+	private static final ClassValue<ProxyModel> models = new Caches.Cache<ProxyModel>() {
+		protected ProxyModel compute(Class<?> type) {
+			return create(type);
+		}
+	};
+
+	/**
+	 * The methods to override, with the ones declared by subclasses first, each group sorted by name and descriptor
+	 * so that generated classes are deterministic.
+	 */
+	final ProxyMethod[] methods;
+
+	private ProxyModel(ProxyMethod[] methods) {
+		this.methods = methods;
+	}
+
+	/**
+	 * @param clazz the proxied class
+	 * @return the (cached) model of the given class
+	 */
+	static ProxyModel of(Class<?> clazz) {
+		return models.get(clazz);
+	}
+
+	private static ProxyModel create(Class<?> clazz) {
+		if (clazz == Object.class)
+			return EMPTY;
+		/*
+		 * Like the generated proxy classes, interfaces only consider their own methods.
+		 */
+		ProxyModel superModel = clazz.isInterface() || clazz.getSuperclass() == null ? EMPTY
+				: of(clazz.getSuperclass());
+		Method[] declared = clazz.getDeclaredMethods();
+		/*
+		 * The descriptors are computed once up front rather than by the comparator on each comparison. Since '(' sorts
+		 * before all characters of names, sorting by name and descriptor sorts by name first.
+		 */
+		String[] descriptors = new String[declared.length];
+		String[] signatures = new String[declared.length];
+		Integer[] order = new Integer[declared.length];
+		for (int i = 0; i < declared.length; i++) {
+			descriptors[i] = Type.getMethodDescriptor(declared[i]);
+			signatures[i] = declared[i].getName() + descriptors[i];
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparing(i -> signatures[i]));
+		List<ProxyMethod> methods = new ArrayList<>(declared.length + superModel.methods.length);
+		/*
+		 * Also methods which cannot be overridden hide the same methods of superclasses.
+		 */
+		Set<String> declaredSignatures = new HashSet<>();
+		for (int i : order) {
+			Method m = declared[i];
+			if (Modifier.isStatic(m.getModifiers()))
+				continue;
+			declaredSignatures.add(signatures[i]);
+			if (PropertyNameBuilder.canOverwrite(m))
+				methods.add(proxyMethod(m, descriptors[i]));
+		}
+		for (ProxyMethod m : superModel.methods) {
+			if (!declaredSignatures.contains(m.name + m.descriptor))
+				methods.add(m);
+		}
+		return new ProxyModel(methods.toArray(new ProxyMethod[0]));
+	}
+
+	private static ProxyMethod proxyMethod(Method m, String descriptor) {
+		if (!PropertyNameBuilder.isGetter(m))
+			return new ProxyMethod(m, descriptor, Kind.NON_GETTER, null, null);
+		String propertyName = PropertyNameBuilder.propertyName(m);
+		Class<?> ret = m.getReturnType();
+		if (!ret.isPrimitive() && !ret.isArray() && PropertyNameBuilder.canProxy(ret))
+			return new ProxyMethod(m, descriptor, Kind.PROXY, propertyName, ret);
+		if (Collection.class.isAssignableFrom(ret)) {
+			Class<?> elementType = PropertyNameBuilder.collectionElementType(m.getGenericReturnType());
+			if (PropertyNameBuilder.canProxy(elementType))
+				return new ProxyMethod(m, descriptor, Set.class.isAssignableFrom(ret) ? Kind.SET : Kind.LIST,
+						propertyName, elementType);
+		}
+		if (ret.isArray() && PropertyNameBuilder.canProxy(ret.getComponentType()))
+			return new ProxyMethod(m, descriptor, Kind.ARRAY, propertyName, ret.getComponentType());
+		if (ret == Optional.class) {
+			Class<?> elementType = proxiedTypeArgument(m, 0);
+			if (elementType != null)
+				return new ProxyMethod(m, descriptor, Kind.OPTIONAL, propertyName, elementType);
+		}
+		if (Map.class.isAssignableFrom(ret) && ret.isAssignableFrom(Containers.ElementMap.class)) {
+			Class<?> keyType = proxiedTypeArgument(m, 0);
+			Class<?> valueType = proxiedTypeArgument(m, 1);
+			if (keyType != null || valueType != null)
+				return new ProxyMethod(m, descriptor, Kind.MAP, propertyName, valueType, keyType);
+		}
+		return new ProxyMethod(m, descriptor, Kind.LEAF, propertyName, null);
+	}
+
+	/**
+	 * @return the given type argument of the generic return type of the given method, or <code>null</code> if it is
+	 *         not a class that can be proxied
+	 */
+	private static Class<?> proxiedTypeArgument(Method m, int index) {
+		java.lang.reflect.Type t = m.getGenericReturnType();
+		if (!(t instanceof ParameterizedType))
+			return null;
+		java.lang.reflect.Type arg = ((ParameterizedType) t).getActualTypeArguments()[index];
+		return arg instanceof Class && PropertyNameBuilder.canProxy((Class<?>) arg) ? (Class<?>) arg : null;
+	}
+}
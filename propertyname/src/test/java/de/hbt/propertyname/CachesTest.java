@@ -0,0 +1,164 @@
+package de.hbt.propertyname;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Modifier;
+import java.net.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class CachesTest {
+	private static final String UNLOAD_PACKAGE = "de.hbt.propertyname.unload.";
+
+	/**
+	 * Loads the classes of the <code>unload</code> package itself and everything else from the class loader of the tests,
+	 * like the class loader of a web application.
+	 */
+	private static final class ChildFirstClassLoader extends URLClassLoader {
+		ChildFirstClassLoader() {
+			super(new URL[] { CachesTest.class.getProtectionDomain().getCodeSource().getLocation() },
+					CachesTest.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.startsWith(UNLOAD_PACKAGE))
+				return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c == null)
+					c = findClass(name);
+				if (resolve)
+					resolveClass(c);
+				return c;
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Object> ledgerNames(ClassLoader cl) throws Exception {
+		return ((Supplier<List<Object>>) cl.loadClass(UNLOAD_PACKAGE + "LedgerNames").getConstructor().newInstance())
+				.get();
+	}
+
+	private static WeakReference<ClassLoader> useThrowawayClassLoader() throws Exception {
+		try (URLClassLoader cl = new ChildFirstClassLoader()) {
+			assertThat(ledgerNames(cl)).containsExactly("account.holder", "account", "account.holder", "Jane", "Jane");
+			assertThat(PropertyNameBuilder.isProxyGenerated(cl.loadClass(UNLOAD_PACKAGE + "Ledger"))).isTrue();
+			return new WeakReference<>(cl);
+		}
+	}
+
+	static boolean collected(WeakReference<?> ref) throws InterruptedException {
+		for (int i = 0; i < 50 && ref.get() != null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		return ref.get() == null;
+	}
+
+	@Test
+	void throwawayClassLoadersAreCollected() throws Exception {
+		assertThat(collected(useThrowawayClassLoader())).isTrue();
+	}
+
+	@Test
+	void evictedClassLoadersAreCollected() throws Exception {
+		WeakReference<ClassLoader> ref = useThrowawayClassLoader();
+		PropertyNameBuilder.evict(ref.get());
+		assertThat(collected(ref)).isTrue();
+	}
+
+	@Test
+	void evictRemovesTheValuesOfTheClassLoaderOnly() throws Exception {
+		try (URLClassLoader cl = new ChildFirstClassLoader(); URLClassLoader other = new ChildFirstClassLoader()) {
+			ledgerNames(cl);
+			ledgerNames(other);
+			PropertyNameBuilder.evict(cl);
+			assertThat(PropertyNameBuilder.isProxyGenerated(cl.loadClass(UNLOAD_PACKAGE + "Ledger"))).isFalse();
+			assertThat(PropertyNameBuilder.isProxyGenerated(other.loadClass(UNLOAD_PACKAGE + "Ledger"))).isTrue();
+			assertThat(ledgerNames(cl)).containsExactly("account.holder", "account", "account.holder", "Jane", "Jane");
+			PropertyNameBuilder.clear();
+			assertThat(PropertyNameBuilder.isProxyGenerated(other.loadClass(UNLOAD_PACKAGE + "Ledger"))).isFalse();
+			assertThat(ledgerNames(other)).containsExactly("account.holder", "account", "account.holder", "Jane",
+					"Jane");
+		}
+	}
+
+	@Test
+	void evictedProxiesAreCollectedWhileTheirClassLoaderIsAlive() throws Exception {
+		try (URLClassLoader cl = new ChildFirstClassLoader()) {
+			Class<?> ledger = cl.loadClass(UNLOAD_PACKAGE + "Ledger");
+			WeakReference<Class<?>> proxyClass = proxyClassOf(cl, ledger);
+			PropertyNameBuilder.evict(cl);
+			assertThat(collected(proxyClass)).isTrue();
+			assertThat(Caches.tracked(cl)).isEmpty();
+			assertThat(PropertyNameBuilder.isProxyGenerated(ledger)).isFalse();
+			proxyClass = proxyClassOf(cl, ledger);
+			PropertyNameBuilder.clear();
+			assertThat(collected(proxyClass)).isTrue();
+			assertThat(Caches.tracked(cl)).isEmpty();
+			assertThat(PropertyNameBuilder.isProxyGenerated(ledger)).isFalse();
+		}
+	}
+
+	@Test
+	void lookupHelpersExposeNoMembers() throws Exception {
+		try (URLClassLoader cl = new ChildFirstClassLoader()) {
+			ledgerNames(cl);
+			Class<?> helper;
+			try {
+				helper = Class.forName(UNLOAD_PACKAGE + "$$_PropertyNameLookup$"
+						+ Integer.toHexString(System.identityHashCode(PropertyNameBuilder.class)), false, cl);
+			} catch (ClassNotFoundException e) {
+				assumeTrue(false, "No hidden classes before Java 15");
+				return;
+			}
+			assertThat(Modifier.isPublic(helper.getModifiers())).isFalse();
+			assertThat(helper.getDeclaredMethods()).isEmpty();
+			assertThat(helper.getDeclaredFields()).isEmpty();
+		}
+	}
+
+	private static WeakReference<Class<?>> proxyClassOf(ClassLoader cl, Class<?> ledger) throws Exception {
+		assertThat(ledgerNames(cl)).containsExactly("account.holder", "account", "account.holder", "Jane", "Jane");
+		assertThat(Caches.tracked(cl)).contains(ledger);
+		return new WeakReference<>(PropertyNameBuilder.of(ledger).getClass());
+	}
+
+	private static final class TestEntry extends Caches.Entry {
+		private final String name;
+		private final List<String> evicted;
+
+		TestEntry(String name, List<String> evicted) {
+			super(TestEntry.class);
+			this.name = name;
+			this.evicted = evicted;
+		}
+
+		@Override
+		void evict() {
+			evicted.add(name);
+		}
+	}
+
+	@Test
+	void clockEvictsEntriesNotUsedSinceTheyWereLastLookedAt() {
+		List<String> evicted = new ArrayList<>();
+		Caches.Clock clock = new Caches.Clock(2);
+		TestEntry a = new TestEntry("a", evicted);
+		clock.admit(a);
+		clock.admit(new TestEntry("b", evicted));
+		a.used = true;
+		clock.admit(new TestEntry("c", evicted));
+		assertThat(evicted).containsExactly("b");
+		assertThat(a.used).isFalse();
+		clock.admit(new TestEntry("d", evicted));
+		assertThat(evicted).containsExactly("b", "c");
+		assertThat(clock.size()).isEqualTo(2);
+	}
+}
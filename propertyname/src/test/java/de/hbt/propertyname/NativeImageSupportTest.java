@@ -0,0 +1,93 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class NativeImageSupportTest {
+	public static class Invoice {
+		public Debtor getDebtor() {
+			throw new AssertionError();
+		}
+
+		public Map<String, Item> getItemsByCode() {
+			throw new AssertionError();
+		}
+
+		public String getNumber() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Debtor {
+		public String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Item {
+		public Optional<Debtor> getPayer() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Receipt {
+		public Receipt(String number) {
+		}
+
+		public String getNumber() {
+			throw new AssertionError();
+		}
+	}
+
+	private static Class<?> classOf(Getter<Invoice, ?> getter) {
+		return getter.getClass();
+	}
+
+	@Test
+	void resolvesGetterClassesAndTheirReflectedMembers() throws Exception {
+		Class<?> getterClass = classOf(Invoice::getDebtor);
+		assertThat(NativeImageSupport.receiverOf(getterClass)).isEqualTo(Invoice.class);
+		assertThat(NativeImageSupport.reflectedMembers(getterClass)).containsExactly(
+				getterClass.getDeclaredMethod("writeReplace"), Invoice.class.getDeclaredMethod("getDebtor"));
+		String suffix = "";
+		Class<?> capturing = classOf(i -> i.getNumber() + suffix);
+		assertThat(NativeImageSupport.reflectedMembers(capturing)).hasSize(3).anyMatch(m -> m instanceof Field)
+				.anyMatch(m -> m.getName().startsWith("lambda$"));
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> NativeImageSupport.receiverOf(String.class));
+	}
+
+	@Test
+	void findsAllClassesReachableFromProxies() {
+		assertThat(NativeImageSupport.reachableClasses(Invoice.class)).containsExactly(Invoice.class, Debtor.class,
+				Item.class);
+		assertThat(NativeImageSupport.reachableClasses(String.class)).isEmpty();
+	}
+
+	@Test
+	void definesProxyClassesFoundByName() throws Exception {
+		Class<?> proxyClass = NativeImageSupport.defineProxyClass(Debtor.class);
+		assertThat(proxyClass.getName()).isEqualTo(PregeneratedProxies.proxyClassName(Debtor.class));
+		assertThat(Class.forName(proxyClass.getName(), false, Debtor.class.getClassLoader())).isSameAs(proxyClass);
+		assertThat(NativeImageSupport.defineProxyClass(Debtor.class)).isSameAs(proxyClass);
+		assertThat(PropertyNameBuilder.of(Debtor.class)).isExactlyInstanceOf(proxyClass);
+		assertThat(name(of(Invoice::getDebtor).getName())).isEqualTo("debtor.name");
+		assertThat(NativeImageSupport.inImage()).isFalse();
+	}
+
+	@Test
+	void instantiatesProxiesViaTheirConstructor() {
+		Object proxy = NativeImageSupport.newInstance(NativeImageSupport.defineProxyClass(Debtor.class));
+		assertThat(name(((Debtor) proxy).getName())).isEqualTo("name");
+		Class<?> receiptProxy = NativeImageSupport.defineProxyClass(Receipt.class);
+		assertThat(receiptProxy.getDeclaredConstructors()).isEmpty();
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> NativeImageSupport.newInstance(receiptProxy))
+				.withMessageContaining(Receipt.class.getName());
+	}
+}
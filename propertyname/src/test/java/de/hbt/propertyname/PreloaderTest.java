@@ -0,0 +1,90 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+import de.hbt.propertyname.preload.*;
+import de.hbt.propertyname.preload.items.*;
+
+class PreloaderTest {
+	class Order {
+		Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		Set<OrderLine> getLines() {
+			throw new AssertionError();
+		}
+	}
+
+	class Customer {
+		String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	class OrderLine {
+		OrderLine getParent() {
+			throw new AssertionError();
+		}
+
+		Article getArticle() {
+			throw new AssertionError();
+		}
+	}
+
+	interface Article {
+		int getNumber();
+	}
+
+	class Unreachable {
+		Order getOrder() {
+			throw new AssertionError();
+		}
+	}
+
+	final class Invoice {
+		Order getOrder() {
+			throw new AssertionError();
+		}
+	}
+
+	@Test
+	void preloadsAllReachableClasses() throws Exception {
+		preload(Order.class).get(10, TimeUnit.SECONDS);
+		assertThat(isProxyGenerated(Order.class)).isTrue();
+		assertThat(isProxyGenerated(Customer.class)).isTrue();
+		assertThat(isProxyGenerated(OrderLine.class)).isTrue();
+		assertThat(isProxyGenerated(Article.class)).isTrue();
+		assertThat(isProxyGenerated(Unreachable.class)).isFalse();
+		assertThat(name(any(of(Order::getLines)).getArticle().getNumber())).isEqualTo("lines.article.number");
+	}
+
+	@Test
+	void preloadsAllClassesOfPackage() throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			preload(pool, getClass().getClassLoader(), "de.hbt.propertyname.preload").get(10, TimeUnit.SECONDS);
+		} finally {
+			pool.shutdown();
+		}
+		assertThat(isProxyGenerated(Warehouse.class)).isTrue();
+		assertThat(isProxyGenerated(Shelf.class)).isTrue();
+		assertThat(isProxyGenerated(Item.class)).isTrue();
+		assertThat(isProxyGenerated(Supplier.class)).isTrue();
+		assertThat(isProxyGenerated(Receipt.class)).isFalse();
+	}
+
+	@Test
+	void futureCompletesExceptionallyWhenClassCannotBeProxied() {
+		assertThatExceptionOfType(ExecutionException.class)
+				.isThrownBy(() -> preload(Invoice.class).get(10, TimeUnit.SECONDS))
+				.withCauseInstanceOf(PropertyNameException.class);
+	}
+
+}
@@ -0,0 +1,206 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class PropertyAccessorTest {
+	class Order {
+		Customer customer;
+		List<Line> lines = new ArrayList<>();
+		Optional<Customer> payer = Optional.empty();
+		Line[] returns;
+
+		Customer getCustomer() {
+			return customer;
+		}
+
+		List<Line> getLines() {
+			return lines;
+		}
+
+		Optional<Customer> getPayer() {
+			return payer;
+		}
+
+		Line[] getReturns() {
+			return returns;
+		}
+	}
+
+	class Customer {
+		String name;
+		Address address;
+
+		String getName() {
+			return name;
+		}
+
+		Address getAddress() {
+			return address;
+		}
+	}
+
+	class Address {
+		String city;
+
+		String getCity() {
+			return city;
+		}
+	}
+
+	class Line {
+		Article article;
+		int quantity;
+
+		Article getArticle() {
+			return article;
+		}
+
+		int getQuantity() {
+			return quantity;
+		}
+	}
+
+	class Article {
+		Set<Tag> tags = new LinkedHashSet<>();
+		Map<String, Tag> tagsByLabel = new HashMap<>();
+		Map<Tag, Integer> stockByTag = new LinkedHashMap<>();
+		boolean available;
+
+		Set<Tag> getTags() {
+			return tags;
+		}
+
+		Map<String, Tag> getTagsByLabel() {
+			return tagsByLabel;
+		}
+
+		Map<Tag, Integer> getStockByTag() {
+			return stockByTag;
+		}
+
+		boolean isAvailable() {
+			return available;
+		}
+	}
+
+	class Tag {
+		String label;
+
+		String getLabel() {
+			return label;
+		}
+	}
+
+	private Order order() {
+		Order order = new Order();
+		order.customer = new Customer();
+		order.customer.name = "Jane";
+		order.customer.address = new Address();
+		order.customer.address.city = "Hamburg";
+		for (int i = 1; i <= 3; i++) {
+			Line line = new Line();
+			line.quantity = i;
+			line.article = i == 2 ? null : new Article();
+			order.lines.add(line);
+		}
+		order.lines.add(null);
+		Tag tag = new Tag();
+		tag.label = "new";
+		order.lines.get(0).article.tags.add(tag);
+		order.lines.get(0).article.tags.add(new Tag());
+		order.lines.get(2).article.available = true;
+		return order;
+	}
+
+	@Test
+	void readsSingleValuedPaths() {
+		PropertyAccessor<Order> city = accessor(Order.class, path(of(Order::getCustomer).getAddress().getCity()));
+		assertThat(city.isMultiValued()).isFalse();
+		assertThat(city.path()).hasToString("customer.address.city");
+		assertThat(city.apply(order())).isEqualTo("Hamburg");
+		assertThat(accessor(Order.class, "customer.name").apply(order())).isEqualTo("Jane");
+		assertThat(accessor(Order.class, "lines").apply(order())).isInstanceOf(List.class);
+	}
+
+	@Test
+	void returnsNullWhenAPropertyAlongThePathIsNull() {
+		PropertyAccessor<Order> city = accessor(Order.class, "customer.address.city");
+		Order order = order();
+		order.customer.address = null;
+		assertThat(city.apply(order)).isNull();
+		order.customer = null;
+		assertThat(city.apply(order)).isNull();
+		assertThat(city.apply(null)).isNull();
+	}
+
+	@Test
+	void fansOutAcrossCollections() {
+		PropertyAccessor<Order> quantities = accessor(Order.class, path(any(of(Order::getLines)).getQuantity()));
+		assertThat(quantities.isMultiValued()).isTrue();
+		assertThat(quantities.apply(order())).isEqualTo(Arrays.asList(1, 2, 3));
+		assertThat(accessor(Order.class, "lines.article.available").apply(order()))
+				.isEqualTo(Arrays.asList(false, true));
+		assertThat(accessor(Order.class, "lines.article.tags.label").apply(order()))
+				.isEqualTo(Arrays.asList("new", null));
+		Order order = order();
+		order.lines = null;
+		assertThat(quantities.apply(order)).isEqualTo(Collections.emptyList());
+		assertThat(quantities.apply(null)).isEqualTo(Collections.emptyList());
+	}
+
+	@Test
+	void accessorsAreCached() {
+		assertThat(accessor(Order.class, "customer.name"))
+				.isSameAs(accessor(Order.class, path(of(Order::getCustomer).getName())));
+	}
+
+	@Test
+	void unknownPropertiesThrow() {
+		assertThatThrownBy(() -> accessor(Order.class, "customer.nickname")).isInstanceOf(PropertyNameException.class)
+				.hasMessageContaining("nickname");
+		assertThatThrownBy(() -> accessor(Order.class, "customer.name.length"))
+				.isInstanceOf(PropertyNameException.class);
+		assertThatThrownBy(() -> accessor(Order.class, PropertyPath.EMPTY)).isInstanceOf(PropertyNameException.class);
+		assertThatThrownBy(() -> accessor(Order.class, "lines.article.tagsByLabel.label.length"))
+				.isInstanceOf(PropertyNameException.class).hasMessageContaining("Cannot navigate into label");
+		assertThatThrownBy(() -> accessor(Order.class, "lines.article.stockByTag.quantity"))
+				.isInstanceOf(PropertyNameException.class).hasMessageContaining("No property quantity");
+	}
+
+	@Test
+	void fansOutAcrossMapsOptionalsAndArrays() {
+		Order order = order();
+		Article article = order.lines.get(0).article;
+		for (Tag tag : article.tags) {
+			article.tagsByLabel.put(String.valueOf(tag.label), tag);
+			article.stockByTag.put(tag, 1);
+		}
+		order.lines.get(2).article.tagsByLabel.put("none", null);
+		PropertyAccessor<Order> values = accessor(Order.class, "lines.article.tagsByLabel.label");
+		assertThat(values.isMultiValued()).isTrue();
+		assertThat(values.apply(order)).isEqualTo(Arrays.asList("new", null));
+		PropertyAccessor<Order> keys = accessor(Order.class,
+				path(anyKey(any(of(Order::getLines)).getArticle().getStockByTag()).getLabel()));
+		assertThat(keys.path()).hasToString("lines.article.stockByTag.label");
+		assertThat(keys.apply(order)).isEqualTo(Arrays.asList("new", null));
+
+		PropertyAccessor<Order> payer = accessor(Order.class, path(anyElement(of(Order::getPayer)).getName()));
+		assertThat(payer.isMultiValued()).isTrue();
+		assertThat(payer.apply(order)).isEqualTo(Collections.emptyList());
+		order.payer = Optional.of(order.customer);
+		assertThat(payer.apply(order)).isEqualTo(Arrays.asList("Jane"));
+
+		PropertyAccessor<Order> returned = accessor(Order.class, "returns.quantity");
+		assertThat(returned.apply(order)).isEqualTo(Collections.emptyList());
+		order.returns = new Line[] { order.lines.get(2), null, order.lines.get(0) };
+		assertThat(returned.apply(order)).isEqualTo(Arrays.asList(3, 1));
+		assertThat(accessor(Order.class, "returns.article.tags.label").apply(order))
+				.isEqualTo(Arrays.asList("new", null));
+	}
+
+}
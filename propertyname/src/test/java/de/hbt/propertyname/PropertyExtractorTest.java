@@ -0,0 +1,160 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class PropertyExtractorTest {
+	class Contract {
+		Customer customer;
+		long price;
+		List<Position> positions = new ArrayList<>();
+		Map<String, Position> positionsByArticle = new LinkedHashMap<>();
+		Optional<Customer> guarantor = Optional.empty();
+		Position[] options;
+		int customerCalls;
+
+		Customer getCustomer() {
+			customerCalls++;
+			return customer;
+		}
+
+		long getPrice() {
+			return price;
+		}
+
+		List<Position> getPositions() {
+			return positions;
+		}
+
+		Map<String, Position> getPositionsByArticle() {
+			return positionsByArticle;
+		}
+
+		Optional<Customer> getGuarantor() {
+			return guarantor;
+		}
+
+		Position[] getOptions() {
+			return options;
+		}
+	}
+
+	class Customer {
+		String name;
+		Address address;
+
+		String getName() {
+			return name;
+		}
+
+		Address getAddress() {
+			return address;
+		}
+	}
+
+	class Address {
+		int zip;
+
+		int getZip() {
+			return zip;
+		}
+	}
+
+	class Position {
+		int quantity;
+
+		int getQuantity() {
+			return quantity;
+		}
+	}
+
+	private Contract contract(String name, int zip, long price, int... quantities) {
+		Contract contract = new Contract();
+		contract.price = price;
+		if (name != null) {
+			contract.customer = new Customer();
+			contract.customer.name = name;
+			contract.customer.address = new Address();
+			contract.customer.address.zip = zip;
+		}
+		for (int quantity : quantities) {
+			Position position = new Position();
+			position.quantity = quantity;
+			contract.positions.add(position);
+		}
+		return contract;
+	}
+
+	private PropertyExtractor<Contract> contractExtractor() {
+		return extractor(Contract.class, path(of(Contract::getCustomer).getName()), pathOf(Contract::getPrice),
+				path(of(Contract::getCustomer).getAddress().getZip()), path(any(of(Contract::getPositions)).getQuantity()),
+				pathOf(Contract::getCustomer));
+	}
+
+	@Test
+	void extractsRowsCallingSharedGettersOnce() {
+		PropertyExtractor<Contract> extractor = contractExtractor();
+		assertThat(extractor.paths()).extracting(PropertyPath::toString).containsExactly("customer.name", "price",
+				"customer.address.zip", "positions.quantity", "customer");
+		Contract contract = contract("Jane", 20095, 42, 1, 2);
+		assertThat(extractor.extract(contract)).containsExactly("Jane", 42L, 20095, Arrays.asList(1, 2),
+				contract.customer);
+		assertThat(contract.customerCalls).isEqualTo(1);
+	}
+
+	@Test
+	void reusedRowsAreOverwritten() {
+		PropertyExtractor<Contract> extractor = contractExtractor();
+		Object[] row = new Object[5];
+		assertThat(extractor.extract(contract("Jane", 20095, 42, 1), row)).isSameAs(row);
+		extractor.extract(contract(null, 0, 7), row);
+		assertThat(row).containsExactly(null, 7L, null, Collections.emptyList(), null);
+		extractor.extract(null, row);
+		assertThat(row).containsExactly(null, null, null, Collections.emptyList(), null);
+	}
+
+	@Test
+	void extractsPrimitiveColumns() {
+		PropertyExtractor<Contract> extractor = contractExtractor();
+		Object[] columns = extractor.extractColumns(
+				Arrays.asList(contract("Jane", 20095, 42), contract(null, 0, 7, 3), contract("John", 10115, 1)));
+		assertThat((Object[]) columns[0]).containsExactly("Jane", null, "John");
+		assertThat((long[]) columns[1]).containsExactly(42, 7, 1);
+		assertThat((int[]) columns[2]).containsExactly(20095, 0, 10115);
+		assertThat((Object[]) columns[3]).containsExactly(Collections.emptyList(), Arrays.asList(3),
+				Collections.emptyList());
+	}
+
+	@Test
+	void valuesAreTheOnesOfAccessors() {
+		Contract contract = contract("Jane", 20095, 42, 1, 2);
+		PropertyExtractor<Contract> extractor = extractor(Contract.class, "positions.quantity", "customer.address",
+				"customer.address.zip");
+		Object[] row = extractor.extract(contract);
+		for (int i = 0; i < row.length; i++)
+			assertThat(row[i]).isEqualTo(accessor(Contract.class, extractor.paths().get(i)).apply(contract));
+		assertThat(extractor(Contract.class, "positions.quantity", "customer.address", "customer.address.zip"))
+				.isSameAs(extractor);
+	}
+
+	@Test
+	void fansOutAcrossMapsOptionalsAndArrays() {
+		Contract contract = contract("Jane", 20095, 42, 1, 2);
+		contract.positionsByArticle.put("a", contract.positions.get(1));
+		contract.guarantor = Optional.of(contract.customer);
+		contract.options = new Position[] { contract.positions.get(0) };
+		PropertyExtractor<Contract> extractor = extractor(Contract.class, "positionsByArticle.quantity",
+				"guarantor.address.zip", "options.quantity", "customer.name");
+		assertThat(extractor.extract(contract)).containsExactly(Arrays.asList(2), Arrays.asList(20095),
+				Arrays.asList(1), "Jane");
+		contract.guarantor = Optional.empty();
+		contract.options = null;
+		assertThat(extractor.extract(contract)).containsExactly(Arrays.asList(2), Collections.emptyList(),
+				Collections.emptyList(), "Jane");
+	}
+
+}
@@ -0,0 +1,491 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.*;
+import org.junit.jupiter.params.provider.*;
+
+class PropertyNameBuilderTest {
+	abstract class AbstractEntity<T extends Number> {
+		AbstractEntity() {
+			throw new AssertionError();
+		}
+
+		T getVersion() {
+			throw new AssertionError();
+		}
+
+		boolean isArchived() {
+			throw new AssertionError();
+		}
+
+		@Override
+		public String toString() {
+			throw new AssertionError();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			throw new AssertionError();
+		}
+
+		@Override
+		public int hashCode() {
+			throw new AssertionError();
+		}
+	}
+
+	class Address extends AbstractEntity<Byte> {
+		Address() {
+			throw new AssertionError();
+		}
+
+		boolean isArchived() {
+			throw new AssertionError();
+		}
+
+		String getCity() {
+			throw new AssertionError();
+		}
+
+		List<Integer> getNumbers() {
+			throw new AssertionError();
+		}
+	}
+
+	class BusinessPartner extends AbstractEntity<Short> {
+		BusinessPartner() {
+			throw new AssertionError();
+		}
+
+		String getLegalName() {
+			throw new AssertionError();
+		}
+
+		Set<Address> getAddresses() {
+			throw new AssertionError();
+		}
+
+		String getAcronym() {
+			throw new AssertionError();
+		}
+	}
+
+	class ContractPosition extends AbstractEntity<Integer> {
+		ContractPosition() {
+			throw new AssertionError();
+		}
+
+		BigDecimal getPrice() {
+			throw new AssertionError();
+		}
+	}
+
+	interface Shipment {
+		Address getDestination();
+	}
+
+	class Contract extends AbstractEntity<Long> {
+		Contract() {
+			throw new AssertionError();
+		}
+
+		Long getVersion() {
+			throw new AssertionError();
+		}
+
+		Shipment getShipment() {
+			throw new AssertionError();
+		}
+
+		BusinessPartner getCustomer() {
+			throw new AssertionError();
+		}
+
+		List<ContractPosition> getPositions() {
+			throw new AssertionError();
+		}
+
+		Date getCreationDay() {
+			throw new AssertionError();
+		}
+
+		Map<String, ContractPosition> getPositionsByProduct() {
+			throw new AssertionError();
+		}
+
+		Map<BusinessPartner, BigDecimal> getDiscounts() {
+			throw new AssertionError();
+		}
+
+		Optional<BusinessPartner> getGuarantor() {
+			throw new AssertionError();
+		}
+
+		BusinessPartner[] getSignatories() {
+			throw new AssertionError();
+		}
+	}
+
+	class SalesContract extends Contract {
+		SalesContract() {
+			throw new AssertionError();
+		}
+
+		String nonGetterMethod() {
+			throw new AssertionError();
+		}
+
+		private String getPrivateMember() {
+			throw new AssertionError("Private methods not supported");
+		}
+
+		final int getFinalA() {
+			throw new AssertionError();
+		}
+	}
+
+	class ExtendedSalesContract extends SalesContract {
+		ExtendedSalesContract() {
+			throw new AssertionError();
+		}
+
+		@Override
+		String nonGetterMethod() {
+			throw new AssertionError();
+		}
+
+		@Override
+		BusinessPartner getCustomer() {
+			throw new AssertionError();
+		}
+	}
+
+	final class FinalContract extends Contract {
+		int getSomeProperty() {
+			throw new AssertionError();
+		}
+	}
+
+	class Product {
+		Product() {
+			throw new AssertionError();
+		}
+
+		Manufacturer getManufacturer() {
+			throw new AssertionError();
+		}
+	}
+
+	class Manufacturer {
+		Manufacturer() {
+			throw new AssertionError();
+		}
+
+		String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	public static class Detached {
+		public String getName() {
+			throw new AssertionError();
+		}
+
+		public Detached getParent() {
+			throw new AssertionError();
+		}
+	}
+
+	/**
+	 * Loads {@link Detached} itself instead of delegating to the parent class loader.
+	 */
+	static class ThrowawayClassLoader extends ClassLoader {
+		ThrowawayClassLoader() {
+			super(PropertyNameBuilderTest.class.getClassLoader());
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (!name.equals(Detached.class.getName()))
+				return super.loadClass(name, resolve);
+			synchronized (getClassLoadingLock(name)) {
+				Class<?> c = findLoadedClass(name);
+				if (c != null)
+					return c;
+				try (InputStream is = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					byte[] buffer = new byte[4096];
+					for (int n; (n = is.read(buffer)) > 0;)
+						bytes.write(buffer, 0, n);
+					return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+				} catch (IOException e) {
+					throw new ClassNotFoundException(name, e);
+				}
+			}
+		}
+	}
+
+	static Object[][] testSource() {
+		return new Object[][] {
+			{name(of(Contract::getCustomer).getLegalName()), "customer.legalName"},
+			{name(of((Contract c) -> c.getCustomer().getLegalName())), "customer.legalName"},
+			{name(of(Contract::getCustomer).getAddresses()), "customer.addresses"},
+			{name(of(Contract::getCustomer).getVersion()), "customer.version"},
+			{name(of(Contract::getShipment).getDestination()), "shipment.destination"},
+			{name(of((Contract c) -> c.getShipment()).getDestination()), "shipment.destination"},
+			{nameOf(Contract::getVersion), "version"},
+			{nameOf((Contract c) -> c.getVersion()), "version"},
+			{nameOf(Contract::getCustomer), "customer"},
+			{nameOf(Contract::getShipment), "shipment"},
+			{nameOf(Contract::getPositions), "positions"},
+			{nameOf(Contract::getCreationDay), "creationDay"},
+			{name(any(of(Contract::getCustomer).getAddresses()).getCity()), "customer.addresses.city"},
+			{name(any(of((Contract c) -> c.getCustomer().getAddresses())).getCity()), "customer.addresses.city"},
+			{name(any(of(Contract::getCustomer).getAddresses()).getNumbers()), "customer.addresses.numbers"},
+			{nameOf(Contract::isArchived), "archived"},
+			{name(of(SalesContract::getCustomer).getAcronym()), "customer.acronym"},
+			{name(any(of(SalesContract::getPositions)).getPrice()), "positions.price"}
+		};
+	}
+
+	@ParameterizedTest
+	@MethodSource("testSource")
+	void testNameOf(String actual, String expected) {
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	void callingMethodsOnFinalClassThrows() {
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> nameOf(FinalContract::getSomeProperty))
+				.withMessage("Final classes are unsupported: " +
+						"de.hbt.propertyname.PropertyNameBuilderTest$FinalContract");
+	}
+
+	@Test
+	void callingFinalMethodsThrows() {
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> nameOf(SalesContract::getFinalA))
+				.withMessage("Final methods are unsupported: " +
+						"final int de.hbt.propertyname.PropertyNameBuilderTest$SalesContract.getFinalA()");
+	}
+
+	@Test
+	void methodOnObjectThrows() {
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> nameOf((Function<Object, ?>) Object::getClass))
+				.withMessage("Methods declared by Object are unsupported: " +
+						"public java.lang.Object()");
+	}
+
+	@Test
+	void getterOfMethodOnObjectThrows() {
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> nameOf(Object::getClass))
+				.withMessage("Methods declared by Object are unsupported: " +
+						"public final native java.lang.Class java.lang.Object.getClass()");
+	}
+
+	@Test
+	void plainFunctionsAreResolvedViaConstantPool() {
+		Function<Contract, Long> version = Contract::getVersion;
+		Function<Contract, BusinessPartner> customer = Contract::getCustomer;
+		Function<SalesContract, List<ContractPosition>> positions = SalesContract::getPositions;
+		assertThat(nameOf(version)).isEqualTo("version");
+		assertThat(name(of(customer).getLegalName())).isEqualTo("customer.legalName");
+		assertThat(name(any(of(positions)).getPrice())).isEqualTo("positions.price");
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> nameOf((Function<FinalContract, Integer>) FinalContract::getSomeProperty))
+				.withMessage("Final classes are unsupported: " +
+						"de.hbt.propertyname.PropertyNameBuilderTest$FinalContract");
+	}
+
+	@Test
+	void mapsOptionalsAndArraysCanBeNavigated() {
+		assertThat(name(anyValue(of(Contract::getPositionsByProduct)).getPrice())).isEqualTo("positionsByProduct.price");
+		assertThat(name(anyKey(of(Contract::getDiscounts)).getLegalName())).isEqualTo("discounts.legalName");
+		assertThat(anyValue(of(Contract::getDiscounts))).isNull();
+		assertThat(anyKey(of(Contract::getPositionsByProduct))).isNull();
+		name(null);
+		assertThat(name(anyElement(of(Contract::getGuarantor)).getAcronym())).isEqualTo("guarantor.acronym");
+		assertThat(name(any(anyElement(of(Contract::getSignatories)).getAddresses()).getCity()))
+				.isEqualTo("signatories.addresses.city");
+		assertThat(nameOf(Contract.class, c -> anyValue(c.getPositionsByProduct()).getPrice()))
+				.isEqualTo("positionsByProduct.price");
+		assertThat(nameOf(Contract.class, c -> anyElement(c.getSignatories()).getLegalName()))
+				.isEqualTo("signatories.legalName");
+	}
+
+	@Test
+	void containersAreCachedAndHoldTheSameProxy() {
+		Contract contract = of(Contract.class);
+		assertThat(contract.getPositionsByProduct()).isSameAs(contract.getPositionsByProduct()).hasSize(1);
+		assertThat(contract.getSignatories()).hasSize(1).isSameAs(contract.getSignatories());
+		assertThat(contract.getGuarantor()).containsSame(of(BusinessPartner.class));
+		assertThat(any(contract.getCustomer().getAddresses())).isSameAs(of(Address.class))
+				.isSameAs(contract.getCustomer().getAddresses().iterator().next());
+		assertThat(any(contract.getPositions())).isSameAs(contract.getPositions().get(0));
+		name(null);
+	}
+
+	@Test
+	void namesOfSeveralGettersAreReturnedInOrder() {
+		assertThat(names(Contract::getVersion, Contract::getCustomer, Contract::isArchived, Contract::getPositions))
+				.containsExactly("version", "customer", "archived", "positions");
+		assertThat(paths(Contract::getShipment, Contract::getVersion))
+				.containsExactly(pathOf(Contract::getShipment), pathOf(Contract::getVersion));
+		Function<Contract, Long> version = Contract::getVersion;
+		Function<SalesContract, List<ContractPosition>> positions = SalesContract::getPositions;
+		assertThat(names(version, positions)).containsExactly("version", "positions");
+		assertThat(names()).isEmpty();
+		for (boolean customer : new boolean[] { false, true, false }) {
+			assertThat(names(Contract::getPositions, (Contract c) -> customer ? c.getCustomer() : c.getVersion()))
+					.containsExactly("positions", customer ? "customer" : "version");
+		}
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> names(FinalContract::getSomeProperty))
+				.withMessage("Final classes are unsupported: " +
+						"de.hbt.propertyname.PropertyNameBuilderTest$FinalContract");
+	}
+
+	@Test
+	void gettersOfSuperclassMethodsResolveToTheReferencedSubclass() {
+		assertThat(name(of(SalesContract::getCustomer).getAcronym())).isEqualTo("customer.acronym");
+		Getter<SalesContract, Long> version = SalesContract::getVersion;
+		assertThat(nameOf(version)).isEqualTo("version");
+	}
+
+	@Test
+	void callingNonGetterMethodThrowsUOE() {
+		assertThatExceptionOfType(UnsupportedOperationException.class)
+				.isThrownBy(() -> nameOf(SalesContract::nonGetterMethod))
+				.withMessage("Non-getter method called: nonGetterMethod");
+	}
+
+	@Test
+	void overriddenMethodsOfSuperclassesAreProxiedOnce() {
+		assertThat(nameOf(ExtendedSalesContract::getCustomer)).isEqualTo("customer");
+		assertThat(name(of(ExtendedSalesContract::getCustomer).getLegalName())).isEqualTo("customer.legalName");
+		assertThat(name(of(ExtendedSalesContract.class).getShipment().getDestination())).isEqualTo("shipment.destination");
+		assertThatExceptionOfType(UnsupportedOperationException.class)
+				.isThrownBy(() -> nameOf(ExtendedSalesContract::nonGetterMethod))
+				.withMessage("Non-getter method called: nonGetterMethod");
+	}
+
+	interface Tracked {
+		Address getDestination();
+
+		void track(String event);
+	}
+
+	@Test
+	void abstractNonGetterMethodsThrowUOE() {
+		Tracked tracked = of(Tracked.class);
+		assertThat(name(tracked.getDestination().getCity())).isEqualTo("destination.city");
+		assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> tracked.track("shipped"))
+				.withMessage("Non-getter method called: track");
+	}
+
+	@Test
+	void callingPrivateMethodsWillNotBeIntercepted() {
+		assertThatExceptionOfType(AssertionError.class)
+				.isThrownBy(() -> nameOf(SalesContract::getPrivateMember))
+				.withMessage("Private methods not supported");
+	}
+
+	@Test
+	void concurrentFirstAccessGeneratesSingleProxy() throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					barrier.await();
+					Object manufacturer = of(Product::getManufacturer);
+					assertThat(name(manufacturer)).isEqualTo("manufacturer");
+					return manufacturer;
+				}));
+			}
+			Object first = results.get(0).get();
+			for (Future<Object> result : results) {
+				assertThat(result.get()).isSameAs(first);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void recordingKnownPathsDoesNotAllocate() {
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+				"No per-thread allocation counters");
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+				"No per-thread allocation counters");
+		long thread = Thread.currentThread().getId();
+		int length = 0;
+		for (int i = 0; i < 100_000; i++)
+			length += recordKnownPaths();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < 100_000; i++)
+			length += recordKnownPaths();
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+		assertThat(length).isEqualTo(200_000 * 58);
+		/* Less than a byte per call, leaving room for the measurement itself */
+		assertThat(allocated).isLessThan(100_000);
+	}
+
+	private static int recordKnownPaths() {
+		return name(of(Contract::getCustomer).getLegalName()).length()
+				+ name(any(of(Contract::getPositions)).getPrice()).length()
+				+ name(of(Contract::getShipment).getDestination().getCity()).length();
+	}
+
+	@Test
+	void proxiesAreCollectedWithTheirClassLoader() throws Exception {
+		WeakReference<Class<?>> proxyClass = proxyClassInThrowawayClassLoader();
+		for (int i = 0; i < 50 && proxyClass.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertThat(proxyClass.get()).isNull();
+	}
+
+	@Test
+	void proxiesAreHiddenClassesWhenSupported() throws Exception {
+		Method isHidden;
+		try {
+			isHidden = Class.class.getMethod("isHidden");
+		} catch (NoSuchMethodException e) {
+			assumeTrue(false, "No hidden classes before Java 15");
+			return;
+		}
+		assertThat(isHidden.invoke(of(Detached.class).getClass())).isEqualTo(true);
+	}
+
+	private static WeakReference<Class<?>> proxyClassInThrowawayClassLoader() throws Exception {
+		Class<?> detached = new ThrowawayClassLoader().loadClass(Detached.class.getName());
+		assertThat(detached).isNotSameAs(Detached.class);
+		Object proxy = of(detached);
+		assertThat(name(detached.getMethod("getName").invoke(proxy))).isEqualTo("name");
+		assertThat(name(detached.getMethod("getParent").invoke(proxy))).isEqualTo("parent");
+		return new WeakReference<>(proxy.getClass());
+	}
+
+}
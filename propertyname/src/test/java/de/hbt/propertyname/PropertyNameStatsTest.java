@@ -0,0 +1,132 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.*;
+
+/**
+ * Runs with statistics enabled via the system property set in the surefire configuration.
+ */
+class PropertyNameStatsTest {
+	class Invoice {
+		Debtor getDebtor() {
+			throw new AssertionError();
+		}
+	}
+
+	class Debtor {
+		String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	class Reminder {
+		Invoice getInvoice() {
+			throw new AssertionError();
+		}
+	}
+
+	class Dunning {
+		Reminder getReminder() {
+			throw new AssertionError();
+		}
+	}
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void countsCacheHitsAndMissesAndGeneratedClasses() {
+		assertThat(PropertyNameStats.isEnabled()).isTrue();
+		Getter<Invoice, Debtor> debtor = Invoice::getDebtor;
+		PropertyNameStats before = PropertyNameStats.snapshot();
+		assertThat(nameOf(debtor)).isEqualTo("debtor");
+		PropertyNameStats afterMiss = PropertyNameStats.snapshot();
+		assertThat(afterMiss.getNameCacheMisses() - before.getNameCacheMisses()).isEqualTo(1);
+		assertThat(afterMiss.getResolutionCacheMisses() - before.getResolutionCacheMisses()).isEqualTo(1);
+		// Invoice and Debtor, whose proxy the getter of the Invoice proxy creates
+		assertThat(afterMiss.getProxyCacheMisses() - before.getProxyCacheMisses()).isEqualTo(2);
+		assertThat(afterMiss.getGeneratedClasses() - before.getGeneratedClasses()).isEqualTo(2);
+		assertThat(afterMiss.getGeneratedBytes()).isGreaterThan(before.getGeneratedBytes());
+		assertThat(afterMiss.getProxyGenerationNanos()).isGreaterThan(before.getProxyGenerationNanos());
+		assertThat(afterMiss.getResolutionNanos()).isGreaterThan(before.getResolutionNanos());
+
+		assertThat(nameOf(debtor)).isEqualTo("debtor");
+		assertThat(name(of(debtor).getName())).isEqualTo("debtor.name");
+		PropertyNameStats afterHit = PropertyNameStats.snapshot();
+		assertThat(afterHit.getNameCacheHits() - afterMiss.getNameCacheHits()).isEqualTo(1);
+		assertThat(afterHit.getResolutionCacheHits() - afterMiss.getResolutionCacheHits()).isEqualTo(1);
+		assertThat(afterHit.getProxyCacheHits() - afterMiss.getProxyCacheHits()).isEqualTo(1);
+		assertThat(afterHit.getGeneratedClasses()).isEqualTo(afterMiss.getGeneratedClasses());
+	}
+
+	@Test
+	void countsResolutionsOfPlainFunctions() {
+		Function<Debtor, String> name = Debtor::getName;
+		PropertyNameStats before = PropertyNameStats.snapshot();
+		of(name);
+		of(name);
+		PropertyNameStats after = PropertyNameStats.snapshot();
+		assertThat(after.getResolutionCacheMisses() - before.getResolutionCacheMisses()).isEqualTo(1);
+		assertThat(after.getResolutionCacheHits() - before.getResolutionCacheHits()).isEqualTo(1);
+	}
+
+	@Test
+	void callSitesOfTheSameMethodShareOneName() {
+		Getter<Dunning, Reminder> first = Dunning::getReminder;
+		Getter<Dunning, Reminder> second = Dunning::getReminder;
+		Function<Dunning, Reminder> third = Dunning::getReminder;
+		assertThat(first.getClass()).isNotEqualTo(second.getClass());
+		PropertyNameStats before = PropertyNameStats.snapshot();
+		PropertyPath path = pathOf(first);
+		assertThat(pathOf(second)).isSameAs(path);
+		assertThat(pathOf(third)).isSameAs(path);
+		PropertyNameStats after = PropertyNameStats.snapshot();
+		assertThat(after.getNameCacheMisses() - before.getNameCacheMisses()).isEqualTo(1);
+		assertThat(after.getNameCacheHits() - before.getNameCacheHits()).isEqualTo(2);
+	}
+
+	@Test
+	void statsAreExposedAsMXBean() throws Exception {
+		nameOf(Debtor::getName);
+		Object hits = ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName(PropertyNameStats.OBJECT_NAME), "ProxyCacheMisses");
+		assertThat((Long) hits).isGreaterThan(0L);
+	}
+
+	@Test
+	void emitsFlightRecorderEvents() throws Exception {
+		assumeTrue(Metrics.JFR, "No JDK Flight Recorder");
+		Path file = directory.resolve("recording.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("de.hbt.propertyname.ProxyGeneration").withoutThreshold();
+			recording.enable("de.hbt.propertyname.LambdaResolution").withoutThreshold();
+			recording.start();
+			nameOf(Reminder::getInvoice);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		assertThat(events.stream().map(e -> e.getEventType().getName()).collect(Collectors.toList()))
+				.contains("de.hbt.propertyname.ProxyGeneration", "de.hbt.propertyname.LambdaResolution");
+		RecordedEvent generation = events.stream()
+				.filter(e -> e.getEventType().getName().equals("de.hbt.propertyname.ProxyGeneration")).findFirst().get();
+		assertThat(generation.getClass("proxiedClass").getName()).isEqualTo(Reminder.class.getName());
+		assertThat(generation.getInt("bytes")).isGreaterThan(0);
+	}
+
+}
@@ -0,0 +1,169 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.annotation.*;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class PropertyNamingTest {
+	@Retention(RetentionPolicy.RUNTIME)
+	@interface Column {
+		String name() default "";
+	}
+
+	class Order {
+		@Column(name = "ORDER_NO")
+		long getOrderNumber() {
+			throw new AssertionError();
+		}
+
+		Address getBillingAddress() {
+			throw new AssertionError();
+		}
+
+		List<OrderLine> getOrderLines() {
+			throw new AssertionError();
+		}
+
+		Map<String, OrderLine> getLinesByArticle() {
+			throw new AssertionError();
+		}
+
+		Optional<Address> getShippingAddress() {
+			throw new AssertionError();
+		}
+	}
+
+	class Address {
+		@Column
+		private String zipCode;
+
+		@Column(name = "TOWN")
+		private String city;
+
+		String getZipCode() {
+			throw new AssertionError();
+		}
+
+		String getCity() {
+			throw new AssertionError();
+		}
+	}
+
+	class OrderLine {
+		String getUnitPrice() {
+			throw new AssertionError();
+		}
+	}
+
+	@Test
+	void namesAndStyleAreAppliedToRecordedPaths() {
+		PropertyNaming json = PropertyNaming.with(NamingStrategy.SNAKE_CASE, PathStyle.JSON_POINTER);
+		assertThat(json.nameOf(Order::getOrderNumber)).isEqualTo("/order_number");
+		assertThat(json.name(json.of(Order::getBillingAddress).getZipCode())).isEqualTo("/billing_address/zip_code");
+		assertThat(json.name(any(json.of(Order::getOrderLines)).getUnitPrice())).isEqualTo("/order_lines/unit_price");
+		assertThat(json.path(anyElement(json.of(Order::getShippingAddress)).getCity()).segments())
+				.containsExactly("shipping_address", "city");
+		assertThat(nameOf(Order::getOrderNumber)).isEqualTo("orderNumber");
+		assertThat(name(of(Order::getBillingAddress).getZipCode())).isEqualTo("billingAddress.zipCode");
+	}
+
+	@Test
+	void segmentsOfContainersAreMarked() {
+		PropertyNaming marked = PropertyNaming.with(NamingStrategy.BEAN, PathStyle.DOTS_WITH_ELEMENT_MARKERS);
+		assertThat(marked.name(any(marked.of(Order::getOrderLines)).getUnitPrice()))
+				.isEqualTo("orderLines[].unitPrice");
+		assertThat(marked.name(anyValue(marked.of(Order::getLinesByArticle)).getUnitPrice()))
+				.isEqualTo("linesByArticle[].unitPrice");
+		assertThat(marked.name(anyElement(marked.of(Order::getShippingAddress)).getCity()))
+				.isEqualTo("shippingAddress.city");
+	}
+
+	@Test
+	void namesAreTakenFromAnnotations() {
+		PropertyNaming columns = PropertyNaming
+				.with(NamingStrategy.annotated(Column.class, "name", NamingStrategy.SNAKE_CASE), PathStyle.DOTS);
+		assertThat(columns.nameOf(Order::getOrderNumber)).isEqualTo("ORDER_NO");
+		assertThat(columns.name(columns.of(Order::getBillingAddress).getCity())).isEqualTo("billing_address.TOWN");
+		assertThat(columns.name(columns.of(Order::getBillingAddress).getZipCode()))
+				.isEqualTo("billing_address.zip_code");
+		assertThatExceptionOfType(PropertyNameException.class)
+				.isThrownBy(() -> NamingStrategy.annotated(Column.class, "value", NamingStrategy.BEAN));
+	}
+
+	@Test
+	void namingsAreInternedAndKeepTheirPathsApart() {
+		PropertyNaming json = PropertyNaming.with(NamingStrategy.BEAN, PathStyle.JSON_POINTER);
+		assertThat(PropertyNaming.with(NamingStrategy.BEAN, PathStyle.JSON_POINTER)).isSameAs(json);
+		assertThat(PropertyNaming.with(NamingStrategy.BEAN, PathStyle.DOTS)).isNotSameAs(json);
+		PropertyPath pointer = json.path(json.of(Order::getBillingAddress).getCity());
+		assertThat(pointer).hasToString("/billingAddress/city")
+				.isSameAs(json.path(json.of(Order::getBillingAddress).getCity()))
+				.isNotEqualTo(path(of(Order::getBillingAddress).getCity()));
+		assertThat(pointer.parent()).isEqualTo(json.pathOf(Order::getBillingAddress))
+				.isSameAs(json.pathOf(Order::getBillingAddress));
+		assertThat(pointer.segments()).isEqualTo(path(of(Order::getBillingAddress).getCity()).segments());
+	}
+
+	@Test
+	void namingsWithEqualStrategiesAreInternedAsOne() {
+		NamingStrategy columns = NamingStrategy.annotated(Column.class, "name", NamingStrategy.SNAKE_CASE);
+		NamingStrategy other = NamingStrategy.annotated(Column.class, "name", NamingStrategy.SNAKE_CASE);
+		assertThat(other).isNotSameAs(columns).isEqualTo(columns).hasSameHashCodeAs(columns)
+				.isNotEqualTo(NamingStrategy.annotated(Column.class, "name", NamingStrategy.BEAN));
+		PropertyNaming naming = PropertyNaming.with(columns, PathStyle.DOTS);
+		assertThat(PropertyNaming.with(other, PathStyle.DOTS)).isSameAs(naming);
+		assertThat(PropertyNaming.with(other, PathStyle.JSON_POINTER).strategy()).isSameAs(naming.strategy());
+	}
+
+	@Test
+	void unusedNamingsAreCollected() throws Exception {
+		WeakReference<PropertyNaming> ref = usePrefixedNaming("collected.");
+		int id = ref.get().id;
+		assertThat(CachesTest.collected(ref)).isTrue();
+		PropertyNaming.with(NamingStrategy.BEAN, PathStyle.DOTS);
+		assertThatExceptionOfType(PropertyNameException.class).isThrownBy(() -> PropertyNaming.byId(id));
+	}
+
+	@Test
+	void clearAndEvictStopInterningNamings() {
+		NamingStrategy strategy = NamingStrategy.annotated(Column.class, "name", NamingStrategy.BEAN);
+		PropertyNaming naming = PropertyNaming.with(strategy, PathStyle.DOTS);
+		PropertyNameBuilder.clear();
+		PropertyNaming cleared = PropertyNaming.with(strategy, PathStyle.DOTS);
+		assertThat(cleared).isNotSameAs(naming);
+		assertThat(naming.name(naming.of(Order::getBillingAddress).getCity())).isEqualTo("billingAddress.TOWN");
+		PropertyNameBuilder.evict(Column.class.getClassLoader());
+		assertThat(PropertyNaming.with(strategy, PathStyle.DOTS)).isNotSameAs(cleared);
+		assertThat(PropertyNaming.with(NamingStrategy.SNAKE_CASE, PathStyle.DOTS))
+				.isSameAs(PropertyNaming.with(NamingStrategy.SNAKE_CASE, PathStyle.DOTS));
+	}
+
+	private static WeakReference<PropertyNaming> usePrefixedNaming(String prefix) {
+		PropertyNaming naming = PropertyNaming.with((getter, beanName) -> prefix + beanName, PathStyle.DOTS);
+		assertThat(naming.name(any(naming.of(Order::getOrderLines)).getUnitPrice()))
+				.isEqualTo("collected.orderLines.collected.unitPrice");
+		assertThat(naming.nameOf(Order::getOrderNumber)).isEqualTo("collected.orderNumber");
+		return new WeakReference<>(naming);
+	}
+
+	@Test
+	void jsonPointersEscapeSegments() {
+		PropertyNaming escaped = PropertyNaming.with((getter, beanName) -> "a/" + beanName + "~",
+				PathStyle.JSON_POINTER);
+		assertThat(escaped.name(escaped.of(Order::getBillingAddress).getCity()))
+				.isEqualTo("/a~1billingAddress~0/a~1city~0");
+	}
+
+	@Test
+	void snakeCaseSplitsWordsAndAcronyms() {
+		assertThat(NamingStrategies.snakeCase(null, "legalName")).isEqualTo("legal_name");
+		assertThat(NamingStrategies.snakeCase(null, "addressLine2")).isEqualTo("address_line2");
+		assertThat(NamingStrategies.snakeCase(null, "uRLValue")).isEqualTo("u_rl_value");
+		assertThat(NamingStrategies.snakeCase(null, "id")).isEqualTo("id");
+	}
+}
@@ -0,0 +1,99 @@
+package de.hbt.propertyname;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+class PropertyPathIndexTest {
+	class Order {
+		Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		List<Line> getLines() {
+			throw new AssertionError();
+		}
+
+		long getNumber() {
+			throw new AssertionError();
+		}
+	}
+
+	class Customer {
+		String getName() {
+			throw new AssertionError();
+		}
+
+		Set<Order> getOrders() {
+			throw new AssertionError();
+		}
+
+		boolean isActive() {
+			throw new AssertionError();
+		}
+
+		String compute(int x) {
+			throw new AssertionError();
+		}
+	}
+
+	class Line {
+		Article getArticle() {
+			throw new AssertionError();
+		}
+	}
+
+	class Article {
+		String getLabel() {
+			throw new AssertionError();
+		}
+	}
+
+	@Test
+	void containsAllPathsUpToTheMaximumDepth() {
+		PropertyPathIndex index = PropertyPathIndex.of(Order.class, 3);
+		assertThat(index.contains("customer")).isTrue();
+		assertThat(index.contains("customer.name")).isTrue();
+		assertThat(index.contains("customer.active")).isTrue();
+		assertThat(index.contains("customer.orders.number")).isTrue();
+		assertThat(index.contains("lines.article.label")).isTrue();
+		assertThat(index.contains(PropertyPath.parse("customer.orders.lines"))).isTrue();
+		assertThat(index.contains("customer.orders.customer.name")).isFalse();
+		assertThat(index.contains("customer.compute")).isFalse();
+		assertThat(index.contains("customer.name.length")).isFalse();
+		assertThat(index.contains("number.value")).isFalse();
+		assertThat(index.contains("customer.")).isFalse();
+		assertThat(index.contains(".customer")).isFalse();
+		assertThat(index.contains("")).isFalse();
+		assertThat(index.contains(PropertyPath.EMPTY)).isFalse();
+		assertThat(PropertyPathIndex.of(Order.class, 4).contains("customer.orders.customer.name")).isTrue();
+	}
+
+	@Test
+	void countsThePathsOfSharedNodesForEachParent() {
+		// number, lines, lines.article, lines.article.label, customer, customer.name, customer.active,
+		// customer.orders and the 3 properties of Order below it
+		assertThat(PropertyPathIndex.of(Order.class, 3).size()).isEqualTo(11);
+		assertThat(PropertyPathIndex.of(Customer.class, 1).size()).isEqualTo(3);
+	}
+
+	@Test
+	void returnsTheTypeAndGettersOfPaths() throws Exception {
+		PropertyPathIndex index = PropertyPathIndex.of(Order.class, 3, new ForkJoinPool(2));
+		assertThat(index.typeOf("customer.orders")).isEqualTo(Set.class);
+		assertThat(index.typeOf("customer.orders.number")).isEqualTo(long.class);
+		assertThat(index.typeOf("customer.unknown")).isNull();
+		assertThat(index.getters("lines.article.label")).containsExactly(Order.class.getDeclaredMethod("getLines"),
+				Line.class.getDeclaredMethod("getArticle"), Article.class.getDeclaredMethod("getLabel"));
+		assertThat(index.getters("lines.unknown")).isNull();
+	}
+
+	@Test
+	void rejectsClassesThatCannotBeProxied() {
+		assertThatExceptionOfType(PropertyNameException.class).isThrownBy(() -> PropertyPathIndex.of(String.class, 2));
+		assertThatIllegalArgumentException().isThrownBy(() -> PropertyPathIndex.of(Order.class, 0));
+	}
+}
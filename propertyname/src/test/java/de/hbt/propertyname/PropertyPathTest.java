@@ -0,0 +1,124 @@
+package de.hbt.propertyname;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class PropertyPathTest {
+	class Order {
+		Customer getCustomer() {
+			throw new AssertionError();
+		}
+
+		List<Customer> getCustomers() {
+			throw new AssertionError();
+		}
+	}
+
+	class Customer {
+		Address getAddress() {
+			throw new AssertionError();
+		}
+
+		String getName() {
+			throw new AssertionError();
+		}
+	}
+
+	class Address {
+		String getCity() {
+			throw new AssertionError();
+		}
+
+		int getZip() {
+			throw new AssertionError();
+		}
+	}
+
+	@Test
+	void pathsOfProxiesHoldSegmentsAndName() {
+		PropertyPath path = path(of(Order::getCustomer).getAddress().getCity());
+		assertThat(path.segments()).containsExactly("customer", "address", "city");
+		assertThat(path.size()).isEqualTo(3);
+		assertThat(path.segment(1)).isEqualTo("address");
+		assertThat(path.lastSegment()).isEqualTo("city");
+		assertThat(path).hasToString("customer.address.city");
+		assertThat(path.hashCode()).isEqualTo("customer.address.city".hashCode());
+		assertThat(path(any(of(Order::getCustomers)).getName())).hasToString("customers.name");
+	}
+
+	@Test
+	void recordedPathsAreReused() {
+		PropertyPath path = path(of(Order::getCustomer).getAddress().getCity());
+		assertThat(path(of(Order::getCustomer).getAddress().getCity())).isSameAs(path);
+		assertThat(pathOf(Order::getCustomer)).isSameAs(path.parent().parent());
+		assertThat(pathOf(Order::getCustomer).child("address").child("city")).isSameAs(path);
+		assertThat(pathOf(Order::getCustomer).concat(PropertyPath.of("address", "city"))).isSameAs(path);
+		assertThat(nameOf(Order::getCustomer)).isSameAs(pathOf(Order::getCustomer).toString());
+	}
+
+	@Test
+	void unrecordedPathsAreEqualToRecordedOnes() {
+		PropertyPath recorded = path(of(Order::getCustomer).getName());
+		PropertyPath unrecorded = PropertyPath.of("customer", "nickname").parent().child(new String("name"));
+		assertThat(unrecorded).isEqualTo(recorded).hasSameHashCodeAs(recorded).hasToString("customer.name");
+		assertThat(PropertyPath.of("customer", "nickname")).isNotEqualTo(recorded);
+	}
+
+	@Test
+	void composition() {
+		PropertyPath customer = PropertyPath.of("customer");
+		PropertyPath city = PropertyPath.parse("address.city");
+		PropertyPath path = customer.concat(city);
+		assertThat(path).hasToString("customer.address.city").isEqualTo(PropertyPath.parse("customer.address.city"));
+		assertThat(path.startsWith(customer)).isTrue();
+		assertThat(path.startsWith(path)).isTrue();
+		assertThat(path.startsWith(PropertyPath.EMPTY)).isTrue();
+		assertThat(path.startsWith(city)).isFalse();
+		assertThat(customer.startsWith(path)).isFalse();
+		assertThat(path.parent()).isEqualTo(PropertyPath.parse("customer.address"));
+		assertThat(customer.parent()).isSameAs(PropertyPath.EMPTY);
+		assertThat(PropertyPath.EMPTY.parent()).isNull();
+		assertThat(PropertyPath.EMPTY.concat(city)).isEqualTo(city);
+		assertThat(PropertyPath.parse("")).isSameAs(PropertyPath.EMPTY);
+		assertThat(PropertyPath.EMPTY).hasToString("");
+		assertThat(PropertyPath.EMPTY.isEmpty()).isTrue();
+		assertThat(PropertyPath.EMPTY.lastSegment()).isNull();
+	}
+
+	@Test
+	void pathExpressionsAreAnalyzedWithoutCallingThem() {
+		assertThat(pathOf(Order.class, o -> o.getCustomer().getAddress().getCity()))
+				.isSameAs(path(of(Order::getCustomer).getAddress().getCity()));
+		assertThat(pathOf(Order.class, o -> any(o.getCustomers()).getName())).hasToString("customers.name");
+		assertThat(nameOf(Order.class, o -> o.getCustomer().getAddress().getZip())).isEqualTo("customer.address.zip");
+		assertThat(nameOf(Order.class, Order::getCustomer)).isEqualTo("customer");
+		Function<Order, String> function = o -> o.getCustomer().getName();
+		assertThat(pathOf(Order.class, function)).hasToString("customer.name");
+	}
+
+	@Test
+	void pathExpressionsAreCachedPerLambdaClass() {
+		Getter<Order, String> expression = o -> o.getCustomer().getName();
+		assertThat(pathOf(Order.class, expression)).isSameAs(pathOf(Order.class, expression))
+				.isSameAs(path(of(Order::getCustomer).getName()));
+	}
+
+	@Test
+	void unsupportedPathExpressionsThrow() {
+		String suffix = "!";
+		assertThatThrownBy(() -> pathOf(Order.class, o -> o.getCustomer().getName() + suffix))
+				.isInstanceOf(PropertyNameException.class).hasMessageContaining("capture");
+		assertThatThrownBy(() -> pathOf(Order.class, o -> o.getCustomer() != null ? o.getCustomer().getName() : null))
+				.isInstanceOf(PropertyNameException.class).hasMessageContaining("branch");
+		assertThatThrownBy(() -> pathOf(Order.class, o -> o.toString())).isInstanceOf(PropertyNameException.class)
+				.hasMessageContaining("toString");
+		assertThatThrownBy(() -> pathOf(Order.class, o -> String.valueOf(o.getCustomer().getAddress().getZip())))
+				.isInstanceOf(PropertyNameException.class).hasMessageContaining("java.lang.String.valueOf");
+	}
+
+}
@@ -0,0 +1,154 @@
+package de.hbt.propertyname;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProxyCacheTest {
+	class Vehicle {
+		Engine getEngine() {
+			throw new AssertionError();
+		}
+	}
+
+	class Car extends Vehicle {
+		int getSeats() {
+			throw new AssertionError();
+		}
+	}
+
+	class Engine {
+		int getPower() {
+			throw new AssertionError();
+		}
+	}
+
+	class Trailer {
+		List<Vehicle> getLoad() {
+			throw new AssertionError();
+		}
+	}
+
+	@TempDir
+	Path directory;
+
+	private static String proxyName(Class<?> clazz) {
+		return PropertyNameBuilder.proxyClassInternalName(clazz);
+	}
+
+	@Test
+	void generatedClassesAreDeterministic() {
+		assertThat(PropertyNameBuilder.generateProxyClass(Car.class, proxyName(Car.class)))
+				.isEqualTo(PropertyNameBuilder.generateProxyClass(Car.class, proxyName(Car.class)));
+	}
+
+	@Test
+	void writesGeneratedClassAndReadsItBack() throws Exception {
+		ProxyCache cache = new ProxyCache(directory);
+		byte[] generated = cache.definition(Car.class, proxyName(Car.class));
+		assertThat(generated).isEqualTo(PropertyNameBuilder.generateProxyClass(Car.class, proxyName(Car.class)));
+		Path file = directory.resolve(cache.key(Car.class, proxyName(Car.class)) + ".class");
+		byte[] content = Files.readAllBytes(file);
+		assertThat(Arrays.copyOfRange(content, 32, content.length)).isEqualTo(generated);
+		assertThat(new ProxyCache(directory).definition(Car.class, proxyName(Car.class))).isEqualTo(generated);
+	}
+
+	@Test
+	void tamperedFilesAreReplaced() throws Exception {
+		ProxyCache cache = new ProxyCache(directory);
+		byte[] generated = cache.definition(Car.class, proxyName(Car.class));
+		Path file = directory.resolve(cache.key(Car.class, proxyName(Car.class)) + ".class");
+		byte[] content = Files.readAllBytes(file);
+		byte[] marked = content.clone();
+		marked[marked.length - 1]++;
+		Files.write(file, marked);
+		assertThat(new ProxyCache(directory).definition(Car.class, proxyName(Car.class))).isEqualTo(generated);
+		assertThat(file).hasBinaryContent(content);
+
+		Path vehicle = directory.resolve(cache.key(Vehicle.class, proxyName(Vehicle.class)) + ".class");
+		Files.copy(file, vehicle);
+		assertThat(new ProxyCache(directory).definition(Vehicle.class, proxyName(Vehicle.class)))
+				.isEqualTo(PropertyNameBuilder.generateProxyClass(Vehicle.class, proxyName(Vehicle.class)));
+	}
+
+	@Test
+	void directoriesWritableByOthersAreNotUsed() throws Exception {
+		assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+		Path shared = Files.createDirectory(directory.resolve("shared"));
+		Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+		ProxyCache cache = new ProxyCache(shared);
+		assertThat(cache.definition(Car.class, proxyName(Car.class)))
+				.isEqualTo(PropertyNameBuilder.generateProxyClass(Car.class, proxyName(Car.class)));
+		assertThat(cache.trusted()).isFalse();
+		try (Stream<Path> files = Files.list(shared)) {
+			assertThat(files).isEmpty();
+		}
+
+		ProxyCache created = new ProxyCache(directory.resolve("created"));
+		assertThat(created.trusted()).isTrue();
+		assertThat(Files.getPosixFilePermissions(directory.resolve("created")))
+				.isEqualTo(PosixFilePermissions.fromString("rwx------"));
+	}
+
+	@Test
+	void keysAreComputedFromClassFilesWithoutReflection() {
+		ProxyCache cache = new ProxyCache(directory);
+		assertThat(cache.key(Trailer.class, proxyName(Trailer.class)))
+				.isEqualTo(new ProxyCache(directory).key(Trailer.class, proxyName(Trailer.class)));
+		assertThat(Caches.tracked(Trailer.class.getClassLoader())).doesNotContain(Trailer.class);
+	}
+
+	@Test
+	void keysDependOnProxiedClassAndProxyName() {
+		ProxyCache cache = new ProxyCache(directory);
+		assertThat(cache.key(Car.class, proxyName(Car.class)))
+				.isEqualTo(new ProxyCache(directory).key(Car.class, proxyName(Car.class)))
+				.isNotEqualTo(cache.key(Vehicle.class, proxyName(Vehicle.class)))
+				.isNotEqualTo(cache.key(Car.class, proxyName(Vehicle.class)))
+				.matches("[0-9a-f]{64}");
+	}
+
+	@Test
+	void invalidFilesAreReplaced() throws Exception {
+		ProxyCache cache = new ProxyCache(directory);
+		Path file = directory.resolve(cache.key(Engine.class, proxyName(Engine.class)) + ".class");
+		Files.write(file, new byte[] { 1, 2, 3 });
+		byte[] definition = cache.definition(Engine.class, proxyName(Engine.class));
+		assertThat(definition).isEqualTo(PropertyNameBuilder.generateProxyClass(Engine.class, proxyName(Engine.class)));
+		assertThat(Files.size(file)).isEqualTo(32 + definition.length);
+		assertThat(new ProxyCache(directory).definition(Engine.class, proxyName(Engine.class))).isEqualTo(definition);
+	}
+
+	@Test
+	void concurrentWritersLeaveOnlyCompleteFiles() throws Exception {
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			List<Future<byte[]>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> {
+					barrier.await();
+					return new ProxyCache(directory).definition(Vehicle.class, proxyName(Vehicle.class));
+				}));
+			}
+			for (Future<byte[]> result : results)
+				assertThat(result.get()).isEqualTo(results.get(0).get());
+		} finally {
+			executor.shutdownNow();
+		}
+		try (Stream<Path> files = Files.list(directory)) {
+			assertThat(files.map(f -> f.getFileName().toString()).collect(Collectors.toList()))
+					.containsExactly(new ProxyCache(directory).key(Vehicle.class, proxyName(Vehicle.class)) + ".class");
+		}
+	}
+
+}
@@ -0,0 +1,13 @@
+package de.hbt.propertyname.preload;
+
+import de.hbt.propertyname.preload.items.Item;
+
+public class Shelf {
+	public String getLabel() {
+		throw new AssertionError();
+	}
+
+	public Item getTopItem() {
+		throw new AssertionError();
+	}
+}
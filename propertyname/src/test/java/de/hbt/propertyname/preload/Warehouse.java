@@ -0,0 +1,9 @@
+package de.hbt.propertyname.preload;
+
+import java.util.List;
+
+public class Warehouse {
+	public List<Shelf> getShelves() {
+		throw new AssertionError();
+	}
+}
@@ -0,0 +1,7 @@
+package de.hbt.propertyname.preload.items;
+
+public class Item {
+	public Supplier getSupplier() {
+		throw new AssertionError();
+	}
+}
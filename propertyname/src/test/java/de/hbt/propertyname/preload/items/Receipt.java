@@ -0,0 +1,7 @@
+package de.hbt.propertyname.preload.items;
+
+public final class Receipt {
+	public Item getItem() {
+		throw new AssertionError();
+	}
+}
@@ -0,0 +1,5 @@
+package de.hbt.propertyname.preload.items;
+
+public interface Supplier {
+	String getName();
+}
@@ -0,0 +1,7 @@
+package de.hbt.propertyname.unload;
+
+public class Account {
+	public String getHolder() {
+		return "Jane";
+	}
+}
@@ -0,0 +1,9 @@
+package de.hbt.propertyname.unload;
+
+public class Ledger {
+	private final Account account = new Account();
+
+	public Account getAccount() {
+		return account;
+	}
+}
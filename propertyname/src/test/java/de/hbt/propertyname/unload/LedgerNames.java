@@ -0,0 +1,19 @@
+package de.hbt.propertyname.unload;
+
+import static de.hbt.propertyname.PropertyNameBuilder.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Uses everything that caches values per class, to be run in a class loader which is thrown away afterwards.
+ */
+public class LedgerNames implements Supplier<List<Object>> {
+	@Override
+	public List<Object> get() {
+		return Arrays.asList(name(of(Ledger::getAccount).getHolder()), nameOf(Ledger::getAccount),
+				nameOf(Ledger.class, l -> l.getAccount().getHolder()),
+				accessor(Ledger.class, "account.holder").apply(new Ledger()),
+				extractor(Ledger.class, "account", "account.holder").extract(new Ledger())[1]);
+	}
+}